@@ -0,0 +1,114 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Per-record serialize and deserialize cost of each wire format, on
+ * completed packages. The average payload size of the format is printed
+ * once per fork, next to the JSON size, since JMH only reports times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappedPackageWireFormatBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private static final String TOPIC = "cdc-mapped-packages";
+
+    private static final DateTimeFormatter FORMAT_MICROS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    @Param({ "JSON", "AVRO", "COMPACT" })
+    private WireFormat wireFormat;
+
+    private Serializer<MappedPackage> serializer;
+
+    private Deserializer<MappedPackage> deserializer;
+
+    private MappedPackage[] records;
+
+    private byte[][] payloads;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        LocalSchemaRegistry registry = new LocalSchemaRegistry("classpath:schemas");
+        MappedPackageSerde serde = new MappedPackageSerde(objectMapper, wireFormat, registry);
+        Serializer<MappedPackage> json = new MappedPackageSerde(objectMapper).serializer();
+        serializer = serde.wire().serializer();
+        deserializer = serde.wire().deserializer();
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2025, 11, 13, 0, 0);
+        records = new MappedPackage[BATCH];
+        payloads = new byte[BATCH][];
+        long bytes = 0;
+        long jsonBytes = 0;
+
+        for (int i = 0; i < BATCH; i++) {
+            LocalDateTime created = start.plusSeconds(random.nextInt(86_400))
+                    .plusNanos(random.nextInt(1_000_000) * 1000L);
+            int collection = random.nextInt(30) + 5;
+            int delivery = random.nextInt(60) + 20;
+            int eta = random.nextInt(120) + 30;
+
+            records[i] = MappedPackage.builder()
+                    .id(100_000L + i)
+                    .createdAt(created.format(FORMAT_MICROS))
+                    .lastUpdatedAt(created.plusMinutes(collection + delivery).format(FORMAT_MICROS))
+                    .collectionDuration(collection)
+                    .deliveryDuration(delivery)
+                    .eta(eta)
+                    .leadTime(collection + delivery)
+                    .orderInTime(collection + delivery <= eta)
+                    .build();
+            payloads[i] = serializer.serialize(TOPIC, records[i]);
+            bytes += payloads[i].length;
+            jsonBytes += json.serialize(TOPIC, records[i]).length;
+        }
+
+        System.out.printf("%n%s: %.1f bytes per record, JSON %.1f (%.1fx)%n", wireFormat, (double) bytes / BATCH,
+                (double) jsonBytes / BATCH, (double) jsonBytes / bytes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void serialize(Blackhole blackhole) {
+        for (MappedPackage record : records) {
+            blackhole.consume(serializer.serialize(TOPIC, record));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void deserialize(Blackhole blackhole) {
+        for (byte[] payload : payloads) {
+            blackhole.consume(deserializer.deserialize(TOPIC, payload));
+        }
+    }
+}
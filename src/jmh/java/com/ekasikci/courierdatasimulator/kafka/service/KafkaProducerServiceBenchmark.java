@@ -0,0 +1,83 @@
+package com.ekasikci.courierdatasimulator.kafka.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
+
+import com.ekasikci.courierdatasimulator.kafka.config.DataGenerationConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.entitiy.Package;
+import com.ekasikci.courierdatasimulator.kafka.simulator.PackageDataGenerator;
+
+/**
+ * Per-record serialization cost of KafkaProducerService sends: the Long key
+ * and the MappedPackage value as JSON with type headers. The serializer is
+ * built here as JacksonJsonSerializer, the non-deprecated form of the
+ * JsonSerializer in application.properties; both write the same fields for
+ * MappedPackage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaProducerServiceBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private static final String TOPIC = "mapped-packages";
+
+    private final LongSerializer keySerializer = new LongSerializer();
+
+    private final JacksonJsonSerializer<MappedPackage> valueSerializer = new JacksonJsonSerializer<>();
+
+    private List<MappedPackage> mapped;
+
+    @Setup
+    public void setUp() {
+        valueSerializer.configure(Map.of(JacksonJsonSerializer.ADD_TYPE_INFO_HEADERS, true), false);
+
+        PackageDataGenerator generator = new PackageDataGenerator(new DataGenerationConfig());
+        List<Package> packages = new ArrayList<>(BATCH);
+        while (packages.size() < BATCH) {
+            Package pkg = generator.generateSinglePackage();
+            if (!pkg.isCancelled())
+                packages.add(pkg);
+        }
+        mapped = new PackageService(null).mapNonCancelledPackages(packages);
+    }
+
+    @TearDown
+    public void tearDown() {
+        valueSerializer.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void serialize(Blackhole blackhole) {
+        for (MappedPackage value : mapped) {
+            RecordHeaders headers = new RecordHeaders();
+            blackhole.consume(keySerializer.serialize(TOPIC, value.getId()));
+            blackhole.consume(valueSerializer.serialize(TOPIC, headers, value));
+        }
+    }
+}
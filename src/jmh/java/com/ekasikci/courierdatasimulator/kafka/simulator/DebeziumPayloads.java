@@ -0,0 +1,87 @@
+package com.ekasikci.courierdatasimulator.kafka.simulator;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.ekasikci.courierdatasimulator.kafka.config.DataGenerationConfig;
+import com.ekasikci.courierdatasimulator.kafka.entitiy.Package;
+import com.ekasikci.courierdatasimulator.kafka.streams.DebeziumAvroEncoder;
+import com.ekasikci.courierdatasimulator.kafka.transformer.MappingKernel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmark inputs shaped like the Debezium connector output for the
+ * packages table: every column in table order, DATETIME(6) columns as epoch
+ * micros (adaptive_time_microseconds) and the {@code __deleted} field added
+ * by delete.handling.mode=rewrite. Rows come from PackageDataGenerator, so
+ * the status mix, nulls and data errors match the simulator.
+ *
+ * generateAvro encodes the same rows the way the Avro converter of
+ * debezium-mysql-connector-avro.json does.
+ */
+public final class DebeziumPayloads {
+
+    private DebeziumPayloads() {
+    }
+
+    public static byte[][] generate(ObjectMapper objectMapper, int count) {
+        PackageDataGenerator generator = new PackageDataGenerator(new DataGenerationConfig());
+        byte[][] payloads = new byte[count][];
+
+        for (int i = 0; i < count; i++) {
+            try {
+                payloads[i] = objectMapper.writeValueAsBytes(toRow(generator.generateSinglePackage()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return payloads;
+    }
+
+    public static byte[][] generateAvro(ObjectMapper objectMapper, String schema, int schemaId, int count) {
+        PackageDataGenerator generator = new PackageDataGenerator(new DataGenerationConfig());
+        DebeziumAvroEncoder encoder = new DebeziumAvroEncoder(objectMapper, schema, schemaId);
+        byte[][] payloads = new byte[count][];
+
+        for (int i = 0; i < count; i++) {
+            payloads[i] = encoder.encode(toRow(generator.generateSinglePackage()));
+        }
+        return payloads;
+    }
+
+    private static Map<String, Object> toRow(Package pkg) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", pkg.getId());
+        row.put("arrival_for_delivery_at", micros(pkg.getArrivalForDeliveryAt()));
+        row.put("arrival_for_pickup_at", micros(pkg.getArrivalForPickupAt()));
+        row.put("cancel_reason", pkg.getCancelReason());
+        row.put("cancelled", pkg.getCancelled());
+        row.put("completed_at", micros(pkg.getCompletedAt()));
+        row.put("created_at", micros(pkg.getCreatedAt()));
+        row.put("customer_id", pkg.getCustomerId());
+        row.put("in_delivery_at", micros(pkg.getInDeliveryAt()));
+        row.put("last_updated_at", micros(pkg.getLastUpdatedAt()));
+        row.put("eta", pkg.getEta());
+        row.put("status", pkg.getStatus());
+        row.put("store_id", pkg.getStoreId());
+        row.put("origin_address_id", pkg.getOriginAddressId());
+        row.put("type", pkg.getType());
+        row.put("waiting_for_assignment_at", micros(pkg.getWaitingForAssignmentAt()));
+        row.put("user_id", pkg.getUserId());
+        row.put("collected", pkg.getCollected());
+        row.put("collected_at", micros(pkg.getCollectedAt()));
+        row.put("cancelled_at", micros(pkg.getCancelledAt()));
+        row.put("picked_up_at", micros(pkg.getPickedUpAt()));
+        row.put("reassigned", pkg.getReassigned());
+        row.put("order_id", pkg.getOrderId());
+        row.put("delivery_date", pkg.getDeliveryDate());
+        row.put("__deleted", "false");
+        return row;
+    }
+
+    private static Long micros(LocalDateTime dateTime) {
+        return dateTime == null ? null : MappingKernel.toEpochMicros(dateTime);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ekasikci.courierdatasimulator.kafka.simulator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ekasikci.courierdatasimulator.kafka.config.DataGenerationConfig;
+import com.ekasikci.courierdatasimulator.kafka.entitiy.Package;
+
+/**
+ * Cost of generating one simulated package with the default generation
+ * settings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackageDataGeneratorBenchmark {
+
+    private final PackageDataGenerator generator = new PackageDataGenerator(new DataGenerationConfig());
+
+    @Benchmark
+    public Package generateSinglePackage() {
+        return generator.generateSinglePackage();
+    }
+}
@@ -0,0 +1,148 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.serde.LocalSchemaRegistry;
+import com.ekasikci.courierdatasimulator.kafka.serde.MappedPackageSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.PackageCDCSerde;
+import com.ekasikci.courierdatasimulator.kafka.simulator.DebeziumPayloads;
+import com.ekasikci.courierdatasimulator.kafka.transformer.PackageTransformer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Per-record cost of the PackageStreamProcessor stages on Debezium payloads:
+ * parsing the source value (BINDING and SELECTIVE decoders, the original
+ * String binding and Avro input) and serializing the MappedPackage for the
+ * output topic. The average JSON and Avro CDC payload sizes are printed once
+ * per fork.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackageStreamBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private static final String TOPIC = "dbserver.package_db.packages";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final PackageTransformer transformer = new PackageTransformer();
+
+    private final PackageCDCSerde packageCDCSerde = new PackageCDCSerde(objectMapper);
+
+    private final MappedPackageSerde mappedPackageSerde = new MappedPackageSerde(objectMapper);
+
+    private final PackageCDCDecoder decoder = new PackageCDCDecoder(objectMapper);
+
+    private final LocalSchemaRegistry cdcSchemas = new LocalSchemaRegistry("classpath:schemas/cdc");
+
+    private final PackageCDCAvroDecoder avroDecoder = new PackageCDCAvroDecoder(objectMapper, cdcSchemas, TOPIC);
+
+    private byte[][] payloads;
+
+    private byte[][] avroPayloads;
+
+    private String[] payloadStrings;
+
+    private MappedPackage[] mapped;
+
+    @Setup
+    public void setUp() {
+        payloads = DebeziumPayloads.generate(objectMapper, BATCH);
+        avroPayloads = DebeziumPayloads.generateAvro(objectMapper,
+                cdcSchemas.latest(TOPIC + "-value").getDefinition(), cdcSchemas.id(TOPIC + "-value", 1), BATCH);
+        payloadStrings = new String[BATCH];
+        mapped = new MappedPackage[BATCH];
+
+        for (int i = 0; i < BATCH; i++) {
+            payloadStrings[i] = new String(payloads[i], StandardCharsets.UTF_8);
+            mapped[i] = transformer.transform(packageCDCSerde.deserializer().deserialize(TOPIC, payloads[i]));
+        }
+
+        System.out.printf("%nCDC payload: JSON %.1f bytes, Avro %.1f bytes per record%n", average(payloads),
+                average(avroPayloads));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parseBinding(Blackhole blackhole) {
+        for (byte[] payload : payloads) {
+            blackhole.consume(transformer.preParse(packageCDCSerde.deserializer().deserialize(TOPIC, payload)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parseSelective(Blackhole blackhole) {
+        for (byte[] payload : payloads) {
+            blackhole.consume(decoder.decode(payload));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parseAvro(Blackhole blackhole) {
+        for (byte[] payload : avroPayloads) {
+            blackhole.consume(avroDecoder.decode(payload));
+        }
+    }
+
+    /**
+     * Original String-serde path: bytes decoded to String, then bound
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parseLegacyString(Blackhole blackhole) throws Exception {
+        for (byte[] payload : payloads) {
+            String json = new String(payload, StandardCharsets.UTF_8);
+            blackhole.consume(transformer.preParse(objectMapper.readValue(json, PackageCDC.class)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void serializeSerde(Blackhole blackhole) {
+        for (MappedPackage value : mapped) {
+            blackhole.consume(mappedPackageSerde.serializer().serialize(TOPIC, value));
+        }
+    }
+
+    /**
+     * Original path: writeValueAsString followed by the String serde
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void serializeLegacyString(Blackhole blackhole) throws Exception {
+        for (MappedPackage value : mapped) {
+            blackhole.consume(objectMapper.writeValueAsString(value).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static double average(byte[][] payloads) {
+        long bytes = 0;
+        for (byte[] payload : payloads) {
+            bytes += payload.length;
+        }
+        return (double) bytes / payloads.length;
+    }
+}
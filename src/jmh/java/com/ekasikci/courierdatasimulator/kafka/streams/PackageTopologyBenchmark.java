@@ -0,0 +1,124 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.serde.MappedPackageSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.NumericPackageCDCSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.PackageCDCSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.StoreSlaSerde;
+import com.ekasikci.courierdatasimulator.kafka.simulator.DebeziumPayloads;
+import com.ekasikci.courierdatasimulator.kafka.transformer.PackageTransformer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * End-to-end cost per CDC record of the CHAIN and FUSED topologies, driven
+ * through TopologyTestDriver with Debezium-shaped payloads. Per-record
+ * logging is switched off so the numbers reflect processing only; the
+ * driver itself needs a longer warmup than the micro benchmarks. The same
+ * records are replayed every invocation, so the stale-update and unchanged
+ * output stores are off.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackageTopologyBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private static final String CDC_TOPIC = "dbserver.package_db.packages";
+
+    private static final String MAPPED_TOPIC = "cdc-mapped-packages";
+
+    @Param({ "CHAIN", "FUSED" })
+    private String topology;
+
+    @Param({ "BINDING", "SELECTIVE" })
+    private String decoder;
+
+    private TopologyTestDriver driver;
+
+    private TestInputTopic<String, byte[]> input;
+
+    private TestOutputTopic<String, byte[]> output;
+
+    private List<KeyValue<String, byte[]>> records;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        StreamProcessingConfig config = new StreamProcessingConfig();
+        config.setTopology(topology);
+        config.setDecoder(decoder);
+        config.setDropStale(false);
+        config.setSuppressUnchanged(false);
+
+        PackageTransformer transformer = new PackageTransformer();
+        PackageCDCParser parser = new PackageCDCParser(transformer, new PackageCDCSerde(objectMapper),
+                new NumericPackageCDCSerde(objectMapper), new PackageCDCDecoder(objectMapper, config),
+                new PackageCDCAvroDecoder(objectMapper, config, CDC_TOPIC), config, CDC_TOPIC);
+        PackageStreamProcessor processor = new PackageStreamProcessor(transformer,
+                new MappedPackageSerde(objectMapper), new StoreSlaSerde(objectMapper), parser, new CdcRecordPrefilter(),
+                new PackageStreamMetrics(), new PackageDurationSketches(), config);
+        ReflectionTestUtils.setField(processor, "cdcTopic", CDC_TOPIC);
+        ReflectionTestUtils.setField(processor, "mappedTopic", MAPPED_TOPIC);
+
+        StreamsBuilder builder = new StreamsBuilder();
+        processor.packageStream(builder);
+
+        driver = new TopologyTestDriver(builder.build());
+        input = driver.createInputTopic(CDC_TOPIC, Serdes.String().serializer(), Serdes.ByteArray().serializer());
+        output = driver.createOutputTopic(MAPPED_TOPIC, Serdes.String().deserializer(),
+                Serdes.ByteArray().deserializer());
+
+        byte[][] payloads = DebeziumPayloads.generate(objectMapper, BATCH);
+        records = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            records.add(new KeyValue<>("{\"id\":" + (i + 1) + "}", payloads[i]));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        driver.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<byte[]> process() {
+        input.pipeKeyValueList(records);
+        return output.readValuesToList();
+    }
+}
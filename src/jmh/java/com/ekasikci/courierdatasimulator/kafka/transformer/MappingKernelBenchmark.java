@@ -0,0 +1,162 @@
+package com.ekasikci.courierdatasimulator.kafka.transformer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.entitiy.Package;
+import com.ekasikci.courierdatasimulator.kafka.service.PackageService;
+
+/**
+ * Per-package cost of the MappingKernel-based JPA and CDC paths against the
+ * original implementations (Duration.between per field in PackageService,
+ * string re-parsing per duration in PackageTransformer).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingKernelBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private static final DateTimeFormatter FORMAT_MICROS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private static final DateTimeFormatter FORMAT_SECONDS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final PackageService packageService = new PackageService(null);
+
+    private final PackageTransformer transformer = new PackageTransformer();
+
+    private final LegacyPackageTransformer legacyTransformer = new LegacyPackageTransformer();
+
+    private List<Package> packages;
+
+    private PackageCDC[] records;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        packages = new ArrayList<>(BATCH);
+        records = new PackageCDC[BATCH];
+
+        for (int i = 0; i < BATCH; i++) {
+            LocalDateTime created = LocalDateTime.of(2025, 11, 13, 0, 0)
+                    .plusSeconds(random.nextInt(86_400))
+                    .plusNanos(random.nextInt(1_000_000) * 1_000L);
+            LocalDateTime pickedUp = created.plusMinutes(random.nextInt(30) + 5);
+            LocalDateTime completed = pickedUp.plusMinutes(random.nextInt(60) + 20);
+            int eta = random.nextInt(120) + 30;
+
+            packages.add(Package.builder()
+                    .id(100_000L + i)
+                    .eta(eta)
+                    .cancelled(0)
+                    .status("COMPLETED")
+                    .createdAt(created)
+                    .lastUpdatedAt(completed)
+                    .pickedUpAt(pickedUp)
+                    .completedAt(completed)
+                    .build());
+
+            records[i] = PackageCDC.builder()
+                    .id(100_000L + i)
+                    .eta(eta)
+                    .cancelled(0)
+                    .status("COMPLETED")
+                    .createdAt(Long.toString(MappingKernel.toEpochMicros(created)))
+                    .lastUpdatedAt(Long.toString(MappingKernel.toEpochMicros(completed)))
+                    .pickedUpAt(Long.toString(MappingKernel.toEpochMicros(pickedUp)))
+                    .completedAt(Long.toString(MappingKernel.toEpochMicros(completed)))
+                    .build();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<MappedPackage> jpaKernel() {
+        return packageService.mapNonCancelledPackages(packages);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void jpaLegacy(Blackhole blackhole) {
+        for (Package pkg : packages) {
+            blackhole.consume(legacyMapToMappedPackage(pkg));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void cdcKernel(Blackhole blackhole) {
+        for (PackageCDC record : records) {
+            blackhole.consume(transformer.transform(record));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void cdcLegacy(Blackhole blackhole) {
+        for (PackageCDC record : records) {
+            blackhole.consume(legacyTransformer.transform(record));
+        }
+    }
+
+    /**
+     * Original PackageService#mapToMappedPackage
+     */
+    private static MappedPackage legacyMapToMappedPackage(Package pkg) {
+        MappedPackage mapped = new MappedPackage();
+
+        mapped.setId(pkg.getId());
+        mapped.setEta(pkg.getEta());
+        mapped.setCreatedAt(legacyFormat(pkg.getCreatedAt()));
+        mapped.setLastUpdatedAt(legacyFormat(pkg.getLastUpdatedAt()));
+
+        if (!pkg.isCompleted())
+            return mapped;
+
+        mapped.setCollectionDuration(legacyDuration(pkg.getCreatedAt(), pkg.getPickedUpAt()));
+        mapped.setDeliveryDuration(legacyDuration(pkg.getPickedUpAt(), pkg.getCompletedAt()));
+        Integer leadTime = legacyDuration(pkg.getCreatedAt(), pkg.getCompletedAt());
+        mapped.setLeadTime(leadTime);
+
+        if (leadTime != null && pkg.getEta() != null)
+            mapped.setOrderInTime(leadTime <= pkg.getEta());
+
+        return mapped;
+    }
+
+    private static Integer legacyDuration(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null)
+            return null;
+        return (int) Duration.between(start, end).toMinutes();
+    }
+
+    private static String legacyFormat(LocalDateTime dateTime) {
+        if (dateTime == null)
+            return null;
+        return dateTime.getNano() > 0 ? dateTime.format(FORMAT_MICROS) : dateTime.format(FORMAT_SECONDS);
+    }
+}
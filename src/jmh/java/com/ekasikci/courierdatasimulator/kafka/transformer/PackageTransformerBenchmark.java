@@ -0,0 +1,99 @@
+package com.ekasikci.courierdatasimulator.kafka.transformer;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+
+/**
+ * Per-record cost of PackageTransformer.transform against the original
+ * implementation that re-parsed every timestamp for each duration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackageTransformerBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private static final DateTimeFormatter FORMAT_MICROS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    /**
+     * MICROS is what the connector emits for DATETIME(6) columns
+     */
+    @Param({ "MICROS", "DATETIME" })
+    private String timestampFormat;
+
+    private final PackageTransformer transformer = new PackageTransformer();
+
+    private final LegacyPackageTransformer legacy = new LegacyPackageTransformer();
+
+    private PackageCDC[] records;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        records = new PackageCDC[BATCH];
+
+        for (int i = 0; i < BATCH; i++) {
+            long created = 1_763_030_872_000_000L + random.nextInt(86_400) * 1_000_000L + random.nextInt(1_000_000);
+            long pickedUp = created + (random.nextInt(30) + 5) * 60_000_000L;
+            long completed = pickedUp + (random.nextInt(60) + 20) * 60_000_000L;
+
+            records[i] = PackageCDC.builder()
+                    .id(100_000L + i)
+                    .eta(random.nextInt(120) + 30)
+                    .cancelled(0)
+                    .status("COMPLETED")
+                    .createdAt(format(created))
+                    .lastUpdatedAt(format(completed))
+                    .pickedUpAt(format(pickedUp))
+                    .completedAt(format(completed))
+                    .build();
+        }
+    }
+
+    private String format(long micros) {
+        if ("MICROS".equals(timestampFormat)) {
+            return Long.toString(micros);
+        }
+        return LocalDateTime.ofEpochSecond(micros / 1_000_000, (int) (micros % 1_000_000) * 1000, ZoneOffset.UTC)
+                .format(FORMAT_MICROS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void transform(Blackhole blackhole) {
+        for (PackageCDC record : records) {
+            blackhole.consume(transformer.transform(record));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void legacyTransform(Blackhole blackhole) {
+        for (PackageCDC record : records) {
+            blackhole.consume(legacy.transform(record));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ekasikci.courierdatasimulator.kafka.config;
+
+import java.util.Map;
+
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Cache;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.WriteBufferManager;
+
+/**
+ * Caps the off-heap memory of all RocksDB state stores in this JVM.
+ *
+ * Every store shares one LRU block cache; memtables are charged against the
+ * same cache through a WriteBufferManager, and index/filter blocks live in
+ * the cache instead of growing unbounded with the data. The budget comes
+ * from the streams properties set by KafkaStreamsConfig.
+ */
+public class BoundedMemoryRocksDBConfig implements RocksDBConfigSetter {
+
+    /**
+     * Total bytes for block cache plus memtables
+     */
+    public static final String TOTAL_OFF_HEAP_BYTES_CONFIG = "app.rocksdb.total-off-heap-bytes";
+
+    // Share of the budget memtables may take before they are flushed
+    private static final double MEMTABLE_RATIO = 0.25;
+
+    // Share of the block cache reserved for index and filter blocks
+    private static final double INDEX_FILTER_RATIO = 0.1;
+
+    private static Cache cache;
+
+    private static WriteBufferManager writeBufferManager;
+
+    private static synchronized void init(long totalBytes) {
+        if (cache != null)
+            return;
+        cache = new LRUCache(totalBytes, -1, false, INDEX_FILTER_RATIO);
+        writeBufferManager = new WriteBufferManager((long) (totalBytes * MEMTABLE_RATIO), cache);
+    }
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        Object total = configs.get(TOTAL_OFF_HEAP_BYTES_CONFIG);
+        init(total == null ? 64L * 1024 * 1024 : Long.parseLong(total.toString()));
+
+        BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        tableConfig.setBlockCache(cache);
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setCacheIndexAndFilterBlocksWithHighPriority(true);
+        tableConfig.setPinTopLevelIndexAndFilter(true);
+        options.setWriteBufferManager(writeBufferManager);
+        options.setTableFormatConfig(tableConfig);
+    }
+
+    @Override
+    public void close(String storeName, Options options) {
+        // Cache and WriteBufferManager are shared by every store, never closed per store
+    }
+}
@@ -49,6 +49,11 @@ public class IngestionStrategyConfig {
          * Maximum batch size (number of packages)
          */
         private int maxSize = 1000;
+
+        /**
+         * How long a batch run waits for the broker acks of its packages (in seconds)
+         */
+        private int ackTimeoutSeconds = 60;
     }
 
     @Data
@@ -62,6 +67,11 @@ public class IngestionStrategyConfig {
          * Maximum micro-batch size (number of packages)
          */
         private int maxSize = 100;
+
+        /**
+         * How long a micro-batch run waits for the broker acks of its packages (in seconds)
+         */
+        private int ackTimeoutSeconds = 5;
     }
 
     @Data
@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,23 +14,37 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
 
 import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.serde.MappedPackageSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.WireFormat;
 
 @Configuration
 public class KafkaConsumerConfig {
 
+    private final MappedPackageSerde mappedPackageSerde;
+
+    public KafkaConsumerConfig(MappedPackageSerde mappedPackageSerde) {
+        this.mappedPackageSerde = mappedPackageSerde;
+    }
+
+    /**
+     * Reads the mapped-packages output in app.kafka.wire-format
+     */
     @Bean
     public ConsumerFactory<String, MappedPackage> mappedPackageConsumerFactory() {
 
         JacksonJsonDeserializer<MappedPackage> jsonDeserializer = new JacksonJsonDeserializer<>(MappedPackage.class);
         jsonDeserializer.addTrustedPackages("*");
+        Deserializer<MappedPackage> valueDeserializer = mappedPackageSerde.getWireFormat() == WireFormat.JSON
+                ? jsonDeserializer
+                : mappedPackageSerde.wire().deserializer();
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "mapped-package-verification-consumer");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, jsonDeserializer);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, valueDeserializer);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), jsonDeserializer);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), valueDeserializer);
     }
 
     @Bean
@@ -1,21 +1,42 @@
 package com.ekasikci.courierdatasimulator.kafka.config;
 
+import org.springframework.boot.kafka.autoconfigure.DefaultKafkaProducerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 
 import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.serde.MappedPackageSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.WireFormat;
 
 @Configuration
 public class KafkaProducerConfig {
 
     /**
-     * KafkaTemplate for sending MappedPackage objects to Kafka.
+     * KafkaTemplate for sending MappedPackage objects to Kafka, keyed by
+     * package or store id with spring.kafka.producer.key-serializer=LongSerializer.
      */
     @Bean
-    public KafkaTemplate<String, MappedPackage> kafkaTemplate(
-            ProducerFactory<String, MappedPackage> producerFactory) {
+    public KafkaTemplate<Long, MappedPackage> kafkaTemplate(
+            ProducerFactory<Long, MappedPackage> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
-}
\ No newline at end of file
+
+    /**
+     * With a binary app.kafka.wire-format, values are written by its
+     * serializer instead of spring.kafka.producer.value-serializer, so they
+     * also go out without the JSON type headers.
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaProducerFactoryCustomizer wireFormatProducerFactoryCustomizer(
+            MappedPackageSerde mappedPackageSerde) {
+        return producerFactory -> {
+            if (mappedPackageSerde.getWireFormat() != WireFormat.JSON)
+                ((DefaultKafkaProducerFactory<Long, MappedPackage>) producerFactory)
+                        .setValueSerializer(mappedPackageSerde.wire().serializer());
+        };
+    }
+}
@@ -1,12 +1,14 @@
 package com.ekasikci.courierdatasimulator.kafka.config;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.streams.StreamsConfig;
@@ -42,6 +44,26 @@ public class KafkaStreamsConfig {
     @Value("${app.kafka.topics.mapped-packages}")
     private String mappedTopic;
 
+    @Value("${app.kafka.topics.store-sla-aggregates:cdc-store-sla-aggregates}")
+    private String storeSlaTopic;
+
+    // Partition count bounds the number of stream tasks, i.e. the parallelism across all instances
+    @Value("${kafka.topic.partitions:1}")
+    private int partitions;
+
+    @Value("${kafka.topic.replication-factor:1}")
+    private short replicationFactor;
+
+    // Must differ between instances sharing a host
+    @Value("${spring.kafka.streams.state-dir:/tmp/kafka-streams}")
+    private String stateDir;
+
+    private final StreamProcessingConfig streamProcessingConfig;
+
+    public KafkaStreamsConfig(StreamProcessingConfig streamProcessingConfig) {
+        this.streamProcessingConfig = streamProcessingConfig;
+    }
+
     @PostConstruct
     public void createTopicsIfNeeded() {
         Map<String, Object> adminProps = new HashMap<>();
@@ -49,34 +71,82 @@ public class KafkaStreamsConfig {
         adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 10000);
 
         try (AdminClient adminClient = AdminClient.create(adminProps)) {
-            NewTopic cdcTopicConfig = TopicBuilder
-                    .name(cdcTopic)
-                    .replicas(1)
-                    .config("cleanup.policy", "delete")
-                    .config("retention.ms", "604800000")
-                    .config("min.insync.replicas", "1")
-                    .build();
-
-            NewTopic mappedTopicConfig = TopicBuilder
-                    .name(mappedTopic)
-                    .replicas(1)
-                    .config("cleanup.policy", "delete")
-                    .config("min.insync.replicas", "1")
-                    .build();
-
-            adminClient.createTopics(java.util.Arrays.asList(cdcTopicConfig, mappedTopicConfig))
-                    .all()
+            try {
+                adminClient.createTopics(topics())
+                        .all()
+                        .get(30, TimeUnit.SECONDS);
+
+                log.info("✅ Topics created successfully: {}, {} ({} partitions)", cdcTopic, mappedTopic, partitions);
+            } catch (org.apache.kafka.common.errors.TopicExistsException e) {
+                log.info("✅ Topics already exist: {}, {}", cdcTopic, mappedTopic);
+            } catch (Exception e) {
+                if (e.getCause() instanceof org.apache.kafka.common.errors.TopicExistsException) {
+                    log.info("✅ Topics already exist");
+                } else {
+                    log.warn("⚠️  Could not create topics (they may already exist): {}", e.getMessage());
+                }
+            }
+
+            checkPartitions(adminClient);
+        }
+    }
+
+    /**
+     * CDC and mapped topics, plus the store SLA aggregates topic when enabled,
+     * sized from kafka.topic.partitions and kafka.topic.replication-factor
+     */
+    List<NewTopic> topics() {
+        NewTopic cdcTopicConfig = TopicBuilder
+                .name(cdcTopic)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .config("cleanup.policy", "delete")
+                .config("retention.ms", "604800000")
+                .config("min.insync.replicas", "1")
+                .build();
+
+        // Compaction keeps the latest record per package; existing topics keep their policy
+        NewTopic mappedTopicConfig = TopicBuilder
+                .name(mappedTopic)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .config("cleanup.policy", streamProcessingConfig.isCompactedOutput() ? "compact" : "delete")
+                .config("min.insync.replicas", "1")
+                .build();
+
+        if (!streamProcessingConfig.isSlaAggregates())
+            return List.of(cdcTopicConfig, mappedTopicConfig);
+
+        NewTopic storeSlaTopicConfig = TopicBuilder
+                .name(storeSlaTopic)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .config("cleanup.policy", "delete")
+                .config("min.insync.replicas", "1")
+                .build();
+
+        return List.of(cdcTopicConfig, mappedTopicConfig, storeSlaTopicConfig);
+    }
+
+    /**
+     * Existing topics are never repartitioned automatically: adding partitions
+     * moves keys and breaks per-package ordering for records in flight.
+     */
+    private void checkPartitions(AdminClient adminClient) {
+        try {
+            Map<String, TopicDescription> descriptions = adminClient.describeTopics(List.of(cdcTopic, mappedTopic))
+                    .allTopicNames()
                     .get(30, TimeUnit.SECONDS);
 
-            log.info("✅ Topics created successfully: {}, {}", cdcTopic, mappedTopic);
-        } catch (org.apache.kafka.common.errors.TopicExistsException e) {
-            log.info("✅ Topics already exist: {}, {}", cdcTopic, mappedTopic);
+            descriptions.forEach((topic, description) -> {
+                int actual = description.partitions().size();
+                if (actual < partitions) {
+                    log.warn("⚠️  Topic {} has {} partitions, {} configured; parallelism is capped at {}",
+                            topic, actual, partitions, actual);
+                }
+            });
         } catch (Exception e) {
-            if (e.getCause() instanceof org.apache.kafka.common.errors.TopicExistsException) {
-                log.info("✅ Topics already exist");
-            } else {
-                log.warn("⚠️  Could not create topics (they may already exist): {}", e.getMessage());
-            }
+            log.warn("⚠️  Could not describe topics: {}", e.getMessage());
         }
     }
 
@@ -92,6 +162,25 @@ public class KafkaStreamsConfig {
         props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG,
                 org.apache.kafka.common.serialization.Serdes.String().getClass());
 
+        // Scale-out: threads per instance, standby tasks on other instances
+        int threads = streamProcessingConfig.resolveThreads(partitions, Runtime.getRuntime().availableProcessors());
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, threads);
+        props.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, streamProcessingConfig.getStandbyReplicas());
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        props.put(StreamsConfig.REPLICATION_FACTOR_CONFIG, (int) replicationFactor);
+
+        // Interactive queries: advertise where this instance serves its part of the read model
+        if (!streamProcessingConfig.getApplicationServer().isBlank())
+            props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, streamProcessingConfig.getApplicationServer());
+
+        // State stores: bounded RocksDB memory, restored from their changelog topics
+        props.put(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, BoundedMemoryRocksDBConfig.class);
+        props.put(BoundedMemoryRocksDBConfig.TOTAL_OFF_HEAP_BYTES_CONFIG,
+                streamProcessingConfig.getStateStoreMemoryBytes());
+
+        // Built-in metrics, bridged to Micrometer by Spring Boot's KafkaStreamsMicrometerListener
+        props.put(StreamsConfig.METRICS_RECORDING_LEVEL_CONFIG, streamProcessingConfig.getMetricsRecordingLevel());
+
         // EXACTLY-ONCE SEMANTICS V2
         props.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, StreamsConfig.EXACTLY_ONCE_V2);
 
@@ -106,7 +195,8 @@ public class KafkaStreamsConfig {
         props.put(StreamsConfig.consumerPrefix(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG), "earliest");
         props.put(StreamsConfig.consumerPrefix(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG), 30000);
 
-        log.info("🔧 Kafka Streams configured with EXACTLY_ONCE_V2 guarantee");
+        log.info("🔧 Kafka Streams configured with EXACTLY_ONCE_V2 guarantee, {} threads, {} standby replicas",
+                threads, streamProcessingConfig.getStandbyReplicas());
 
         return new KafkaStreamsConfiguration(props);
     }
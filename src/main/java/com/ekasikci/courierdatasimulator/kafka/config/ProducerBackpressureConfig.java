@@ -0,0 +1,40 @@
+package com.ekasikci.courierdatasimulator.kafka.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration for the in-flight limit of KafkaProducerService sends
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.kafka.producer")
+@Data
+public class ProducerBackpressureConfig {
+
+    /**
+     * Records sent but not yet acked by the broker, 0 = no limit
+     */
+    private int maxInFlightRecords = 10_000;
+
+    /**
+     * Estimated serialized bytes of the records in flight, 0 = no limit.
+     * Keep it below the producer's buffer.memory (32 MB by default), so the
+     * limit is hit before the producer blocks the sending thread.
+     */
+    private int maxInFlightBytes = 16 * 1024 * 1024;
+
+    /**
+     * What a send does when the limit is reached
+     * Options: BLOCK (wait for permits), TIMEOUT (wait up to permit-timeout), SHED (fail at once)
+     */
+    private String onLimit = "TIMEOUT";
+
+    /**
+     * Longest wait for permits with TIMEOUT
+     */
+    private Duration permitTimeout = Duration.ofSeconds(1);
+}
@@ -0,0 +1,212 @@
+package com.ekasikci.courierdatasimulator.kafka.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration for the Kafka Streams CDC pipeline
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.kafka.streams")
+@Data
+public class StreamProcessingConfig {
+
+    /**
+     * How CDC payloads are decoded
+     * Options: BINDING (full PackageCDC binding), SELECTIVE (token-level, used fields only)
+     */
+    private String decoder = "BINDING";
+
+    /**
+     * How CDC timestamps are encoded by the connector
+     * Options: STRING (digits or date-time strings, sniffed per value),
+     * NUMERIC (epoch micros as JSON numbers, time.precision.mode=adaptive_time_microseconds)
+     */
+    private String timeMode = "STRING";
+
+    /**
+     * How the connector encodes CDC values; decoder, time mode and prefilter
+     * apply to JSON only, Avro values carry typed timestamps
+     * Options: JSON (JsonConverter, schemas disabled), AVRO (Avro binary
+     * behind a magic byte and 4-byte schema id, see
+     * debezium-mysql-connector-avro.json)
+     */
+    private String inputFormat = "JSON";
+
+    /**
+     * Writer schemas of AVRO input: {@code <topic>-value-v<version>.avsc}
+     * files mirroring what the connector registers (see PackageCDCAvroDecoder)
+     */
+    private String inputSchemaLocation = "classpath:schemas/cdc";
+
+    /**
+     * Versions of the input schema files that the connector's registry ids
+     * stand for, by id. Records with an id that is neither mapped here nor
+     * a local id of the subject fail to parse rather than being read with a
+     * guessed schema.
+     */
+    private Map<Integer, Integer> inputSchemaVersions = new HashMap<>();
+
+    /**
+     * Drop tombstones, cancelled and rewritten-delete records from their raw
+     * bytes before any JSON binding (see CdcRecordPrefilter)
+     */
+    private boolean prefilter = true;
+
+    /**
+     * Shape of the processing topology
+     * Options: CHAIN (one KStream node per step), FUSED (single processor for
+     * parse, filter, transform and serialize)
+     */
+    private String topology = "CHAIN";
+
+    /**
+     * Drop redelivered and out-of-order updates: keeps the highest
+     * last_updated_at per package id in a persistent, changelog-backed store.
+     * Cancellations and deletes at the same last_updated_at still apply.
+     * Entries are removed by the tombstones of deleted rows.
+     */
+    private boolean dropStale = true;
+
+    /**
+     * Skip MappedPackages identical to the last one emitted for their package:
+     * keeps a 64-bit content hash per package id in a persistent,
+     * changelog-backed store (see PackageOutputHashes).
+     * The hash leaves out last_updated_at, so downstream consumers (and the
+     * read model) keep the last_updated_at of the last record emitted, not of
+     * the latest update. Off by default for that reason.
+     */
+    private boolean suppressUnchanged = false;
+
+    /**
+     * Hold each package's MappedPackage for up to this many milliseconds and
+     * emit only its latest state; 0 disables coalescing
+     */
+    private long coalesceWindowMs = 0;
+
+    /**
+     * Emit completed packages at once instead of holding them for the
+     * coalescing window
+     */
+    private boolean coalesceBypassCompleted = true;
+
+    /**
+     * Treat the mapped-packages topic as log-compacted: records are keyed by
+     * the plain package id and deleted or cancelled packages produce
+     * tombstones, so consumers can bootstrap from the topic alone (see
+     * TombstoneProcessor)
+     */
+    private boolean compactedOutput = false;
+
+    /**
+     * Keep the latest published MappedPackage per package in a queryable
+     * state store, so single-package lookups are served without the database.
+     * Entries match PackageService's mapping field for field only while
+     * suppress-unchanged is off; with it on, last_updated_at can lag behind.
+     */
+    private boolean readModel = false;
+
+    /**
+     * host:port other instances reach this instance's REST API on, advertised
+     * as application.server for routing read model lookups; empty when a
+     * single instance runs
+     */
+    private String applicationServer = "";
+
+    /**
+     * Aggregate completed packages per store in tumbling and hopping windows
+     * and write each closed window to the store SLA aggregates topic (see
+     * StoreSlaAggregates)
+     */
+    private boolean slaAggregates = false;
+
+    /**
+     * Size of the tumbling SLA windows
+     */
+    private Duration slaTumblingWindow = Duration.ofMinutes(15);
+
+    /**
+     * Size of the hopping SLA windows
+     */
+    private Duration slaHoppingWindow = Duration.ofHours(1);
+
+    /**
+     * How far each hopping SLA window starts after the previous one
+     */
+    private Duration slaHoppingAdvance = Duration.ofMinutes(15);
+
+    /**
+     * How long after its end a window still accepts late packages; its result
+     * is written only once this has passed
+     */
+    private Duration slaGrace = Duration.ofMinutes(1);
+
+    /**
+     * Time one in this many records per pipeline step and end to end (see
+     * PackageStreamMetrics); 0 disables the timers
+     */
+    private int timingSampleInterval = 100;
+
+    /**
+     * Kafka Streams metrics.recording.level: INFO, DEBUG (adds per-task,
+     * per-node and per-store metrics) or TRACE
+     */
+    private String metricsRecordingLevel = "INFO";
+
+    /**
+     * Off-heap memory shared by all RocksDB state stores of this instance
+     * (block cache plus memtables)
+     */
+    private long stateStoreMemoryBytes = 64L * 1024 * 1024;
+
+    /**
+     * Stream threads per instance; 0 derives it from the available cores,
+     * capped at the partition count
+     */
+    private int threads = 0;
+
+    /**
+     * Warm standby copies of each task's state on other instances, for fast
+     * failover when running several instances with the same application id
+     */
+    private int standbyReplicas = 0;
+
+    public boolean isNumericTime() {
+        return "NUMERIC".equalsIgnoreCase(timeMode);
+    }
+
+    public boolean isAvroInput() {
+        return "AVRO".equalsIgnoreCase(inputFormat);
+    }
+
+    /**
+     * Whether the raw-bytes prefilter runs; it only reads JSON values
+     */
+    public boolean isPrefiltering() {
+        return prefilter && !isAvroInput();
+    }
+
+    public boolean isFused() {
+        return "FUSED".equalsIgnoreCase(topology);
+    }
+
+    public boolean isCoalescing() {
+        return coalesceWindowMs > 0;
+    }
+
+    /**
+     * Stream threads for this instance. Threads beyond the partition count
+     * would have no task to run.
+     */
+    public int resolveThreads(int partitions, int availableProcessors) {
+        if (threads > 0)
+            return threads;
+        return Math.max(1, Math.min(availableProcessors, partitions));
+    }
+}
@@ -1,6 +1,9 @@
 package com.ekasikci.courierdatasimulator.kafka.consumer;
 
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
@@ -14,7 +17,14 @@ import lombok.extern.slf4j.Slf4j;
 public class MappedPackageConsumer {
 
     @KafkaListener(topics = "${app.kafka.topics.mapped-packages}", groupId = "mapped-package-verification-consumer", containerFactory = "mappedPackageKafkaListenerFactory")
-    public void consumeMappedPackage(MappedPackage mappedPackage) {
+    public void consumeMappedPackage(@Payload(required = false) MappedPackage mappedPackage,
+            @Header(name = KafkaHeaders.RECEIVED_KEY, required = false) String key) {
+        // Compacted output: the package was deleted or cancelled
+        if (mappedPackage == null) {
+            log.info("🗑️  Package {} removed (tombstone)", key);
+            return;
+        }
+
         log.info("========================================");
         log.info("✅ CDC Pipeline Output Received");
         log.info("========================================");
@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
 import com.ekasikci.courierdatasimulator.kafka.service.KafkaProducerService;
+import com.ekasikci.courierdatasimulator.kafka.service.PackageReadModelService;
 import com.ekasikci.courierdatasimulator.kafka.service.PackageService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,10 +29,13 @@ public class KafkaController {
 
     private final PackageService packageService;
     private final KafkaProducerService kafkaProducerService;
+    private final PackageReadModelService packageReadModelService;
 
     /**
      * Endpoint: GET /kafka/send/{packageId}
      * Sends a single package to Kafka topic
+     * Served from the stream processor's read model, the database is only
+     * queried when the read model has no answer
      */
     @GetMapping("/send/{packageId}")
     public ResponseEntity<Map<String, Object>> sendSinglePackage(@PathVariable Long packageId) {
@@ -39,7 +44,13 @@ public class KafkaController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            Optional<MappedPackage> mappedPackageOpt = packageService.getPackageById(packageId);
+            Optional<MappedPackage> mappedPackageOpt = packageReadModelService.findById(packageId);
+            String source = "read-model";
+
+            if (mappedPackageOpt.isEmpty()) {
+                mappedPackageOpt = packageService.getPackageById(packageId);
+                source = "database";
+            }
 
             if (mappedPackageOpt.isEmpty()) {
                 response.put("success", false);
@@ -56,8 +67,9 @@ public class KafkaController {
             response.put("message", "Package sent to Kafka successfully");
             response.put("packageId", packageId);
             response.put("data", mappedPackage);
+            response.put("source", source);
 
-            log.info("Successfully processed package {}", packageId);
+            log.info("Successfully processed package {} from {}", packageId, source);
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -69,6 +81,19 @@ public class KafkaController {
         }
     }
 
+    /**
+     * Endpoint: GET /kafka/read-model/{packageId}
+     * Looks a package up in this instance's part of the read model only;
+     * other instances route lookups for the packages this one owns here, so
+     * the body keeps store_id and type
+     */
+    @GetMapping("/read-model/{packageId}")
+    public ResponseEntity<byte[]> getFromReadModel(@PathVariable Long packageId) {
+        return packageReadModelService.findLocalSerialized(packageId)
+                .map(body -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * Endpoint: GET /kafka/bootstrap
      * Sends all non-cancelled packages to Kafka topic
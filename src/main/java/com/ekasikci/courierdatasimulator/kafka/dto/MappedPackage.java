@@ -1,5 +1,6 @@
 package com.ekasikci.courierdatasimulator.kafka.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
@@ -36,4 +37,27 @@ public class MappedPackage {
 
     @JsonProperty("order_in_time")
     private Boolean orderInTime;
+
+    /**
+     * Grouping key for the per-store aggregates. Not part of the
+     * mapped-packages format: read if present, never written by ObjectMapper.
+     */
+    @JsonProperty(value = "store_id", access = JsonProperty.Access.WRITE_ONLY)
+    private Long storeId;
+
+    /**
+     * Grouping key for the per-type duration sketches, kept out of the
+     * mapped-packages format like storeId
+     */
+    @JsonProperty(value = "type", access = JsonProperty.Access.WRITE_ONLY)
+    private String type;
+
+    /**
+     * Whether the package carries its completed_at, seen through the
+     * durations that only completed packages get
+     */
+    @JsonIgnore
+    public boolean isCompleted() {
+        return leadTime != null || deliveryDuration != null;
+    }
 }
\ No newline at end of file
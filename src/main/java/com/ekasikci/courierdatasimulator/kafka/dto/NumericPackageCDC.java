@@ -0,0 +1,84 @@
+package com.ekasikci.courierdatasimulator.kafka.dto;
+
+import com.ekasikci.courierdatasimulator.kafka.transformer.TimestampParser;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Debezium package payload for the numeric time contract: the connector runs
+ * with time.precision.mode=adaptive_time_microseconds, so DATETIME(6) columns
+ * arrive as epoch-micro longs. Null timestamps keep the NO_TIMESTAMP sentinel.
+ * Only the fields used by the transform are bound.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NumericPackageCDC {
+
+    /**
+     * Sentinel for a null timestamp
+     */
+    public static final long NO_TIMESTAMP = TimestampParser.NO_TIMESTAMP;
+
+    private Long id;
+
+    private Integer cancelled;
+
+    private Integer eta;
+
+    @JsonProperty("store_id")
+    private Long storeId;
+
+    private String type;
+
+    private String status;
+
+    /**
+     * Debezium delete marker (delete.handling.mode=rewrite)
+     */
+    @JsonProperty("__deleted")
+    private String deleted;
+
+    @Builder.Default
+    @JsonProperty("created_at")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private long createdAt = NO_TIMESTAMP;
+
+    @Builder.Default
+    @JsonProperty("last_updated_at")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private long lastUpdatedAt = NO_TIMESTAMP;
+
+    @Builder.Default
+    @JsonProperty("picked_up_at")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private long pickedUpAt = NO_TIMESTAMP;
+
+    @Builder.Default
+    @JsonProperty("completed_at")
+    @JsonSetter(nulls = Nulls.SKIP)
+    private long completedAt = NO_TIMESTAMP;
+
+    /**
+     * Check if package is cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled != null && cancelled == 1;
+    }
+
+    /**
+     * Check if the event is a rewritten delete
+     */
+    public boolean isDeleted() {
+        return "true".equals(deleted);
+    }
+}
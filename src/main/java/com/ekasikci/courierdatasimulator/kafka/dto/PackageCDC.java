@@ -83,6 +83,12 @@ public class PackageCDC {
     @JsonProperty("delivery_date")
     private String deliveryDate;
 
+    /**
+     * Debezium delete marker (delete.handling.mode=rewrite)
+     */
+    @JsonProperty("__deleted")
+    private String deleted;
+
     /**
      * Check if package is cancelled
      */
@@ -90,6 +96,13 @@ public class PackageCDC {
         return cancelled != null && cancelled == 1;
     }
 
+    /**
+     * Check if the event is a rewritten delete
+     */
+    public boolean isDeleted() {
+        return "true".equals(deleted);
+    }
+
     /**
      * Check if package is completed
      */
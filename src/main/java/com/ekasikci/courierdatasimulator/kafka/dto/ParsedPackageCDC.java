@@ -0,0 +1,72 @@
+package com.ekasikci.courierdatasimulator.kafka.dto;
+
+import com.ekasikci.courierdatasimulator.kafka.transformer.TimestampParser;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Primitive view of the PackageCDC fields used by the transform.
+ * Timestamps are epoch microseconds, parsed once per record.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParsedPackageCDC {
+
+    /**
+     * Sentinel for a missing id or store id
+     */
+    public static final long NO_ID = Long.MIN_VALUE;
+
+    /**
+     * Sentinel for a missing ETA
+     */
+    public static final int NO_ETA = Integer.MIN_VALUE;
+
+    /**
+     * Sentinel for a missing or unparseable timestamp
+     */
+    public static final long NO_TIMESTAMP = TimestampParser.NO_TIMESTAMP;
+
+    private long id = NO_ID;
+
+    private int eta = NO_ETA;
+
+    private long storeId = NO_ID;
+
+    /**
+     * Package type, null when missing
+     */
+    private String type;
+
+    /**
+     * Package status, null when missing
+     */
+    private String status;
+
+    private boolean cancelled;
+
+    private boolean deleted;
+
+    private long createdAt = NO_TIMESTAMP;
+
+    private long lastUpdatedAt = NO_TIMESTAMP;
+
+    private long pickedUpAt = NO_TIMESTAMP;
+
+    private long completedAt = NO_TIMESTAMP;
+
+    public boolean hasId() {
+        return id != NO_ID;
+    }
+
+    public boolean hasStoreId() {
+        return storeId != NO_ID;
+    }
+
+    public boolean hasEta() {
+        return eta != NO_ETA;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ekasikci.courierdatasimulator.kafka.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * On-time SLA aggregate of the completed packages of one store in one time
+ * window. Durations are summed in minutes; packages missing a duration add
+ * nothing to its sum, so averages divide by count only when every package
+ * was picked up and completed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoreSla {
+
+    @JsonProperty("store_id")
+    private Long storeId;
+
+    /**
+     * TUMBLING or HOPPING
+     */
+    @JsonProperty("window")
+    private String window;
+
+    /**
+     * Window bounds, epoch milliseconds of the CDC record timestamps
+     */
+    @JsonProperty("window_start")
+    private long windowStart;
+
+    @JsonProperty("window_end")
+    private long windowEnd;
+
+    @JsonProperty("count")
+    private long count;
+
+    @JsonProperty("on_time_count")
+    private long onTimeCount;
+
+    @JsonProperty("lead_time_sum")
+    private long leadTimeSum;
+
+    @JsonProperty("collection_duration_sum")
+    private long collectionDurationSum;
+
+    @JsonProperty("delivery_duration_sum")
+    private long deliveryDurationSum;
+
+    /**
+     * Add a completed package to the aggregate
+     */
+    public StoreSla add(MappedPackage mapped) {
+        count++;
+        if (Boolean.TRUE.equals(mapped.getOrderInTime()))
+            onTimeCount++;
+        if (mapped.getLeadTime() != null)
+            leadTimeSum += mapped.getLeadTime();
+        if (mapped.getCollectionDuration() != null)
+            collectionDurationSum += mapped.getCollectionDuration();
+        if (mapped.getDeliveryDuration() != null)
+            deliveryDurationSum += mapped.getDeliveryDuration();
+        return this;
+    }
+}
@@ -0,0 +1,134 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Avro binary encoding primitives and the registry framing shared by the
+ * hand-written Avro codecs: a zero magic byte and the 4-byte big-endian
+ * schema id ahead of the record.
+ */
+public final class AvroBinary {
+
+    public static final byte MAGIC = 0;
+
+    /** Magic byte and schema id */
+    public static final int HEADER = 5;
+
+    private AvroBinary() {
+    }
+
+    /**
+     * Write the framing header at the start of the buffer
+     *
+     * @return position after the header
+     */
+    public static int writeHeader(byte[] buffer, int schemaId) {
+        buffer[0] = MAGIC;
+        ByteBuffer.wrap(buffer, 1, 4).putInt(schemaId);
+        return HEADER;
+    }
+
+    /**
+     * Schema id of a framed record
+     */
+    public static int schemaId(byte[] data) {
+        if (data.length < HEADER || data[0] != MAGIC)
+            throw new SerializationException("Not a framed Avro record");
+        return ByteBuffer.wrap(data, 1, 4).getInt();
+    }
+
+    /**
+     * Zig-zag varint; ints encode the same as longs of the same value
+     *
+     * @return position after the value
+     */
+    public static int writeLong(byte[] buffer, int pos, long value) {
+        long n = (value << 1) ^ (value >> 63);
+        while ((n & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((n & 0x7F) | 0x80);
+            n >>>= 7;
+        }
+        buffer[pos++] = (byte) n;
+        return pos;
+    }
+
+    /**
+     * Sequential reader over one encoded record
+     */
+    public static final class Reader {
+
+        private final byte[] data;
+
+        private int pos;
+
+        public Reader(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        public long readLong() {
+            long n = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                n |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return (n >>> 1) ^ -(n & 1);
+            }
+            throw new SerializationException("Malformed varint at byte " + pos);
+        }
+
+        public int readInt() {
+            return Math.toIntExact(readLong());
+        }
+
+        public byte readByte() {
+            if (pos >= data.length)
+                throw new SerializationException("Avro record ends at byte " + pos);
+            return data[pos++];
+        }
+
+        public boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        /**
+         * Union branch index, checked against the number of branches
+         */
+        public int readIndex(int branches) {
+            long index = readLong();
+            if (index < 0 || index >= branches)
+                throw new SerializationException("Union index " + index + " out of " + branches + " branches");
+            return (int) index;
+        }
+
+        public String readString() {
+            int length = readLength();
+            String value = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        /**
+         * Skip a string or bytes value
+         */
+        public void skipBytes() {
+            skip(readLength());
+        }
+
+        public void skip(int length) {
+            if (length > data.length - pos)
+                throw new SerializationException("Avro record ends at byte " + data.length);
+            pos += length;
+        }
+
+        private int readLength() {
+            long length = readLong();
+            if (length < 0 || length > data.length - pos)
+                throw new SerializationException("Invalid length " + length + " at byte " + pos);
+            return (int) length;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.util.Arrays;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.serde.LocalSchemaRegistry.RegisteredSchema;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MappedPackage in Avro binary encoding of schemas/mapped-package-v1.avsc,
+ * framed like registry-aware Avro serializers do: a zero magic byte and the
+ * 4-byte schema id, then the record. Any Avro reader given the schema
+ * decodes it.
+ *
+ * The encoding is written by hand for the one record layout rather than
+ * through the Avro library: nullable fields are a union index (0 null,
+ * 1 value) followed by the zig-zag varint value, timestamps are wall-clock
+ * micros. Records of any other schema id are rejected, as this codec only
+ * knows v1.
+ */
+@Slf4j
+public class AvroMappedPackageSerde implements Serde<MappedPackage> {
+
+    public static final String SUBJECT = "mapped-package";
+
+    /** Subject version this codec writes and reads */
+    static final int VERSION = 1;
+
+    /** Header, then at most a union index and 10-byte varint per field */
+    private static final int MAX_SIZE = AvroBinary.HEADER + 8 * 11;
+
+    private final LocalSchemaRegistry registry;
+
+    private final int schemaId;
+
+    private final Serializer<MappedPackage> serializer;
+
+    private final Deserializer<MappedPackage> deserializer;
+
+    public AvroMappedPackageSerde(LocalSchemaRegistry registry) {
+        this.registry = registry;
+        this.schemaId = registry.id(SUBJECT, VERSION);
+        this.serializer = (topic, mapped) -> mapped == null ? null : encode(mapped);
+        this.deserializer = (topic, data) -> {
+            if (data == null)
+                return null;
+            try {
+                return decode(data);
+            } catch (RuntimeException e) {
+                log.error("Failed to read Avro MappedPackage of {} bytes", data.length, e);
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public Serializer<MappedPackage> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<MappedPackage> deserializer() {
+        return deserializer;
+    }
+
+    private byte[] encode(MappedPackage mapped) {
+        byte[] buffer = new byte[MAX_SIZE];
+        int pos = AvroBinary.writeHeader(buffer, schemaId);
+        pos = writeNullable(buffer, pos, mapped.getId());
+        pos = writeNullable(buffer, pos, mapped.getCreatedAt() == null ? null
+                : LocalTimestamps.toMicros(mapped.getCreatedAt()));
+        pos = writeNullable(buffer, pos, mapped.getLastUpdatedAt() == null ? null
+                : LocalTimestamps.toMicros(mapped.getLastUpdatedAt()));
+        pos = writeNullable(buffer, pos, mapped.getCollectionDuration());
+        pos = writeNullable(buffer, pos, mapped.getDeliveryDuration());
+        pos = writeNullable(buffer, pos, mapped.getEta());
+        pos = writeNullable(buffer, pos, mapped.getLeadTime());
+        if (mapped.getOrderInTime() == null) {
+            pos = AvroBinary.writeLong(buffer, pos, 0);
+        } else {
+            pos = AvroBinary.writeLong(buffer, pos, 1);
+            buffer[pos++] = (byte) (mapped.getOrderInTime() ? 1 : 0);
+        }
+        return Arrays.copyOf(buffer, pos);
+    }
+
+    private MappedPackage decode(byte[] data) {
+        int id = AvroBinary.schemaId(data);
+        if (id != schemaId) {
+            RegisteredSchema schema = registry.byId(id);
+            throw new SerializationException(schema == null ? "Unknown schema id " + id
+                    : "Schema " + schema.getSubject() + " v" + schema.getVersion() + " is not readable as "
+                            + SUBJECT + " v" + VERSION);
+        }
+
+        AvroBinary.Reader reader = new AvroBinary.Reader(data, AvroBinary.HEADER);
+        MappedPackage mapped = new MappedPackage();
+        mapped.setId(nullableLong(reader));
+        Long createdAt = nullableLong(reader);
+        mapped.setCreatedAt(createdAt == null ? null : LocalTimestamps.format(createdAt));
+        Long lastUpdatedAt = nullableLong(reader);
+        mapped.setLastUpdatedAt(lastUpdatedAt == null ? null : LocalTimestamps.format(lastUpdatedAt));
+        mapped.setCollectionDuration(nullableInt(reader));
+        mapped.setDeliveryDuration(nullableInt(reader));
+        mapped.setEta(nullableInt(reader));
+        mapped.setLeadTime(nullableInt(reader));
+        mapped.setOrderInTime(reader.readLong() == 0 ? null : reader.readByte() != 0);
+        return mapped;
+    }
+
+    private static int writeNullable(byte[] buffer, int pos, Number value) {
+        if (value == null)
+            return AvroBinary.writeLong(buffer, pos, 0);
+        pos = AvroBinary.writeLong(buffer, pos, 1);
+        return AvroBinary.writeLong(buffer, pos, value.longValue());
+    }
+
+    private static Long nullableLong(AvroBinary.Reader reader) {
+        return reader.readLong() == 0 ? null : reader.readLong();
+    }
+
+    private static Integer nullableInt(AvroBinary.Reader reader) {
+        return reader.readLong() == 0 ? null : reader.readInt();
+    }
+}
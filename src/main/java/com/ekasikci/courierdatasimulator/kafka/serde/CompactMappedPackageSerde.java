@@ -0,0 +1,145 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.nio.ByteBuffer;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MappedPackage in a fixed 43-byte layout, big-endian:
+ *
+ * <pre>
+ * 0      version (1)
+ * 1..2   flags: one bit per non-null field, plus the order_in_time value
+ * 3..10  id
+ * 11..18 created_at, wall-clock micros
+ * 19..26 last_updated_at, wall-clock micros
+ * 27..42 collection_duration, delivery_duration, eta, lead_time as ints
+ * </pre>
+ *
+ * Null fields are written as zero and flagged absent, so every field sits at
+ * a fixed offset. A reader rejects any other version byte; a new layout gets
+ * a new version rather than a change to this one.
+ */
+@Slf4j
+public class CompactMappedPackageSerde implements Serde<MappedPackage> {
+
+    static final byte VERSION = 1;
+
+    static final int SIZE = 43;
+
+    private static final int ID = 1;
+    private static final int CREATED_AT = 1 << 1;
+    private static final int LAST_UPDATED_AT = 1 << 2;
+    private static final int COLLECTION_DURATION = 1 << 3;
+    private static final int DELIVERY_DURATION = 1 << 4;
+    private static final int ETA = 1 << 5;
+    private static final int LEAD_TIME = 1 << 6;
+    private static final int ORDER_IN_TIME = 1 << 7;
+    private static final int ORDER_IN_TIME_VALUE = 1 << 8;
+
+    private final Serializer<MappedPackage> serializer = (topic, mapped) -> mapped == null ? null : encode(mapped);
+
+    private final Deserializer<MappedPackage> deserializer = (topic, data) -> {
+        if (data == null)
+            return null;
+        try {
+            return decode(data);
+        } catch (RuntimeException e) {
+            log.error("Failed to read compact MappedPackage of {} bytes", data.length, e);
+            return null;
+        }
+    };
+
+    @Override
+    public Serializer<MappedPackage> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<MappedPackage> deserializer() {
+        return deserializer;
+    }
+
+    private static byte[] encode(MappedPackage mapped) {
+        int flags = 0;
+        long id = 0;
+        long createdAt = 0;
+        long lastUpdatedAt = 0;
+        if (mapped.getId() != null) {
+            flags |= ID;
+            id = mapped.getId();
+        }
+        if (mapped.getCreatedAt() != null) {
+            flags |= CREATED_AT;
+            createdAt = LocalTimestamps.toMicros(mapped.getCreatedAt());
+        }
+        if (mapped.getLastUpdatedAt() != null) {
+            flags |= LAST_UPDATED_AT;
+            lastUpdatedAt = LocalTimestamps.toMicros(mapped.getLastUpdatedAt());
+        }
+        flags |= flag(mapped.getCollectionDuration(), COLLECTION_DURATION)
+                | flag(mapped.getDeliveryDuration(), DELIVERY_DURATION)
+                | flag(mapped.getEta(), ETA)
+                | flag(mapped.getLeadTime(), LEAD_TIME);
+        if (mapped.getOrderInTime() != null)
+            flags |= mapped.getOrderInTime() ? ORDER_IN_TIME | ORDER_IN_TIME_VALUE : ORDER_IN_TIME;
+
+        return ByteBuffer.allocate(SIZE)
+                .put(VERSION)
+                .putShort((short) flags)
+                .putLong(id)
+                .putLong(createdAt)
+                .putLong(lastUpdatedAt)
+                .putInt(orZero(mapped.getCollectionDuration()))
+                .putInt(orZero(mapped.getDeliveryDuration()))
+                .putInt(orZero(mapped.getEta()))
+                .putInt(orZero(mapped.getLeadTime()))
+                .array();
+    }
+
+    private static MappedPackage decode(byte[] data) {
+        if (data.length != SIZE || data[0] != VERSION)
+            throw new SerializationException("Unsupported compact MappedPackage: version " + (data.length == 0
+                    ? "missing" : data[0]) + ", " + data.length + " bytes");
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, 1, SIZE - 1);
+        int flags = buffer.getShort() & 0xFFFF;
+        long id = buffer.getLong();
+        long createdAt = buffer.getLong();
+        long lastUpdatedAt = buffer.getLong();
+
+        return MappedPackage.builder()
+                .id(has(flags, ID) ? id : null)
+                .createdAt(has(flags, CREATED_AT) ? LocalTimestamps.format(createdAt) : null)
+                .lastUpdatedAt(has(flags, LAST_UPDATED_AT) ? LocalTimestamps.format(lastUpdatedAt) : null)
+                .collectionDuration(nullable(buffer.getInt(), flags, COLLECTION_DURATION))
+                .deliveryDuration(nullable(buffer.getInt(), flags, DELIVERY_DURATION))
+                .eta(nullable(buffer.getInt(), flags, ETA))
+                .leadTime(nullable(buffer.getInt(), flags, LEAD_TIME))
+                .orderInTime(has(flags, ORDER_IN_TIME) ? has(flags, ORDER_IN_TIME_VALUE) : null)
+                .build();
+    }
+
+    private static int flag(Integer value, int flag) {
+        return value == null ? 0 : flag;
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static boolean has(int flags, int flag) {
+        return (flags & flag) != 0;
+    }
+
+    private static Integer nullable(int value, int flags, int flag) {
+        return has(flags, flag) ? value : null;
+    }
+}
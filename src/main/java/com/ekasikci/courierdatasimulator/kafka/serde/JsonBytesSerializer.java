@@ -0,0 +1,51 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.io.IOException;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+/**
+ * Base serializer that writes JSON straight to UTF-8 bytes.
+ *
+ * Each stream thread keeps its own ByteArrayBuilder, so the generator buffer
+ * is reused across records and only the final byte[] is allocated.
+ */
+abstract class JsonBytesSerializer<T> implements Serializer<T> {
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    private final JsonFactory jsonFactory;
+
+    private final ThreadLocal<ByteArrayBuilder> buffers = ThreadLocal
+            .withInitial(() -> new ByteArrayBuilder(INITIAL_BUFFER_SIZE));
+
+    protected JsonBytesSerializer(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null)
+            return null;
+
+        ByteArrayBuilder buffer = buffers.get();
+        buffer.reset();
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            write(generator, data);
+        } catch (IOException e) {
+            throw new SerializationException("Failed to serialize " + data.getClass().getSimpleName(), e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Write a single JSON value for the given record
+     */
+    protected abstract void write(JsonGenerator generator, T data) throws IOException;
+}
@@ -0,0 +1,105 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stand-in for a schema registry, backed by Avro schema files: every
+ * {@code <subject>-v<version>.avsc} under app.kafka.schema-registry.location
+ * is one registered schema.
+ *
+ * Ids are assigned from 1 in subject and version order, so every instance
+ * reading the same files agrees on them, and a record carries its id the
+ * way it would with a real registry. New versions are added as new files,
+ * never by editing a published one.
+ */
+@Slf4j
+@Component
+public class LocalSchemaRegistry {
+
+    private static final Pattern FILE_NAME = Pattern.compile("(.+)-v(\\d+)\\.avsc");
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class RegisteredSchema {
+
+        private final int id;
+
+        private final String subject;
+
+        private final int version;
+
+        private final String definition;
+    }
+
+    private final Map<Integer, RegisteredSchema> byId = new HashMap<>();
+
+    public LocalSchemaRegistry(@Value("${app.kafka.schema-registry.location:classpath:schemas}") String location) {
+        List<RegisteredSchema> found = new ArrayList<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(location + "/*.avsc")) {
+                Matcher matcher = FILE_NAME.matcher(resource.getFilename());
+                if (!matcher.matches())
+                    continue;
+                try (InputStream in = resource.getInputStream()) {
+                    found.add(new RegisteredSchema(0, matcher.group(1), Integer.parseInt(matcher.group(2)),
+                            new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read schemas from " + location, e);
+        }
+
+        found.sort(Comparator.comparing(RegisteredSchema::getSubject).thenComparingInt(RegisteredSchema::getVersion));
+        for (RegisteredSchema schema : found) {
+            int id = byId.size() + 1;
+            byId.put(id, new RegisteredSchema(id, schema.getSubject(), schema.getVersion(), schema.getDefinition()));
+        }
+        log.info("Loaded {} schemas from {}", byId.size(), location);
+    }
+
+    /**
+     * Id of a registered subject version
+     */
+    public int id(String subject, int version) {
+        return byId.values().stream()
+                .filter(schema -> schema.getSubject().equals(subject) && schema.getVersion() == version)
+                .mapToInt(RegisteredSchema::getId)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No schema registered for " + subject + " v" + version));
+    }
+
+    /**
+     * Highest registered version of a subject, null when there is none
+     */
+    public RegisteredSchema latest(String subject) {
+        return byId.values().stream()
+                .filter(schema -> schema.getSubject().equals(subject))
+                .max(Comparator.comparingInt(RegisteredSchema::getVersion))
+                .orElse(null);
+    }
+
+    /**
+     * Schema registered under an id, null when unknown
+     */
+    public RegisteredSchema byId(int id) {
+        return byId.get(id);
+    }
+}
@@ -0,0 +1,35 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.time.ZoneOffset;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import com.ekasikci.courierdatasimulator.kafka.transformer.TimestampFormatter;
+import com.ekasikci.courierdatasimulator.kafka.transformer.TimestampParser;
+
+/**
+ * MappedPackage timestamps as wall-clock micros for the binary wire formats.
+ *
+ * The strings are local date-times without a zone, so they are read and
+ * written as if UTC, which maps each one to a number and back unchanged.
+ * That holds for the seconds and six-digit fraction forms the transform
+ * writes; a three-digit fraction comes back with six digits.
+ */
+final class LocalTimestamps {
+
+    private static final TimestampFormatter FORMATTER = new TimestampFormatter(ZoneOffset.UTC);
+
+    private LocalTimestamps() {
+    }
+
+    static long toMicros(String timestamp) {
+        long micros = TimestampParser.toEpochMicros(timestamp);
+        if (micros == TimestampParser.NO_TIMESTAMP)
+            throw new SerializationException("Not a yyyy-MM-dd HH:mm:ss[.SSSSSS] timestamp: " + timestamp);
+        return micros;
+    }
+
+    static String format(long micros) {
+        return FORMATTER.formatEpochMicros(micros);
+    }
+}
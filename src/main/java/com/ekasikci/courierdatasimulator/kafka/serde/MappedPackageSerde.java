@@ -0,0 +1,151 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serde for MappedPackage on the mapped-packages topic.
+ *
+ * The serializer writes the fields by hand in the same order and form as
+ * ObjectMapper (nulls included), so the wire format is unchanged while
+ * skipping bean introspection and the intermediate String.
+ *
+ * This serde is always JSON: state stores, internal topics and the read
+ * model HTTP lookups use it. wire() is the serde for the topics other
+ * services read, in the app.kafka.wire-format encoding.
+ */
+@Slf4j
+@Component
+public class MappedPackageSerde implements Serde<MappedPackage> {
+
+    private final Serializer<MappedPackage> serializer;
+
+    private final Deserializer<MappedPackage> deserializer;
+
+    private final Serde<MappedPackage> withGroupingKeys;
+
+    private final WireFormat wireFormat;
+
+    private final Serde<MappedPackage> wire;
+
+    public MappedPackageSerde(ObjectMapper objectMapper) {
+        this(objectMapper, WireFormat.JSON, null);
+    }
+
+    @Autowired
+    public MappedPackageSerde(ObjectMapper objectMapper,
+            @Value("${app.kafka.wire-format:JSON}") WireFormat wireFormat, LocalSchemaRegistry registry) {
+        this.serializer = new MappedPackageSerializer(objectMapper, false);
+        this.deserializer = (topic, data) -> {
+            if (data == null)
+                return null;
+            try {
+                return objectMapper.readValue(data, MappedPackage.class);
+            } catch (IOException e) {
+                log.error("Failed to parse MappedPackage from JSON: {}", new String(data, StandardCharsets.UTF_8), e);
+                return null;
+            }
+        };
+        this.withGroupingKeys = Serdes.serdeFrom(new MappedPackageSerializer(objectMapper, true), deserializer);
+        this.wireFormat = wireFormat;
+        this.wire = switch (wireFormat) {
+            case JSON -> this;
+            case AVRO -> new AvroMappedPackageSerde(registry);
+            case COMPACT -> new CompactMappedPackageSerde();
+        };
+    }
+
+    /**
+     * Serde for the published topics, in the configured wire format
+     */
+    public Serde<MappedPackage> wire() {
+        return wire;
+    }
+
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * Same format plus store_id and type, for state stores and internal topics
+     * whose records feed the per-store aggregates and per-type sketches
+     */
+    public Serde<MappedPackage> withGroupingKeys() {
+        return withGroupingKeys;
+    }
+
+    @Override
+    public Serializer<MappedPackage> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<MappedPackage> deserializer() {
+        return deserializer;
+    }
+
+    private static final class MappedPackageSerializer extends JsonBytesSerializer<MappedPackage> {
+
+        private final boolean includeGroupingKeys;
+
+        private MappedPackageSerializer(ObjectMapper objectMapper, boolean includeGroupingKeys) {
+            super(objectMapper.getFactory());
+            this.includeGroupingKeys = includeGroupingKeys;
+        }
+
+        @Override
+        protected void write(JsonGenerator generator, MappedPackage mapped) throws IOException {
+            generator.writeStartObject();
+
+            generator.writeFieldName("id");
+            if (mapped.getId() == null)
+                generator.writeNull();
+            else
+                generator.writeNumber(mapped.getId());
+
+            generator.writeStringField("created_at", mapped.getCreatedAt());
+            generator.writeStringField("last_updated_at", mapped.getLastUpdatedAt());
+            writeInteger(generator, "collection_duration", mapped.getCollectionDuration());
+            writeInteger(generator, "delivery_duration", mapped.getDeliveryDuration());
+            writeInteger(generator, "eta", mapped.getEta());
+            writeInteger(generator, "lead_time", mapped.getLeadTime());
+
+            generator.writeFieldName("order_in_time");
+            if (mapped.getOrderInTime() == null)
+                generator.writeNull();
+            else
+                generator.writeBoolean(mapped.getOrderInTime());
+
+            if (includeGroupingKeys) {
+                if (mapped.getStoreId() != null)
+                    generator.writeNumberField("store_id", mapped.getStoreId());
+                if (mapped.getType() != null)
+                    generator.writeStringField("type", mapped.getType());
+            }
+
+            generator.writeEndObject();
+        }
+
+        private static void writeInteger(JsonGenerator generator, String field, Integer value) throws IOException {
+            generator.writeFieldName(field);
+            if (value == null)
+                generator.writeNull();
+            else
+                generator.writeNumber(value);
+        }
+    }
+}
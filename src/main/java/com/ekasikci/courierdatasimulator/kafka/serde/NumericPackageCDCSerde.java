@@ -0,0 +1,84 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.NumericPackageCDC;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serde for Debezium package payloads under the numeric time contract.
+ *
+ * Timestamps bind straight to epoch-micro longs. Payloads that do not fit the
+ * contract (e.g. date-time strings from an older connector) deserialize to
+ * null so the caller can fall back to PackageCDCSerde. The serializer writes
+ * the bound fields back with nulls for missing timestamps.
+ */
+@Slf4j
+@Component
+public class NumericPackageCDCSerde implements Serde<NumericPackageCDC> {
+
+    private final Serializer<NumericPackageCDC> serializer;
+
+    private final Deserializer<NumericPackageCDC> deserializer;
+
+    public NumericPackageCDCSerde(ObjectMapper objectMapper) {
+        this.serializer = new JsonBytesSerializer<>(objectMapper.getFactory()) {
+            @Override
+            protected void write(JsonGenerator generator, NumericPackageCDC data) throws IOException {
+                generator.writeStartObject();
+                generator.writeObjectField("id", data.getId());
+                generator.writeObjectField("cancelled", data.getCancelled());
+                generator.writeObjectField("eta", data.getEta());
+                generator.writeObjectField("store_id", data.getStoreId());
+                generator.writeStringField("type", data.getType());
+                generator.writeStringField("status", data.getStatus());
+                writeTimestamp(generator, "created_at", data.getCreatedAt());
+                writeTimestamp(generator, "last_updated_at", data.getLastUpdatedAt());
+                writeTimestamp(generator, "picked_up_at", data.getPickedUpAt());
+                writeTimestamp(generator, "completed_at", data.getCompletedAt());
+                generator.writeObjectField("__deleted", data.getDeleted());
+                generator.writeEndObject();
+            }
+        };
+        this.deserializer = (topic, data) -> {
+            if (data == null)
+                return null;
+            try {
+                return objectMapper.readValue(data, NumericPackageCDC.class);
+            } catch (IOException e) {
+                // Expected for every legacy payload, so no stack trace and no copy unless debugging
+                if (log.isDebugEnabled())
+                    log.debug("Payload does not follow the numeric time contract: {}",
+                            new String(data, StandardCharsets.UTF_8));
+                return null;
+            }
+        };
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, String field, long micros) throws IOException {
+        generator.writeFieldName(field);
+        if (micros == NumericPackageCDC.NO_TIMESTAMP)
+            generator.writeNull();
+        else
+            generator.writeNumber(micros);
+    }
+
+    @Override
+    public Serializer<NumericPackageCDC> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<NumericPackageCDC> deserializer() {
+        return deserializer;
+    }
+}
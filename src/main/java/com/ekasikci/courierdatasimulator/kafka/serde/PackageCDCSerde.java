@@ -0,0 +1,60 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serde for Debezium PackageCDC payloads.
+ *
+ * Binds straight from the record bytes instead of decoding them to a String
+ * first. Payloads that fail to bind deserialize to null, so the topology can
+ * drop them like before.
+ */
+@Slf4j
+@Component
+public class PackageCDCSerde implements Serde<PackageCDC> {
+
+    private final Serializer<PackageCDC> serializer;
+
+    private final Deserializer<PackageCDC> deserializer;
+
+    public PackageCDCSerde(ObjectMapper objectMapper) {
+        this.serializer = new JsonBytesSerializer<>(objectMapper.getFactory()) {
+            @Override
+            protected void write(JsonGenerator generator, PackageCDC data) throws IOException {
+                objectMapper.writeValue(generator, data);
+            }
+        };
+        this.deserializer = (topic, data) -> {
+            if (data == null)
+                return null;
+            try {
+                return objectMapper.readValue(data, PackageCDC.class);
+            } catch (IOException e) {
+                log.error("Failed to parse PackageCDC from JSON: {}", new String(data, StandardCharsets.UTF_8), e);
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public Serializer<PackageCDC> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<PackageCDC> deserializer() {
+        return deserializer;
+    }
+}
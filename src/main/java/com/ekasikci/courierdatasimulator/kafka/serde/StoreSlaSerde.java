@@ -0,0 +1,61 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.StoreSla;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serde for StoreSla, used for the windowed aggregate stores and the
+ * store SLA aggregates topic. One record per store and window, so plain
+ * ObjectMapper binding is cheap enough.
+ */
+@Slf4j
+@Component
+public class StoreSlaSerde implements Serde<StoreSla> {
+
+    private final Serializer<StoreSla> serializer;
+
+    private final Deserializer<StoreSla> deserializer;
+
+    public StoreSlaSerde(ObjectMapper objectMapper) {
+        this.serializer = (topic, data) -> {
+            if (data == null)
+                return null;
+            try {
+                return objectMapper.writeValueAsBytes(data);
+            } catch (IOException e) {
+                throw new SerializationException("Failed to serialize StoreSla", e);
+            }
+        };
+        this.deserializer = (topic, data) -> {
+            if (data == null)
+                return null;
+            try {
+                return objectMapper.readValue(data, StoreSla.class);
+            } catch (IOException e) {
+                log.error("Failed to parse StoreSla from JSON: {}", new String(data, StandardCharsets.UTF_8), e);
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public Serializer<StoreSla> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<StoreSla> deserializer() {
+        return deserializer;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+/**
+ * Encoding of MappedPackage values on the topics other services read: the
+ * packages topic of KafkaProducerService and the mapped-packages output of
+ * PackageStreamProcessor, which MappedPackageConsumer verifies.
+ * Selected with app.kafka.wire-format.
+ */
+public enum WireFormat {
+    /** The original JSON with string timestamps */
+    JSON,
+    /** Avro binary, framed with the magic byte and the id of its LocalSchemaRegistry schema */
+    AVRO,
+    /** Fixed 43-byte layout behind a version byte, see CompactMappedPackageSerde */
+    COMPACT
+}
@@ -0,0 +1,41 @@
+package com.ekasikci.courierdatasimulator.kafka.service;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Outcome of KafkaProducerService.sendPackages once every record of the batch
+ * was acknowledged by the broker or failed.
+ *
+ * Acked counts only records the broker confirmed, not records handed to the
+ * producer client. Partition offsets hold the highest acked offset of each
+ * partition written to.
+ */
+@Getter
+@RequiredArgsConstructor
+public class BatchSendResult {
+
+    private final int acked;
+
+    private final int failed;
+
+    private final Map<Integer, Long> partitionOffsets;
+
+    private final List<Long> failedIds;
+
+    public int getTotal() {
+        return acked + failed;
+    }
+
+    public boolean isSuccessful() {
+        return failed == 0;
+    }
+
+    @Override
+    public String toString() {
+        return acked + " acked, " + failed + " failed, offsets=" + partitionOffsets;
+    }
+}
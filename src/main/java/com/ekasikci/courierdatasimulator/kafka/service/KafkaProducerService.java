@@ -1,8 +1,19 @@
 package com.ekasikci.courierdatasimulator.kafka.service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
@@ -18,21 +29,25 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class KafkaProducerService {
 
-    // String for the key to ensure consistent hashing for Kafka partitioning and
-    // compatibility with the standard StringSerializer.
-    private final KafkaTemplate<String, MappedPackage> kafkaTemplate;
+    // Long keys (LongSerializer), the package or store id as 8 bytes; PackagePartitioner picks which
+    private final KafkaTemplate<Long, MappedPackage> kafkaTemplate;
+
+    private final ProducerInFlightLimiter inFlightLimiter;
+
+    private final PackagePartitioner partitioner;
 
     @Value("${kafka.topic.packages}")
     private String packageTopic;
 
+    /** Partition count of the topic, looked up on the first send */
+    private volatile int partitions;
+
     /**
-     * Send a single MappedPackage to Kafka topic
+     * Send a single MappedPackage to Kafka topic.
+     * Throws a KafkaException when the in-flight limit rejects it
      */
     public void sendPackage(MappedPackage mappedPackage) {
-        String key = String.valueOf(mappedPackage.getId());
-
-        CompletableFuture<SendResult<String, MappedPackage>> future = kafkaTemplate.send(packageTopic, key,
-                mappedPackage);
+        CompletableFuture<SendResult<Long, MappedPackage>> future = send(mappedPackage);
 
         future.whenComplete((result, ex) -> {
             if (ex == null) {
@@ -49,24 +64,176 @@ public class KafkaProducerService {
     }
 
     /**
-     * Send multiple MappedPackages to Kafka topic
+     * Send multiple MappedPackages to Kafka topic.
+     *
+     * The future completes once the broker acknowledged or rejected every
+     * record, with a single aggregated log line instead of one per record.
+     * It never completes exceptionally: records that could not be sent are
+     * counted in the result together with their ids.
+     *
+     * Once the in-flight limit rejects a record, the rest of the batch fails
+     * at once instead of waiting for permits record by record.
      */
-    public void sendPackages(List<MappedPackage> mappedPackages) {
-        log.info("Sending {} packages to Kafka topic: {}", mappedPackages.size(), packageTopic);
-
-        int successCount = 0;
-        int failureCount = 0;
+    public CompletableFuture<BatchSendResult> sendPackages(List<MappedPackage> mappedPackages) {
+        log.debug("Sending {} packages to Kafka topic: {}", mappedPackages.size(), packageTopic);
 
+        BatchAcks acks = new BatchAcks(mappedPackages.size());
+        KafkaException rejected = null;
         for (MappedPackage mappedPackage : mappedPackages) {
+            Long id = mappedPackage.getId();
+            if (rejected != null) {
+                acks.failed(id, rejected);
+                continue;
+            }
             try {
-                sendPackage(mappedPackage);
-                successCount++;
+                send(mappedPackage)
+                        .whenComplete((result, ex) -> {
+                            if (ex == null)
+                                acks.acked(result.getRecordMetadata());
+                            else
+                                acks.failed(id, ex);
+                        });
+            } catch (InFlightLimitException e) {
+                rejected = e;
+                acks.failed(id, e);
             } catch (Exception e) {
-                log.error("Error sending package with id={}", mappedPackage.getId(), e);
-                failureCount++;
+                // Serialization errors, or the producer buffer staying full past max.block.ms
+                acks.failed(id, e);
+            }
+        }
+
+        return acks.result().whenComplete((result, ex) -> {
+            if (result.isSuccessful())
+                log.info("Batch send to topic={} completed: {}", packageTopic, result);
+            else
+                log.error("Batch send to topic={} completed: {}, failed ids={}", packageTopic, result,
+                        result.getFailedIds());
+        });
+    }
+
+    /**
+     * Send through the in-flight limiter, its permits are released once the
+     * record is acked or failed
+     */
+    private CompletableFuture<SendResult<Long, MappedPackage>> send(MappedPackage mappedPackage) {
+        int permitBytes = inFlightLimiter.acquire();
+        if (permitBytes == ProducerInFlightLimiter.REJECTED)
+            throw new InFlightLimitException(inFlightLimiter.getOnLimit());
+
+        CompletableFuture<SendResult<Long, MappedPackage>> future;
+        try {
+            future = kafkaTemplate.send(packageTopic, partitioner.partition(partitions()),
+                    partitioner.key(mappedPackage), mappedPackage);
+        } catch (RuntimeException e) {
+            inFlightLimiter.release(permitBytes);
+            throw e;
+        }
+
+        future.whenComplete((result, ex) -> {
+            inFlightLimiter.release(permitBytes);
+            if (ex == null) {
+                RecordMetadata metadata = result.getRecordMetadata();
+                partitioner.acked(metadata.partition());
+                // Sizes are -1 when unknown
+                inFlightLimiter.observe(Math.max(0, metadata.serializedKeySize())
+                        + Math.max(0, metadata.serializedValueSize()));
             }
+        });
+        return future;
+    }
+
+    private int partitions() {
+        int count = partitions;
+        if (count == 0) {
+            // Waits for the topic metadata once; while unknown (0), the key decides the partition
+            List<PartitionInfo> infos = kafkaTemplate.partitionsFor(packageTopic);
+            count = infos == null ? 0 : infos.size();
+            partitions = count;
+            partitioner.partitions(count);
         }
+        return count;
+    }
+
+    /**
+     * Wait for the acknowledgements of a batch, at most until the timeout.
+     * Returns null on timeout or interrupt, the records are then still in
+     * flight and their outcome is logged when the batch completes.
+     */
+    public BatchSendResult awaitAcks(CompletableFuture<BatchSendResult> batch, Duration timeout) {
+        try {
+            return batch.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Batch send to topic={} not acknowledged within {}ms", packageTopic, timeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // sendPackages results never complete exceptionally
+            throw new IllegalStateException(e.getCause());
+        }
+        return null;
+    }
 
-        log.info("Batch send completed: {} successful, {} failed", successCount, failureCount);
+    /**
+     * Acknowledgements of one batch, completed by the last callback
+     */
+    private static final class BatchAcks {
+
+        private final CompletableFuture<BatchSendResult> result = new CompletableFuture<>();
+
+        private final Map<Integer, Long> partitionOffsets = new TreeMap<>();
+
+        private final List<Long> failedIds = new ArrayList<>();
+
+        private int pending;
+
+        private int acked;
+
+        private Throwable firstFailure;
+
+        BatchAcks(int size) {
+            this.pending = size;
+            if (size == 0)
+                complete();
+        }
+
+        CompletableFuture<BatchSendResult> result() {
+            return result;
+        }
+
+        synchronized void acked(RecordMetadata metadata) {
+            acked++;
+            partitionOffsets.merge(metadata.partition(), metadata.offset(), Math::max);
+            countDown();
+        }
+
+        synchronized void failed(Long id, Throwable ex) {
+            failedIds.add(id);
+            if (firstFailure == null) {
+                firstFailure = ex;
+                log.error("Failed to send package with id={}, further failures of the batch are only counted", id,
+                        ex);
+            }
+            countDown();
+        }
+
+        private void countDown() {
+            if (--pending == 0)
+                complete();
+        }
+
+        private void complete() {
+            result.complete(new BatchSendResult(acked, failedIds.size(),
+                    Collections.unmodifiableMap(partitionOffsets), Collections.unmodifiableList(failedIds)));
+        }
+    }
+
+    /**
+     * A record the in-flight limiter did not admit
+     */
+    static final class InFlightLimitException extends KafkaException {
+
+        InFlightLimitException(ProducerInFlightLimiter.OnLimit onLimit) {
+            super("In-flight limit reached (on-limit=" + onLimit + ")");
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package com.ekasikci.courierdatasimulator.kafka.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.entitiy.Package;
+import com.ekasikci.courierdatasimulator.kafka.transformer.MappingKernel;
+
+/**
+ * Columnar view of a package batch for the batch transform.
+ *
+ * Timestamps are loaded into primitive epoch-micros columns and the
+ * MappingKernel rules run over whole columns before any MappedPackage is
+ * built. The status check becomes a completed column feeding the kernel's
+ * gate, so results match the single-package mapping.
+ */
+final class PackageColumns {
+
+    private final List<Package> packages;
+
+    private final int size;
+
+    private final long[] createdAt;
+    private final long[] pickedUpAt;
+    private final long[] completedAt;
+    private final boolean[] completed;
+    private final int[] eta;
+    private final boolean[] hasEta;
+
+    private final long[] collectionDuration;
+    private final long[] deliveryDuration;
+    private final long[] leadTime;
+    private final boolean[] orderInTime;
+    private final boolean[] hasOrderInTime;
+
+    private PackageColumns(List<Package> packages) {
+        this.packages = packages;
+        this.size = packages.size();
+
+        this.createdAt = new long[size];
+        this.pickedUpAt = new long[size];
+        this.completedAt = new long[size];
+        this.completed = new boolean[size];
+        this.eta = new int[size];
+        this.hasEta = new boolean[size];
+
+        this.collectionDuration = new long[size];
+        this.deliveryDuration = new long[size];
+        this.leadTime = new long[size];
+        this.orderInTime = new boolean[size];
+        this.hasOrderInTime = new boolean[size];
+    }
+
+    /**
+     * Load the duration inputs of the given packages into columns
+     */
+    static PackageColumns load(List<Package> packages) {
+        PackageColumns columns = new PackageColumns(packages);
+
+        for (int i = 0; i < columns.size; i++) {
+            Package pkg = packages.get(i);
+
+            columns.createdAt[i] = MappingKernel.toEpochMicros(pkg.getCreatedAt());
+            columns.pickedUpAt[i] = MappingKernel.toEpochMicros(pkg.getPickedUpAt());
+            columns.completedAt[i] = MappingKernel.toEpochMicros(pkg.getCompletedAt());
+            columns.completed[i] = MappingKernel.isCompleted(pkg.getStatus(), columns.completedAt[i]);
+            columns.hasEta[i] = pkg.getEta() != null;
+            columns.eta[i] = columns.hasEta[i] ? pkg.getEta() : 0;
+        }
+        return columns;
+    }
+
+    /**
+     * Run the duration and on-time rules over every row
+     */
+    PackageColumns compute() {
+        durationMinutes(createdAt, pickedUpAt, completed, collectionDuration, size);
+        durationMinutes(pickedUpAt, completedAt, completed, deliveryDuration, size);
+        durationMinutes(createdAt, completedAt, completed, leadTime, size);
+        onTime(leadTime, eta, hasEta, orderInTime, hasOrderInTime, size);
+        return this;
+    }
+
+    /**
+     * Build the MappedPackage for row i from the computed columns
+     */
+    MappedPackage toMappedPackage(int i, Function<LocalDateTime, String> formatter) {
+        Package pkg = packages.get(i);
+
+        return MappedPackage.builder()
+                .id(pkg.getId())
+                .storeId(pkg.getStoreId())
+                .type(pkg.getType())
+                .eta(pkg.getEta())
+                .createdAt(formatter.apply(pkg.getCreatedAt()))
+                .lastUpdatedAt(formatter.apply(pkg.getLastUpdatedAt()))
+                .collectionDuration(MappingKernel.toMinutes(collectionDuration[i]))
+                .deliveryDuration(MappingKernel.toMinutes(deliveryDuration[i]))
+                .leadTime(MappingKernel.toMinutes(leadTime[i]))
+                .orderInTime(hasOrderInTime[i] ? orderInTime[i] : null)
+                .build();
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static void durationMinutes(long[] start, long[] end, boolean[] completed, long[] minutes, int n) {
+        for (int i = 0; i < n; i++) {
+            minutes[i] = MappingKernel.durationMinutes(start[i], end[i], completed[i]);
+        }
+    }
+
+    private static void onTime(long[] leadTime, int[] eta, boolean[] hasEta,
+            boolean[] onTime, boolean[] present, int n) {
+        for (int i = 0; i < n; i++) {
+            onTime[i] = MappingKernel.orderInTime(leadTime[i], eta[i]);
+            present[i] = MappingKernel.hasOrderInTime(leadTime[i], hasEta[i]);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.ekasikci.courierdatasimulator.kafka.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Key and partition of each KafkaProducerService send, by
+ * kafka.partitioning.strategy:
+ * - BY_ID: keyed by package id, all updates of a package stay in order
+ * - BY_STORE: keyed by store id (package id when unknown), so a consumer
+ * sees every package of a store on one partition; big stores make hot
+ * partitions
+ * - ROUND_ROBIN: one partition after the other, per record
+ * - STICKY: one partition per run of sticky-records records, so producer
+ * batches fill up before moving on
+ *
+ * ROUND_ROBIN and STICKY still key by package id but spread the updates of
+ * one package over partitions, so they are not ordered per package.
+ *
+ * kafka.producer.partition.records{partition} counts the acked records per
+ * partition, and kafka.producer.partition.skew is the busiest partition's
+ * share of the last SKEW_WINDOW acked records times the partition count:
+ * 1 is perfectly balanced, the partition count means one partition took
+ * everything, 0 until the first window completes.
+ */
+@Component
+public class PackagePartitioner implements MeterBinder {
+
+    public enum Strategy {
+        BY_ID,
+        BY_STORE,
+        ROUND_ROBIN,
+        STICKY
+    }
+
+    /** Acked records per skew measurement */
+    static final int SKEW_WINDOW = 10_000;
+
+    private final Strategy strategy;
+
+    private final int stickyRecords;
+
+    private final AtomicLong sent = new AtomicLong();
+
+    private final AtomicLong windowAcked = new AtomicLong();
+
+    /** Sized once the partition count of the topic is known */
+    private volatile AtomicLongArray acked;
+
+    private volatile AtomicLongArray window;
+
+    private volatile double skew;
+
+    private volatile MeterRegistry registry;
+
+    public PackagePartitioner(@Value("${kafka.partitioning.strategy:BY_ID}") String strategy,
+            @Value("${kafka.partitioning.sticky-records:100}") int stickyRecords) {
+        this.strategy = Strategy.valueOf(strategy.toUpperCase());
+        this.stickyRecords = Math.max(1, stickyRecords);
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Record key of a package
+     */
+    public Long key(MappedPackage mapped) {
+        if (strategy == Strategy.BY_STORE && mapped.getStoreId() != null)
+            return mapped.getStoreId();
+        return mapped.getId();
+    }
+
+    /**
+     * Partition for the next record, or null to let the producer hash the key
+     */
+    public Integer partition(int partitions) {
+        if (partitions <= 0)
+            return null;
+
+        return switch (strategy) {
+            case ROUND_ROBIN -> (int) (sent.getAndIncrement() % partitions);
+            case STICKY -> (int) (sent.getAndIncrement() / stickyRecords % partitions);
+            default -> null;
+        };
+    }
+
+    /**
+     * Size the per-partition counts for the topic's partition count
+     */
+    public synchronized void partitions(int partitions) {
+        if (partitions <= 0 || (acked != null && acked.length() == partitions))
+            return;
+
+        acked = new AtomicLongArray(partitions);
+        window = new AtomicLongArray(partitions);
+        windowAcked.set(0);
+        if (registry != null)
+            registerPartitions(registry);
+    }
+
+    /**
+     * Count an acked record of the given partition
+     */
+    public void acked(int partition) {
+        AtomicLongArray counts = window;
+        if (counts == null || partition < 0 || partition >= counts.length())
+            return;
+
+        acked.incrementAndGet(partition);
+        counts.incrementAndGet(partition);
+        if (windowAcked.incrementAndGet() % SKEW_WINDOW == 0)
+            closeWindow(counts);
+    }
+
+    public double skew() {
+        return skew;
+    }
+
+    /**
+     * Skew of the window, then start the next one. Records acked meanwhile
+     * stay in the next window.
+     */
+    private synchronized void closeWindow(AtomicLongArray counts) {
+        long max = 0;
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.getAndSet(i, 0);
+            max = Math.max(max, count);
+            total += count;
+        }
+        if (total > 0)
+            skew = (double) max * counts.length() / total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("kafka.producer.partition.skew", this, PackagePartitioner::skew)
+                .description("Busiest partition's share of the recent acked records times the partition count")
+                .tag("strategy", strategy.name().toLowerCase())
+                .register(registry);
+
+        synchronized (this) {
+            this.registry = registry;
+            if (acked != null)
+                registerPartitions(registry);
+        }
+    }
+
+    private void registerPartitions(MeterRegistry registry) {
+        AtomicLongArray counts = acked;
+        for (int i = 0; i < counts.length(); i++) {
+            int partition = i;
+            FunctionCounter.builder("kafka.producer.partition.records", counts, c -> c.get(partition))
+                    .description("Records acked per partition of the packages topic")
+                    .tag("partition", String.valueOf(partition))
+                    .register(registry);
+        }
+    }
+}
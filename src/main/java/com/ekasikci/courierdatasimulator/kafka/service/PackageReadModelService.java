@@ -0,0 +1,155 @@
+package com.ekasikci.courierdatasimulator.kafka.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.serde.MappedPackageSerde;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageReadModel;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-package lookups against the PackageReadModel state store.
+ *
+ * The package's CDC record key decides which instance owns it; lookups for
+ * packages owned elsewhere go to that instance's /kafka/read-model endpoint.
+ * Empty means "not answered here", not "does not exist": the store may not
+ * be running, still restoring, or never have seen the package, so callers
+ * fall back to PackageService.
+ */
+@Slf4j
+@Service
+public class PackageReadModelService {
+
+    private static final Duration REMOTE_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ObjectProvider<StreamsBuilderFactoryBean> streamsBuilder;
+    private final MappedPackageSerde mappedPackageSerde;
+    private final StreamProcessingConfig config;
+    private final RestClient restClient;
+
+    public PackageReadModelService(ObjectProvider<StreamsBuilderFactoryBean> streamsBuilder,
+            MappedPackageSerde mappedPackageSerde, StreamProcessingConfig config) {
+        this.streamsBuilder = streamsBuilder;
+        this.mappedPackageSerde = mappedPackageSerde;
+        this.config = config;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(REMOTE_TIMEOUT);
+        requestFactory.setReadTimeout(REMOTE_TIMEOUT);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    /**
+     * Look the package up on whichever instance owns it
+     */
+    public Optional<MappedPackage> findById(Long id) {
+        KafkaStreams streams = runningStreams();
+        if (streams == null)
+            return Optional.empty();
+
+        HostInfo self = self();
+        if (self == null)
+            return findLocal(streams, id, null);
+
+        KeyQueryMetadata metadata = streams.queryMetadataForKey(PackageReadModel.STORE_NAME,
+                PackageReadModel.recordKey(id), Serdes.String().serializer());
+        if (metadata == null || KeyQueryMetadata.NOT_AVAILABLE.equals(metadata))
+            return Optional.empty();
+
+        if (self.equals(metadata.activeHost()))
+            return findLocal(streams, id, metadata.partition());
+
+        return findRemote(metadata.activeHost(), id);
+    }
+
+    /**
+     * Look the package up in the partitions this instance hosts, without
+     * routing; serves the lookups other instances send here
+     */
+    public Optional<MappedPackage> findLocal(Long id) {
+        KafkaStreams streams = runningStreams();
+        if (streams == null)
+            return Optional.empty();
+        return findLocal(streams, id, null);
+    }
+
+    /**
+     * findLocal serialized with store_id and type, the form findRemote reads
+     * back, so a package keeps its store key across instances
+     */
+    public Optional<byte[]> findLocalSerialized(Long id) {
+        return findLocal(id).map(mapped -> mappedPackageSerde.withGroupingKeys().serializer().serialize(null, mapped));
+    }
+
+    private Optional<MappedPackage> findLocal(KafkaStreams streams, Long id, Integer partition) {
+        StoreQueryParameters<ReadOnlyKeyValueStore<String, MappedPackage>> parameters = StoreQueryParameters
+                .fromNameAndType(PackageReadModel.STORE_NAME,
+                        QueryableStoreTypes.<String, MappedPackage>keyValueStore());
+        if (partition != null)
+            parameters = parameters.withPartition(partition);
+
+        try {
+            return Optional.ofNullable(streams.store(parameters).get(PackageReadModel.recordKey(id)));
+        } catch (InvalidStateStoreException e) {
+            // Rebalancing or restoring, the database still answers
+            log.debug("Read model not queryable for package {}: {}", id, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<MappedPackage> findRemote(HostInfo host, Long id) {
+        try {
+            byte[] body = restClient.get()
+                    .uri("http://{host}:{port}/kafka/read-model/{id}", host.host(), host.port(), id)
+                    .retrieve()
+                    .onStatus(HttpStatusCode::is4xxClientError, (request, response) -> {
+                    })
+                    .body(byte[].class);
+            if (body == null || body.length == 0)
+                return Optional.empty();
+            return Optional.ofNullable(mappedPackageSerde.withGroupingKeys().deserializer().deserialize(null, body));
+        } catch (RestClientException e) {
+            log.warn("Read model lookup of package {} on {}:{} failed: {}", id, host.host(), host.port(),
+                    e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private KafkaStreams runningStreams() {
+        if (!config.isReadModel())
+            return null;
+
+        StreamsBuilderFactoryBean factoryBean = streamsBuilder.getIfAvailable();
+        KafkaStreams streams = factoryBean == null ? null : factoryBean.getKafkaStreams();
+        if (streams == null || streams.state() != KafkaStreams.State.RUNNING)
+            return null;
+        return streams;
+    }
+
+    /**
+     * This instance as advertised to the others, or null for a single instance
+     */
+    private HostInfo self() {
+        String server = config.getApplicationServer();
+        return server == null || server.isBlank() ? null : HostInfo.buildFromEndpoint(server);
+    }
+}
@@ -1,8 +1,7 @@
 package com.ekasikci.courierdatasimulator.kafka.service;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -12,6 +11,8 @@ import org.springframework.stereotype.Service;
 import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
 import com.ekasikci.courierdatasimulator.kafka.entitiy.Package;
 import com.ekasikci.courierdatasimulator.kafka.repository.PackageRepository;
+import com.ekasikci.courierdatasimulator.kafka.transformer.MappingKernel;
+import com.ekasikci.courierdatasimulator.kafka.transformer.TimestampFormatter;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,10 +24,7 @@ public class PackageService {
 
     private final PackageRepository packageRepository;
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-    private static final DateTimeFormatter FORMATTER_WITH_MICROSECONDS = DateTimeFormatter
-            .ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+    private static final TimestampFormatter TIMESTAMP_FORMATTER = TimestampFormatter.systemDefault();
 
     /**
      * Get a single package by ID and transform to MappedPackage
@@ -58,73 +56,78 @@ public class PackageService {
         List<Package> packages = packageRepository.findAllNonCancelled();
         log.info("Found {} non-cancelled packages", packages.size());
 
-        return packages.stream()
-                .map(this::mapToMappedPackage)
-                .collect(Collectors.toList());
+        return mapPackages(packages);
+    }
+
+    /**
+     * Transform a batch of packages, skipping cancelled ones.
+     * Durations are computed column-wise over the whole batch before any
+     * MappedPackage is built.
+     */
+    public List<MappedPackage> mapNonCancelledPackages(List<Package> packages) {
+        return mapPackages(packages.stream()
+                .filter(pkg -> !pkg.isCancelled())
+                .collect(Collectors.toList()));
+    }
+
+    private List<MappedPackage> mapPackages(List<Package> packages) {
+        PackageColumns columns = PackageColumns.load(packages).compute();
+
+        List<MappedPackage> mapped = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            mapped.add(columns.toMappedPackage(i, this::formatDateTime));
+        }
+        return mapped;
     }
 
     /**
      * Transform Package entity to MappedPackage DTO
-     * Implements all business logic for calculations
+     * Business rules for the calculated fields live in MappingKernel
      */
     private MappedPackage mapToMappedPackage(Package pkg) {
         MappedPackage mapped = new MappedPackage();
 
         mapped.setId(pkg.getId());
+        mapped.setStoreId(pkg.getStoreId());
+        mapped.setType(pkg.getType());
         mapped.setEta(pkg.getEta());
 
         // Format timestamps
         mapped.setCreatedAt(formatDateTime(pkg.getCreatedAt()));
         mapped.setLastUpdatedAt(formatDateTime(pkg.getLastUpdatedAt()));
 
-        // If package is not completed, set calculated fields to null
-        if (!pkg.isCompleted()) {
-            mapped.setCollectionDuration(null);
-            mapped.setDeliveryDuration(null);
-            mapped.setLeadTime(null);
-            mapped.setOrderInTime(null);
+        long createdAt = MappingKernel.toEpochMicros(pkg.getCreatedAt());
+        long pickedUpAt = MappingKernel.toEpochMicros(pkg.getPickedUpAt());
+        long completedAt = MappingKernel.toEpochMicros(pkg.getCompletedAt());
+
+        // If package is not completed, calculated fields stay null
+        boolean completed = MappingKernel.isCompleted(pkg.getStatus(), completedAt);
+        if (!completed) {
             log.debug("Package {} is not completed, setting calculated fields to null", pkg.getId());
             return mapped;
         }
 
-        // Calculate collection duration (created_at to picked_up_at)
-        Integer collectionDuration = calculateDuration(pkg.getCreatedAt(), pkg.getPickedUpAt());
-        mapped.setCollectionDuration(collectionDuration);
-
-        // Calculate delivery duration (picked_up_at to completed_at)
-        Integer deliveryDuration = calculateDuration(pkg.getPickedUpAt(), pkg.getCompletedAt());
-        mapped.setDeliveryDuration(deliveryDuration);
+        // Collection (created -> picked up), delivery (picked up -> completed), lead time (created -> completed)
+        long collectionDuration = MappingKernel.durationMinutes(createdAt, pickedUpAt, completed);
+        long deliveryDuration = MappingKernel.durationMinutes(pickedUpAt, completedAt, completed);
+        long leadTime = MappingKernel.durationMinutes(createdAt, completedAt, completed);
 
-        // Calculate lead time (created_at to completed_at)
-        Integer leadTime = calculateDuration(pkg.getCreatedAt(), pkg.getCompletedAt());
-        mapped.setLeadTime(leadTime);
+        mapped.setCollectionDuration(MappingKernel.toMinutes(collectionDuration));
+        mapped.setDeliveryDuration(MappingKernel.toMinutes(deliveryDuration));
+        mapped.setLeadTime(MappingKernel.toMinutes(leadTime));
 
         // Determine if order is in time (leadTime <= eta)
-        Boolean orderInTime = null;
-        if (leadTime != null && pkg.getEta() != null) {
-            orderInTime = leadTime <= pkg.getEta();
+        if (MappingKernel.hasOrderInTime(leadTime, pkg.getEta() != null)) {
+            mapped.setOrderInTime(MappingKernel.orderInTime(leadTime, pkg.getEta()));
         }
-        mapped.setOrderInTime(orderInTime);
 
         log.debug("Mapped package {}: collectionDuration={}, deliveryDuration={}, leadTime={}, orderInTime={}",
-                pkg.getId(), collectionDuration, deliveryDuration, leadTime, orderInTime);
+                pkg.getId(), mapped.getCollectionDuration(), mapped.getDeliveryDuration(),
+                mapped.getLeadTime(), mapped.getOrderInTime());
 
         return mapped;
     }
 
-    /**
-     * Calculate duration in minutes between two timestamps
-     * Returns null if either timestamp is null
-     */
-    private Integer calculateDuration(LocalDateTime start, LocalDateTime end) {
-        if (start == null || end == null) {
-            return null;
-        }
-
-        Duration duration = Duration.between(start, end);
-        return (int) duration.toMinutes();
-    }
-
     /**
      * Format LocalDateTime to string with appropriate format
      */
@@ -133,11 +136,7 @@ public class PackageService {
             return null;
         }
 
-        // Check if there are nanoseconds (if so use microsecond conversion)
-        if (dateTime.getNano() > 0) {
-            return dateTime.format(FORMATTER_WITH_MICROSECONDS);
-        } else {
-            return dateTime.format(FORMATTER);
-        }
+        // Microsecond fraction only if there are nanoseconds
+        return TIMESTAMP_FORMATTER.format(dateTime);
     }
 }
\ No newline at end of file
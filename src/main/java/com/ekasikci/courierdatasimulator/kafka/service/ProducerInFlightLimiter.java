@@ -0,0 +1,183 @@
+package com.ekasikci.courierdatasimulator.kafka.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.config.ProducerBackpressureConfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Permits for the records KafkaProducerService has in flight, one per record
+ * and one per estimated serialized byte, released from the send callbacks.
+ *
+ * Without it a traffic spike fills the producer's buffer.memory, and the
+ * scheduler thread then blocks inside send for up to max.block.ms. With it
+ * the sender waits, times out or sheds records before that point, depending
+ * on on-limit.
+ *
+ * The size of a record is only known once the producer serialized it, so
+ * bytes are reserved by a moving average of the acked record sizes and
+ * released by the same amount. A record never reserves more than the byte
+ * limit, so a single record always fits.
+ *
+ * kafka.producer.permit.wait{outcome=acquired|rejected} times every
+ * acquisition; kafka.producer.in.flight.records and .bytes are gauges of
+ * the records in flight.
+ */
+@Component
+public class ProducerInFlightLimiter implements MeterBinder {
+
+    public enum OnLimit {
+        BLOCK,
+        TIMEOUT,
+        SHED
+    }
+
+    /** Returned by acquire when no permits were granted */
+    public static final int REJECTED = -1;
+
+    /** Record size assumed until the first ack */
+    static final int INITIAL_RECORD_BYTES = 1024;
+
+    private final Semaphore records;
+
+    private final Semaphore bytes;
+
+    private final int maxBytes;
+
+    private final OnLimit onLimit;
+
+    private final long timeoutNanos;
+
+    private final AtomicInteger recordBytes = new AtomicInteger(INITIAL_RECORD_BYTES);
+
+    private final AtomicInteger inFlightRecords = new AtomicInteger();
+
+    private final AtomicLong inFlightBytes = new AtomicLong();
+
+    /** Set once bound to a registry; nothing is timed before that */
+    private volatile Timer acquired;
+
+    private volatile Timer rejected;
+
+    public ProducerInFlightLimiter() {
+        this(new ProducerBackpressureConfig());
+    }
+
+    @Autowired
+    public ProducerInFlightLimiter(ProducerBackpressureConfig config) {
+        this.records = config.getMaxInFlightRecords() > 0 ? new Semaphore(config.getMaxInFlightRecords()) : null;
+        this.bytes = config.getMaxInFlightBytes() > 0 ? new Semaphore(config.getMaxInFlightBytes()) : null;
+        this.maxBytes = config.getMaxInFlightBytes();
+        this.onLimit = OnLimit.valueOf(config.getOnLimit().toUpperCase());
+        this.timeoutNanos = config.getPermitTimeout().toNanos();
+    }
+
+    /**
+     * Take the permits of one record, waiting as on-limit says.
+     * Returns the bytes to pass to release, or REJECTED
+     */
+    public int acquire() {
+        int size = bytes == null ? 0 : Math.min(recordBytes.get(), maxBytes);
+        long start = System.nanoTime();
+        long deadline = start + timeoutNanos;
+
+        boolean granted = false;
+        try {
+            if (acquire(records, 1, deadline)) {
+                granted = acquire(bytes, size, deadline);
+                if (!granted && records != null)
+                    records.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Timer timer = granted ? acquired : rejected;
+        if (timer != null)
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!granted)
+            return REJECTED;
+
+        inFlightRecords.incrementAndGet();
+        inFlightBytes.addAndGet(size);
+        return size;
+    }
+
+    /**
+     * Give back the permits of a record once it was acked, failed or never sent
+     */
+    public void release(int size) {
+        inFlightRecords.decrementAndGet();
+        inFlightBytes.addAndGet(-size);
+        if (records != null)
+            records.release();
+        if (bytes != null && size > 0)
+            bytes.release(size);
+    }
+
+    /**
+     * Fold the serialized size of an acked record into the estimate
+     */
+    public void observe(int serializedBytes) {
+        if (serializedBytes > 0)
+            recordBytes.updateAndGet(estimate -> Math.max(1, estimate + (serializedBytes - estimate) / 8));
+    }
+
+    public OnLimit getOnLimit() {
+        return onLimit;
+    }
+
+    public int inFlightRecords() {
+        return inFlightRecords.get();
+    }
+
+    public long inFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    private boolean acquire(Semaphore semaphore, int permits, long deadline) throws InterruptedException {
+        if (semaphore == null || permits == 0 || semaphore.tryAcquire(permits))
+            return true;
+
+        return switch (onLimit) {
+            case SHED -> false;
+            case BLOCK -> {
+                semaphore.acquire(permits);
+                yield true;
+            }
+            case TIMEOUT -> semaphore.tryAcquire(permits, Math.max(0, deadline - System.nanoTime()),
+                    TimeUnit.NANOSECONDS);
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("kafka.producer.in.flight.records", this, ProducerInFlightLimiter::inFlightRecords)
+                .description("Records sent to Kafka and not yet acked")
+                .register(registry);
+        Gauge.builder("kafka.producer.in.flight.bytes", this, ProducerInFlightLimiter::inFlightBytes)
+                .description("Estimated serialized bytes of the records in flight")
+                .baseUnit("bytes")
+                .register(registry);
+
+        rejected = permitWait(registry, "rejected");
+        acquired = permitWait(registry, "acquired");
+    }
+
+    private static Timer permitWait(MeterRegistry registry, String outcome) {
+        return Timer.builder("kafka.producer.permit.wait")
+                .description("Time spent waiting for in-flight permits per record")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
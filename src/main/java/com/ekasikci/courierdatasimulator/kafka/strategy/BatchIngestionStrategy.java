@@ -1,5 +1,6 @@
 package com.ekasikci.courierdatasimulator.kafka.strategy;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Component;
 import com.ekasikci.courierdatasimulator.kafka.config.IngestionStrategyConfig;
 import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
 import com.ekasikci.courierdatasimulator.kafka.entitiy.Package;
+import com.ekasikci.courierdatasimulator.kafka.service.BatchSendResult;
 import com.ekasikci.courierdatasimulator.kafka.service.KafkaProducerService;
 import com.ekasikci.courierdatasimulator.kafka.service.PackageService;
 
@@ -52,20 +54,23 @@ public class BatchIngestionStrategy implements IngestionStrategy {
         log.info("[BATCH] Processing {} packages (batch size limit: {})",
                 batch.size(), maxSize);
 
-        // Transform and send
-        List<MappedPackage> mappedPackages = batch.stream()
-                .map(pkg -> packageService.getPackageById(pkg.getId()))
-                .filter(java.util.Optional::isPresent)
-                .map(java.util.Optional::get)
-                .collect(Collectors.toList());
+        // Transform the whole batch column-wise and send
+        List<MappedPackage> mappedPackages = packageService.mapNonCancelledPackages(batch);
 
-        kafkaProducerService.sendPackages(mappedPackages);
+        // Wait for the broker acks, so the throughput counts delivered packages only
+        BatchSendResult result = kafkaProducerService.awaitAcks(kafkaProducerService.sendPackages(mappedPackages),
+                Duration.ofSeconds(config.getBatch().getAckTimeoutSeconds()));
 
         long elapsed = System.currentTimeMillis() - startTime;
-        double throughput = (mappedPackages.size() * 1000.0) / elapsed;
+        if (result == null) {
+            log.warn("[BATCH] {} packages sent, acks still pending after {}ms", mappedPackages.size(), elapsed);
+            return;
+        }
+
+        double throughput = (result.getAcked() * 1000.0) / elapsed;
 
-        log.info("[BATCH] Completed: {} packages in {}ms ({} pkg/sec)",
-                mappedPackages.size(), elapsed, String.format("%.2f", throughput));
+        log.info("[BATCH] Completed: {} packages acked, {} failed in {}ms ({} pkg/sec)",
+                result.getAcked(), result.getFailed(), elapsed, String.format("%.2f", throughput));
     }
 
     @Override
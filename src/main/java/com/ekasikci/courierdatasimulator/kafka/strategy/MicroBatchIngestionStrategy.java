@@ -1,5 +1,6 @@
 package com.ekasikci.courierdatasimulator.kafka.strategy;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Component;
 import com.ekasikci.courierdatasimulator.kafka.config.IngestionStrategyConfig;
 import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
 import com.ekasikci.courierdatasimulator.kafka.entitiy.Package;
+import com.ekasikci.courierdatasimulator.kafka.service.BatchSendResult;
 import com.ekasikci.courierdatasimulator.kafka.service.KafkaProducerService;
 import com.ekasikci.courierdatasimulator.kafka.service.PackageService;
 
@@ -59,13 +61,22 @@ public class MicroBatchIngestionStrategy implements IngestionStrategy {
                 .collect(Collectors.toList());
 
         if (!mappedPackages.isEmpty()) {
-            kafkaProducerService.sendPackages(mappedPackages);
+            // Wait for the broker acks before the next micro-batch, so a slow broker slows ingestion down
+            BatchSendResult result = kafkaProducerService.awaitAcks(
+                    kafkaProducerService.sendPackages(mappedPackages),
+                    Duration.ofSeconds(config.getMicrobatch().getAckTimeoutSeconds()));
 
             long elapsed = System.currentTimeMillis() - startTime;
+            if (result == null) {
+                log.warn("[MICRO-BATCH] {} packages sent, acks still pending after {}ms",
+                        mappedPackages.size(), elapsed);
+                return;
+            }
+
             double avgLatency = elapsed / (double) mappedPackages.size();
 
-            log.info("[MICRO-BATCH] Sent {} packages in {}ms (avg latency: {}ms/pkg)",
-                    mappedPackages.size(), elapsed, String.format("%.2f", avgLatency));
+            log.info("[MICRO-BATCH] Acked {} packages, {} failed in {}ms (avg latency: {}ms/pkg)",
+                    result.getAcked(), result.getFailed(), elapsed, String.format("%.2f", avgLatency));
         }
     }
 
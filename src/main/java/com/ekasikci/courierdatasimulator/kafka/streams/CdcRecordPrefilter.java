@@ -0,0 +1,256 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Raw-bytes pre-parse stage for Debezium package events.
+ *
+ * Scans the top-level members of the JSON value without Jackson and drops
+ * records the topology would certainly filter anyway:
+ * - tombstones (null or empty value)
+ * - {@code "cancelled":1} as the last top-level cancelled member
+ * - {@code "__deleted":"true"} as the last top-level __deleted member
+ *   (delete.handling.mode=rewrite)
+ *
+ * Anything else, including escaped member names, other token shapes and
+ * malformed JSON, is passed on to the full parse. Outcomes are counted as
+ * cdc.prefilter.records{outcome=...}.
+ */
+@Component
+public class CdcRecordPrefilter implements MeterBinder {
+
+    public enum Outcome {
+        TOMBSTONE, CANCELLED, DELETED, PARSE
+    }
+
+    private static final byte[] CANCELLED = "cancelled".getBytes();
+
+    private static final byte[] DELETED = "__deleted".getBytes();
+
+    private static final byte[] TRUE = "true".getBytes();
+
+    private final LongAdder[] counters = new LongAdder[Outcome.values().length];
+
+    public CdcRecordPrefilter() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Whether the record has to go through the full parse
+     */
+    public boolean shouldParse(byte[] value) {
+        Outcome outcome = classify(value);
+        counters[outcome.ordinal()].increment();
+        return outcome == Outcome.PARSE;
+    }
+
+    public long count(Outcome outcome) {
+        return counters[outcome.ordinal()].sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Outcome outcome : Outcome.values()) {
+            FunctionCounter.builder("cdc.prefilter.records", counters[outcome.ordinal()], LongAdder::sum)
+                    .description("CDC records seen by the raw-bytes prefilter")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Classify a raw CDC value; never throws
+     */
+    public static Outcome classify(byte[] value) {
+        if (value == null || value.length == 0)
+            return Outcome.TOMBSTONE;
+
+        return new Scanner(value).scan();
+    }
+
+    /**
+     * Single pass over the top-level object. Positions past the end or
+     * unexpected bytes end the scan with PARSE.
+     */
+    private static final class Scanner {
+
+        private final byte[] json;
+
+        private int pos;
+
+        private boolean cancelled;
+
+        private boolean deleted;
+
+        private Scanner(byte[] json) {
+            this.json = json;
+        }
+
+        private Outcome scan() {
+            skipWhitespace();
+            if (!consume('{'))
+                return Outcome.PARSE;
+
+            skipWhitespace();
+            if (consume('}'))
+                return Outcome.PARSE;
+
+            while (true) {
+                if (!member())
+                    return Outcome.PARSE;
+
+                skipWhitespace();
+                if (consume(','))
+                    continue;
+                if (consume('}'))
+                    break;
+                return Outcome.PARSE;
+            }
+
+            skipWhitespace();
+            if (pos != json.length)
+                return Outcome.PARSE;
+
+            if (cancelled)
+                return Outcome.CANCELLED;
+            if (deleted)
+                return Outcome.DELETED;
+            return Outcome.PARSE;
+        }
+
+        /**
+         * One "name":value member; records the cancelled and __deleted values
+         */
+        private boolean member() {
+            skipWhitespace();
+            if (!consume('"'))
+                return false;
+
+            int nameStart = pos;
+            if (!skipStringBody())
+                return false;
+            int nameEnd = pos - 1;
+
+            skipWhitespace();
+            if (!consume(':'))
+                return false;
+            skipWhitespace();
+
+            int valueStart = pos;
+            if (!skipValue())
+                return false;
+            int valueEnd = pos;
+
+            if (hasEscape(nameStart, nameEnd)) {
+                // "cancelled" would still bind, can't tell which member this is
+                return false;
+            }
+            if (equals(nameStart, nameEnd, CANCELLED)) {
+                cancelled = valueEnd - valueStart == 1 && json[valueStart] == '1';
+            } else if (equals(nameStart, nameEnd, DELETED)) {
+                deleted = json[valueStart] == '"' && equals(valueStart + 1, valueEnd - 1, TRUE);
+            }
+            return true;
+        }
+
+        private boolean skipValue() {
+            if (pos >= json.length)
+                return false;
+
+            byte b = json[pos];
+            if (b == '"') {
+                pos++;
+                return skipStringBody();
+            }
+            if (b == '{' || b == '[')
+                return skipContainer();
+
+            int start = pos;
+            while (pos < json.length && !isDelimiter(json[pos])) {
+                pos++;
+            }
+            return pos > start;
+        }
+
+        private boolean skipContainer() {
+            int depth = 0;
+            while (pos < json.length) {
+                byte b = json[pos++];
+                if (b == '"') {
+                    if (!skipStringBody())
+                        return false;
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    if (--depth == 0)
+                        return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Skip to just past the closing quote of a string whose opening quote
+         * was already consumed
+         */
+        private boolean skipStringBody() {
+            while (pos < json.length) {
+                byte b = json[pos++];
+                if (b == '\\') {
+                    pos++;
+                } else if (b == '"') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasEscape(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (json[i] == '\\')
+                    return true;
+            }
+            return false;
+        }
+
+        private boolean equals(int from, int to, byte[] expected) {
+            if (to - from != expected.length)
+                return false;
+            for (int i = 0; i < expected.length; i++) {
+                if (json[from + i] != expected[i])
+                    return false;
+            }
+            return true;
+        }
+
+        private boolean consume(char expected) {
+            if (pos < json.length && json[pos] == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (pos < json.length && isWhitespace(json[pos])) {
+                pos++;
+            }
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+        }
+
+        private static boolean isDelimiter(byte b) {
+            return b == ',' || b == '}' || b == ']' || isWhitespace(b);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Stage;
+
+/**
+ * Chained-topology stage that emits only the last MappedPackage per package
+ * within the coalescing window (see PackageCoalescer). A full Processor
+ * rather than a FixedKeyProcessor, as buffered records are forwarded from the
+ * wall-clock punctuator.
+ */
+public class CoalescingProcessor implements Processor<String, MappedPackage, String, MappedPackage> {
+
+    private final PackageStreamMetrics metrics;
+    private final long windowMs;
+    private final boolean bypassCompleted;
+
+    private ProcessorContext<String, MappedPackage> context;
+
+    private PackageCoalescer coalescer;
+
+    /**
+     * @param bypassCompleted emit completed packages at once, dropping any
+     *        earlier state still buffered
+     */
+    public CoalescingProcessor(PackageStreamMetrics metrics, long windowMs, boolean bypassCompleted) {
+        this.metrics = metrics;
+        this.windowMs = windowMs;
+        this.bypassCompleted = bypassCompleted;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, MappedPackage> context) {
+        this.context = context;
+        this.coalescer = new PackageCoalescer(context.getStateStore(PackageCoalescer.STORE_NAME), windowMs);
+        context.schedule(PackageCoalescer.interval(windowMs), PunctuationType.WALL_CLOCK_TIME,
+                now -> coalescer.flush(now, (key, mapped) -> context.forward(new Record<>(key, mapped, now))));
+    }
+
+    @Override
+    public void process(Record<String, MappedPackage> record) {
+        if (bypassCompleted && record.value().isCompleted()) {
+            if (coalescer.discard(record.key()))
+                metrics.increment(Stage.COALESCED);
+            context.forward(record);
+            return;
+        }
+        if (coalescer.buffer(record.key(), record.value(), context.currentSystemTimeMs()))
+            metrics.increment(Stage.COALESCED);
+    }
+}
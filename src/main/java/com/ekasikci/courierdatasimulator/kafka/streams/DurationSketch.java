@@ -0,0 +1,134 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Quantile sketch of durations in minutes, DDSketch style: each value is
+ * counted in a logarithmic bucket, so every quantile is within ACCURACY of
+ * the true value relative to it.
+ *
+ * The buckets cover every int value, so memory is fixed at about 8 KB no
+ * matter how many values are added. Sketches with the same buckets merge by
+ * adding counts, which is how the sketches of several instances combine:
+ * fromBins rebuilds one from the bins another instance exposes.
+ *
+ * Safe for concurrent adds from stream threads and reads from the actuator
+ * endpoint; a read during adds may miss values still being added.
+ */
+public class DurationSketch {
+
+    /** Relative accuracy of every quantile */
+    public static final double ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + ACCURACY) / (1 - ACCURACY);
+
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    /** Buckets up to Integer.MAX_VALUE minutes */
+    static final int BINS = index(Integer.MAX_VALUE) + 1;
+
+    private final AtomicLongArray bins = new AtomicLongArray(BINS);
+
+    /** Values of zero and below */
+    private final AtomicLong zeroCount = new AtomicLong();
+
+    /**
+     * Rebuild a sketch from the sparse bins and zero count of another one
+     */
+    public static DurationSketch fromBins(long zeroCount, Map<Integer, Long> bins) {
+        DurationSketch sketch = new DurationSketch();
+        sketch.zeroCount.set(zeroCount);
+        bins.forEach((index, count) -> {
+            if (index < 0 || index >= BINS)
+                throw new IllegalArgumentException("Bin index out of range: " + index);
+            sketch.bins.set(index, count);
+        });
+        return sketch;
+    }
+
+    public void add(int minutes) {
+        if (minutes <= 0)
+            zeroCount.incrementAndGet();
+        else
+            bins.incrementAndGet(index(minutes));
+    }
+
+    /**
+     * Add every value counted by the other sketch to this one
+     */
+    public void merge(DurationSketch other) {
+        zeroCount.addAndGet(other.zeroCount.get());
+        for (int i = 0; i < BINS; i++) {
+            long count = other.bins.get(i);
+            if (count != 0)
+                bins.addAndGet(i, count);
+        }
+    }
+
+    public long count() {
+        long count = zeroCount.get();
+        for (int i = 0; i < BINS; i++) {
+            count += bins.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Estimated value at the given quantile (0..1), or null when empty
+     */
+    public Double quantile(double q) {
+        if (q < 0 || q > 1)
+            throw new IllegalArgumentException("Quantile must be within [0, 1]: " + q);
+
+        long count = count();
+        if (count == 0)
+            return null;
+
+        long rank = (long) (q * (count - 1));
+        long seen = zeroCount.get();
+        if (rank < seen)
+            return 0.0;
+
+        for (int i = 0; i < BINS; i++) {
+            seen += bins.get(i);
+            if (rank < seen)
+                return value(i);
+        }
+        // Only reached when adds raced the count above
+        return value(BINS - 1);
+    }
+
+    public long zeroCount() {
+        return zeroCount.get();
+    }
+
+    /**
+     * Non-empty buckets by index, the mergeable form of the sketch
+     */
+    public Map<Integer, Long> bins() {
+        Map<Integer, Long> sparse = new TreeMap<>();
+        for (int i = 0; i < BINS; i++) {
+            long count = bins.get(i);
+            if (count != 0)
+                sparse.put(i, count);
+        }
+        return sparse;
+    }
+
+    /**
+     * Bucket i holds the values in (GAMMA^(i-1), GAMMA^i]
+     */
+    static int index(int minutes) {
+        return (int) Math.ceil(Math.log(minutes) / LOG_GAMMA);
+    }
+
+    /**
+     * The point of a bucket equally far, relatively, from both of its bounds
+     */
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,205 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Stage;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Step;
+import com.ekasikci.courierdatasimulator.kafka.transformer.PackageTransformer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single processor node for the whole CDC pipeline: prefilter, parse, stale
+ * update check, cancel/delete filter, transform, coalescing, unchanged output
+ * check, read model update and serialize in one process() call,
+ * forwarding the serialized MappedPackage bytes straight to the sink.
+ *
+ * Output and stage counters are identical to the chained topology. Records
+ * go to the OUTPUT sink under their own key, or with compacted output under
+ * their normalized key, joined by tombstones of removed packages. With SLA
+ * aggregates on, completed packages also go to the SLA child keyed by store
+ * id, serialized with their store_id. A full Processor so that, and the
+ * coalescing punctuator, can forward records of its own.
+ */
+@Slf4j
+public class FusedPackageProcessor implements Processor<String, byte[], String, byte[]> {
+
+    /** Name of the mapped-packages sink node */
+    public static final String OUTPUT = "fused-mapped-packages-sink";
+
+    /** Name of the child node feeding StoreSlaAggregates */
+    public static final String SLA = "fused-store-sla-source";
+
+    private final CdcRecordPrefilter prefilter;
+    private final PackageCDCParser parser;
+    private final PackageTransformer transformer;
+    private final Serializer<MappedPackage> serializer;
+    private final Serializer<MappedPackage> slaSerializer;
+    private final PackageStreamMetrics metrics;
+    private final PackageDurationSketches sketches;
+    private final String mappedTopic;
+    private final StreamProcessingConfig config;
+
+    private ProcessorContext<String, byte[]> context;
+
+    private PackageVersions versions;
+
+    private PackageOutputHashes hashes;
+
+    private PackageCoalescer coalescer;
+
+    private PackageReadModel readModel;
+
+    /**
+     * @param prefilter raw-bytes prefilter, or null when disabled
+     * @param slaSerializer serializer including store_id and type, for the SLA child
+     * @param config decides which of the PackageVersions, PackageOutputHashes,
+     *        PackageCoalescer and PackageReadModel stores are connected
+     */
+    public FusedPackageProcessor(CdcRecordPrefilter prefilter, PackageCDCParser parser,
+            PackageTransformer transformer, Serializer<MappedPackage> serializer,
+            Serializer<MappedPackage> slaSerializer, PackageStreamMetrics metrics, PackageDurationSketches sketches,
+            String mappedTopic, StreamProcessingConfig config) {
+        this.prefilter = prefilter;
+        this.parser = parser;
+        this.transformer = transformer;
+        this.serializer = serializer;
+        this.slaSerializer = slaSerializer;
+        this.metrics = metrics;
+        this.sketches = sketches;
+        this.mappedTopic = mappedTopic;
+        this.config = config;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, byte[]> context) {
+        this.context = context;
+        if (config.isDropStale())
+            this.versions = new PackageVersions(context.getStateStore(PackageVersions.STORE_NAME));
+        if (config.isSuppressUnchanged())
+            this.hashes = new PackageOutputHashes(context.getStateStore(PackageOutputHashes.STORE_NAME));
+        if (config.isReadModel())
+            this.readModel = new PackageReadModel(context.getStateStore(PackageReadModel.STORE_NAME));
+        if (config.isCoalescing()) {
+            long windowMs = config.getCoalesceWindowMs();
+            this.coalescer = new PackageCoalescer(context.getStateStore(PackageCoalescer.STORE_NAME), windowMs);
+            context.schedule(PackageCoalescer.interval(windowMs), PunctuationType.WALL_CLOCK_TIME,
+                    now -> coalescer.flush(now,
+                            (key, mapped) -> emit(new Record<>(key, (byte[]) null, now), mapped)));
+        }
+    }
+
+    @Override
+    public void process(Record<String, byte[]> record) {
+        metrics.increment(Stage.RECEIVED);
+        boolean timed = metrics.sampled();
+
+        if (versions != null && record.value() == null)
+            versions.forget(record.key());
+
+        if (prefilter != null && !prefilter.shouldParse(record.value())) {
+            remove(record);
+            return;
+        }
+        if (prefilter == null && record.value() == null && config.isCompactedOutput()) {
+            remove(record);
+            return;
+        }
+
+        metrics.increment(Stage.PARSED);
+        long start = timed ? System.nanoTime() : 0;
+        ParsedPackageCDC pkg = parser.parse(record.value());
+        if (timed)
+            metrics.record(Step.PARSE, start);
+        if (pkg == null) {
+            metrics.increment(Stage.PARSE_FAILED);
+            return;
+        }
+        if (versions != null && !versions.advance(pkg)) {
+            metrics.increment(Stage.STALE);
+            return;
+        }
+        if (pkg.isCancelled() || pkg.isDeleted()) {
+            metrics.increment(Stage.FILTERED);
+            remove(record);
+            return;
+        }
+
+        log.debug("Processing package: id={}", pkg.getId());
+
+        start = timed ? System.nanoTime() : 0;
+        MappedPackage mapped = transformer.transform(pkg);
+        if (timed)
+            metrics.record(Step.TRANSFORM, start);
+        if (mapped == null) {
+            metrics.increment(Stage.TRANSFORM_FAILED);
+            return;
+        }
+
+        if (coalescer != null) {
+            if (config.isCoalesceBypassCompleted() && mapped.isCompleted()) {
+                if (coalescer.discard(record.key()))
+                    metrics.increment(Stage.COALESCED);
+            } else {
+                if (coalescer.buffer(record.key(), mapped, context.currentSystemTimeMs()))
+                    metrics.increment(Stage.COALESCED);
+                return;
+            }
+        }
+
+        emit(record, mapped);
+    }
+
+    private void emit(Record<String, byte[]> record, MappedPackage mapped) {
+        if (hashes != null && !hashes.changed(mapped)) {
+            metrics.increment(Stage.UNCHANGED);
+            return;
+        }
+
+        if (readModel != null)
+            readModel.update(record.key(), mapped);
+
+        log.info("Sending to {}: {}", mappedTopic, mapped);
+
+        String key = config.isCompactedOutput() ? PackageKeys.outputKey(record.key(), mapped) : record.key();
+        context.forward(record.withKey(key).withValue(serializer.serialize(mappedTopic, mapped)), OUTPUT);
+        metrics.increment(Stage.PRODUCED);
+        sketches.add(mapped);
+        if (metrics.sampled())
+            metrics.endToEnd(record.timestamp(), context.currentSystemTimeMs());
+
+        if (config.isSlaAggregates() && StoreSlaAggregates.isCounted(mapped))
+            context.forward(record.withKey(String.valueOf(mapped.getStoreId()))
+                    .withValue(slaSerializer.serialize(mappedTopic, mapped)), SLA);
+    }
+
+    /**
+     * Drop the package from the read model and the coalescing buffer; with
+     * compacted output, also from the output hashes, and publish its
+     * tombstone (see TombstoneProcessor)
+     */
+    private void remove(Record<String, byte[]> record) {
+        if (readModel != null)
+            readModel.evict(record.key());
+        if (coalescer != null)
+            coalescer.discard(record.key());
+        if (!config.isCompactedOutput())
+            return;
+
+        long id = PackageKeys.id(record.key());
+        if (id == PackageKeys.NO_ID)
+            return;
+        if (hashes != null && !hashes.forget(id))
+            return;
+
+        metrics.increment(Stage.TOMBSTONED);
+        context.forward(new Record<>(PackageKeys.normalized(id), (byte[]) null, record.timestamp()), OUTPUT);
+    }
+}
@@ -0,0 +1,39 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Stage;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Step;
+
+/**
+ * Output serializer that samples the SERIALIZE step and counts
+ * SERIALIZE_FAILED. Failures are rethrown, so Kafka Streams handles them as
+ * it would without the wrapper.
+ */
+public class MeteredSerializer<T> implements Serializer<T> {
+
+    private final Serializer<T> delegate;
+
+    private final PackageStreamMetrics metrics;
+
+    public MeteredSerializer(Serializer<T> delegate, PackageStreamMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        boolean timed = metrics.sampled();
+        long start = timed ? System.nanoTime() : 0;
+        try {
+            byte[] bytes = delegate.serialize(topic, data);
+            if (timed)
+                metrics.record(Step.SERIALIZE, start);
+            return bytes;
+        } catch (SerializationException e) {
+            metrics.increment(Stage.SERIALIZE_FAILED);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.serde.AvroBinary;
+import com.ekasikci.courierdatasimulator.kafka.serde.LocalSchemaRegistry;
+import com.ekasikci.courierdatasimulator.kafka.serde.LocalSchemaRegistry.RegisteredSchema;
+import com.ekasikci.courierdatasimulator.kafka.transformer.TimestampParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decoder for Avro-encoded Debezium package events (value.converter
+ * AvroConverter, see debezium-mysql-connector-avro.json).
+ *
+ * A reader is generated once per writer schema: one step per field in
+ * schema order, reading id, cancelled, eta, store_id, type, status, __deleted,
+ * created_at, last_updated_at, picked_up_at and completed_at into a
+ * ParsedPackageCDC and skipping every other column without materializing
+ * it. Fields are matched by name, so columns may be added, dropped or
+ * reordered between schema versions.
+ *
+ * Writer schemas come from {@code <topic>-value-v<version>.avsc} files
+ * under app.kafka.streams.input-schema-location. Ids assigned by the
+ * connector's own registry are resolved through
+ * app.kafka.streams.input-schema-versions, other ids are looked up among the
+ * local ones. A record with an id known to neither fails to decode: reading
+ * it with some other version would silently misread every field after the
+ * first change.
+ *
+ * Timestamps are converted from their declared type: Debezium
+ * MicroTimestamp, Timestamp and NanoTimestamp longs or timestamp logical
+ * types to epoch micros, strings through TimestampParser, unannotated
+ * numbers as millis or micros like the JSON path.
+ */
+@Slf4j
+@Component
+public class PackageCDCAvroDecoder {
+
+    private enum Target {
+        ID("id"),
+        CANCELLED("cancelled"),
+        ETA("eta"),
+        STORE_ID("store_id"),
+        TYPE("type"),
+        STATUS("status"),
+        DELETED("__deleted"),
+        CREATED_AT("created_at"),
+        LAST_UPDATED_AT("last_updated_at"),
+        PICKED_UP_AT("picked_up_at"),
+        COMPLETED_AT("completed_at"),
+        SKIP(null);
+
+        private final String column;
+
+        Target(String column) {
+            this.column = column;
+        }
+
+        static Target of(String column) {
+            for (Target target : values()) {
+                if (column.equals(target.column))
+                    return target;
+            }
+            return SKIP;
+        }
+    }
+
+    private enum Kind {
+        NULL, BOOLEAN, INT, LONG, FLOAT, DOUBLE, STRING, BYTES, ENUM, FIXED
+    }
+
+    /**
+     * Unit of a long timestamp
+     */
+    private enum Time {
+        MICROS, MILLIS, NANOS, EPOCH_NUMBER;
+
+        long toMicros(long value) {
+            return switch (this) {
+                case MICROS -> value;
+                case MILLIS -> value * 1000;
+                case NANOS -> value / 1000;
+                case EPOCH_NUMBER -> TimestampParser.fromEpochNumber(value);
+            };
+        }
+
+        static Time of(JsonNode type) {
+            String name = type.path("connect.name").asText(type.path("logicalType").asText());
+            return switch (name) {
+                case "io.debezium.time.MicroTimestamp", "timestamp-micros", "local-timestamp-micros" -> MICROS;
+                case "io.debezium.time.Timestamp", "org.apache.kafka.connect.data.Timestamp", "timestamp-millis",
+                        "local-timestamp-millis" -> MILLIS;
+                case "io.debezium.time.NanoTimestamp" -> NANOS;
+                default -> EPOCH_NUMBER;
+            };
+        }
+    }
+
+    /**
+     * One branch of a field type; a field that is not a union has exactly one
+     */
+    private static final class Branch {
+
+        private final Kind kind;
+
+        /** Length of a fixed */
+        private final int size;
+
+        private final Time time;
+
+        private Branch(Kind kind, int size, Time time) {
+            this.kind = kind;
+            this.size = size;
+            this.time = time;
+        }
+    }
+
+    private static final class Field {
+
+        private final Target target;
+
+        private final boolean union;
+
+        private final Branch[] branches;
+
+        private Field(Target target, boolean union, Branch[] branches) {
+            this.target = target;
+            this.union = union;
+            this.branches = branches;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    private final LocalSchemaRegistry registry;
+
+    private final String subject;
+
+    /** Local schema versions by registry id */
+    private final Map<Integer, Integer> schemaVersions;
+
+    /** Generated readers by schema id */
+    private final Map<Integer, Field[]> readers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PackageCDCAvroDecoder(ObjectMapper objectMapper, StreamProcessingConfig config,
+            @Value("${app.kafka.topics.cdc-packages}") String cdcTopic) {
+        this(objectMapper, new LocalSchemaRegistry(config.getInputSchemaLocation()), cdcTopic,
+                config.getInputSchemaVersions());
+
+        // Fail at startup rather than on every record
+        if (config.isAvroInput()) {
+            compile(latest());
+            schemaVersions.keySet().forEach(schemaId -> readers.put(schemaId, compile(schemaId)));
+        }
+    }
+
+    public PackageCDCAvroDecoder(ObjectMapper objectMapper, LocalSchemaRegistry registry, String cdcTopic) {
+        this(objectMapper, registry, cdcTopic, Map.of());
+    }
+
+    /**
+     * @param schemaVersions local schema versions by registry id, for ids
+     *        assigned by the connector's registry
+     */
+    public PackageCDCAvroDecoder(ObjectMapper objectMapper, LocalSchemaRegistry registry, String cdcTopic,
+            Map<Integer, Integer> schemaVersions) {
+        this.objectMapper = objectMapper;
+        this.registry = registry;
+        this.subject = cdcTopic + "-value";
+        this.schemaVersions = Map.copyOf(schemaVersions);
+    }
+
+    /**
+     * Decode a framed Avro CDC value
+     *
+     * @return the decoded fields, or null for tombstones, unknown schema ids
+     *         and payloads that do not match their schema
+     */
+    public ParsedPackageCDC decode(byte[] data) {
+        if (data == null || data.length == 0)
+            return null;
+
+        try {
+            Field[] fields = readers.computeIfAbsent(AvroBinary.schemaId(data), this::compile);
+            AvroBinary.Reader reader = new AvroBinary.Reader(data, AvroBinary.HEADER);
+            ParsedPackageCDC parsed = new ParsedPackageCDC();
+            for (Field field : fields) {
+                read(field, reader, parsed);
+            }
+            return parsed;
+        } catch (RuntimeException e) {
+            log.error("Failed to decode Avro CDC value of {} bytes", data.length, e);
+            return null;
+        }
+    }
+
+    private Field[] compile(int schemaId) {
+        Integer version = schemaVersions.get(schemaId);
+        RegisteredSchema schema = registry.byId(version == null ? schemaId : registry.id(subject, version));
+        if (schema == null || !schema.getSubject().equals(subject))
+            throw new SerializationException("Unknown schema id " + schemaId + " for " + subject
+                    + ", map it to a local version with app.kafka.streams.input-schema-versions");
+        return compile(schema);
+    }
+
+    private RegisteredSchema latest() {
+        RegisteredSchema schema = registry.latest(subject);
+        if (schema == null)
+            throw new IllegalStateException("No schema registered for " + subject);
+        return schema;
+    }
+
+    private Field[] compile(RegisteredSchema schema) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(schema.getDefinition());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid schema " + subject + " v" + schema.getVersion(), e);
+        }
+        if (!"record".equals(root.path("type").asText()))
+            throw new IllegalStateException("Schema " + subject + " v" + schema.getVersion() + " is not a record");
+
+        List<Field> fields = new ArrayList<>();
+        for (JsonNode field : root.path("fields")) {
+            JsonNode type = field.path("type");
+            Branch[] branches;
+            if (type.isArray()) {
+                branches = new Branch[type.size()];
+                for (int i = 0; i < branches.length; i++) {
+                    branches[i] = branch(type.get(i));
+                }
+            } else {
+                branches = new Branch[] { branch(type) };
+            }
+            fields.add(new Field(Target.of(field.path("name").asText()), type.isArray(), branches));
+        }
+        return fields.toArray(Field[]::new);
+    }
+
+    private static Branch branch(JsonNode type) {
+        String name = type.isTextual() ? type.asText() : type.path("type").asText();
+        Kind kind = switch (name) {
+            case "null" -> Kind.NULL;
+            case "boolean" -> Kind.BOOLEAN;
+            case "int" -> Kind.INT;
+            case "long" -> Kind.LONG;
+            case "float" -> Kind.FLOAT;
+            case "double" -> Kind.DOUBLE;
+            case "string" -> Kind.STRING;
+            case "bytes" -> Kind.BYTES;
+            case "enum" -> Kind.ENUM;
+            case "fixed" -> Kind.FIXED;
+            default -> throw new IllegalStateException("Unsupported Avro type in CDC schema: " + type);
+        };
+        return new Branch(kind, type.path("size").asInt(), Time.of(type));
+    }
+
+    private static void read(Field field, AvroBinary.Reader reader, ParsedPackageCDC parsed) {
+        Branch branch = field.union ? field.branches[reader.readIndex(field.branches.length)] : field.branches[0];
+        boolean isNull = branch.kind == Kind.NULL;
+
+        switch (field.target) {
+            case ID -> parsed.setId(isNull ? ParsedPackageCDC.NO_ID : readLong(reader, branch));
+            case STORE_ID -> parsed.setStoreId(isNull ? ParsedPackageCDC.NO_ID : readLong(reader, branch));
+            case ETA -> parsed.setEta(isNull ? ParsedPackageCDC.NO_ETA : Math.toIntExact(readLong(reader, branch)));
+            case CANCELLED -> parsed.setCancelled(!isNull && readLong(reader, branch) == 1);
+            case TYPE -> parsed.setType(isNull ? null : readString(reader, branch));
+            case STATUS -> parsed.setStatus(isNull ? null : readString(reader, branch));
+            case DELETED -> parsed.setDeleted(!isNull && "true".equals(readString(reader, branch)));
+            case CREATED_AT -> parsed.setCreatedAt(readTimestamp(reader, branch));
+            case LAST_UPDATED_AT -> parsed.setLastUpdatedAt(readTimestamp(reader, branch));
+            case PICKED_UP_AT -> parsed.setPickedUpAt(readTimestamp(reader, branch));
+            case COMPLETED_AT -> parsed.setCompletedAt(readTimestamp(reader, branch));
+            case SKIP -> skip(reader, branch);
+        }
+    }
+
+    private static long readLong(AvroBinary.Reader reader, Branch branch) {
+        return switch (branch.kind) {
+            case INT, LONG -> reader.readLong();
+            case BOOLEAN -> reader.readBoolean() ? 1 : 0;
+            default -> throw new SerializationException("Expected an integer, schema has " + branch.kind);
+        };
+    }
+
+    private static String readString(AvroBinary.Reader reader, Branch branch) {
+        return switch (branch.kind) {
+            case STRING -> reader.readString();
+            case BOOLEAN -> String.valueOf(reader.readBoolean());
+            default -> throw new SerializationException("Expected a string, schema has " + branch.kind);
+        };
+    }
+
+    private static long readTimestamp(AvroBinary.Reader reader, Branch branch) {
+        return switch (branch.kind) {
+            case NULL -> ParsedPackageCDC.NO_TIMESTAMP;
+            case INT, LONG -> branch.time.toMicros(reader.readLong());
+            case STRING -> TimestampParser.toEpochMicros(reader.readString());
+            default -> throw new SerializationException("Expected a timestamp, schema has " + branch.kind);
+        };
+    }
+
+    private static void skip(AvroBinary.Reader reader, Branch branch) {
+        switch (branch.kind) {
+            case NULL -> {
+            }
+            case BOOLEAN -> reader.skip(1);
+            case INT, LONG, ENUM -> reader.readLong();
+            case FLOAT -> reader.skip(4);
+            case DOUBLE -> reader.skip(8);
+            case STRING, BYTES -> reader.skipBytes();
+            case FIXED -> reader.skip(branch.size);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.transformer.TimestampParser;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Token-level decoder for Debezium package events.
+ *
+ * Reads only id, cancelled, eta, store_id, type, status, __deleted, created_at,
+ * last_updated_at, picked_up_at and completed_at into a ParsedPackageCDC and
+ * skips every other field without materializing it. Numeric timestamps (what the connector emits for
+ * DATETIME columns) are converted without creating strings.
+ *
+ * When a used field has a token type that full PackageCDC binding would
+ * coerce differently (e.g. a quoted id), decode returns null and the caller
+ * falls back to binding, so results stay identical for every payload.
+ *
+ * In NUMERIC time mode timestamp numbers are taken as epoch micros as-is
+ * and any non-numeric timestamp makes the payload fall back to binding.
+ */
+@Component
+public class PackageCDCDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    private final boolean numericTime;
+
+    public PackageCDCDecoder(ObjectMapper objectMapper) {
+        this(objectMapper, false);
+    }
+
+    @Autowired
+    public PackageCDCDecoder(ObjectMapper objectMapper, StreamProcessingConfig config) {
+        this(objectMapper, config.isNumericTime());
+    }
+
+    public PackageCDCDecoder(ObjectMapper objectMapper, boolean numericTime) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.numericTime = numericTime;
+    }
+
+    /**
+     * Decode a CDC JSON payload
+     *
+     * @return the decoded fields, or null when the payload needs full binding
+     */
+    public ParsedPackageCDC decode(String json) {
+        if (json == null)
+            return null;
+
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return decode(parser);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decode a CDC JSON payload straight from its UTF-8 record bytes
+     *
+     * @return the decoded fields, or null when the payload needs full binding
+     */
+    public ParsedPackageCDC decode(byte[] json) {
+        if (json == null)
+            return null;
+
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return decode(parser);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private ParsedPackageCDC decode(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT)
+            return null;
+
+        ParsedPackageCDC parsed = new ParsedPackageCDC();
+        String field;
+
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            boolean decoded = true;
+
+            switch (field) {
+                case "id":
+                    decoded = readId(parser, token, parsed);
+                    break;
+                case "cancelled":
+                    decoded = readCancelled(parser, token, parsed);
+                    break;
+                case "eta":
+                    decoded = readEta(parser, token, parsed);
+                    break;
+                case "store_id":
+                    decoded = readStoreId(parser, token, parsed);
+                    break;
+                case "type":
+                    decoded = readType(parser, token, parsed);
+                    break;
+                case "status":
+                    decoded = readStatus(parser, token, parsed);
+                    break;
+                case "__deleted":
+                    decoded = readDeleted(parser, token, parsed);
+                    break;
+                case "created_at":
+                    parsed.setCreatedAt(readTimestamp(parser, token));
+                    break;
+                case "last_updated_at":
+                    parsed.setLastUpdatedAt(readTimestamp(parser, token));
+                    break;
+                case "picked_up_at":
+                    parsed.setPickedUpAt(readTimestamp(parser, token));
+                    break;
+                case "completed_at":
+                    parsed.setCompletedAt(readTimestamp(parser, token));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+
+            if (!decoded)
+                return null;
+        }
+
+        return parser.currentToken() == JsonToken.END_OBJECT ? parsed : null;
+    }
+
+    private boolean readId(JsonParser parser, JsonToken token, ParsedPackageCDC parsed) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            parsed.setId(ParsedPackageCDC.NO_ID);
+            return true;
+        }
+        if (!isLongToken(parser, token))
+            return false;
+
+        long id = parser.getLongValue();
+        parsed.setId(id);
+        return id != ParsedPackageCDC.NO_ID;
+    }
+
+    private boolean readStoreId(JsonParser parser, JsonToken token, ParsedPackageCDC parsed) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            parsed.setStoreId(ParsedPackageCDC.NO_ID);
+            return true;
+        }
+        if (!isLongToken(parser, token))
+            return false;
+
+        long storeId = parser.getLongValue();
+        parsed.setStoreId(storeId);
+        return storeId != ParsedPackageCDC.NO_ID;
+    }
+
+    private boolean readEta(JsonParser parser, JsonToken token, ParsedPackageCDC parsed) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            parsed.setEta(ParsedPackageCDC.NO_ETA);
+            return true;
+        }
+        if (!isIntToken(parser, token))
+            return false;
+
+        int eta = parser.getIntValue();
+        parsed.setEta(eta);
+        return eta != ParsedPackageCDC.NO_ETA;
+    }
+
+    private boolean readCancelled(JsonParser parser, JsonToken token, ParsedPackageCDC parsed) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            parsed.setCancelled(false);
+            return true;
+        }
+        if (!isIntToken(parser, token))
+            return false;
+
+        parsed.setCancelled(parser.getIntValue() == 1);
+        return true;
+    }
+
+    private boolean readType(JsonParser parser, JsonToken token, ParsedPackageCDC parsed) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            parsed.setType(null);
+            return true;
+        }
+        if (token != JsonToken.VALUE_STRING)
+            return false;
+
+        parsed.setType(parser.getText());
+        return true;
+    }
+
+    private boolean readStatus(JsonParser parser, JsonToken token, ParsedPackageCDC parsed) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            parsed.setStatus(null);
+            return true;
+        }
+        if (token != JsonToken.VALUE_STRING)
+            return false;
+
+        parsed.setStatus(parser.getText());
+        return true;
+    }
+
+    private boolean readDeleted(JsonParser parser, JsonToken token, ParsedPackageCDC parsed) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            parsed.setDeleted(false);
+            return true;
+        }
+        if (token != JsonToken.VALUE_STRING)
+            return false;
+
+        parsed.setDeleted("true".equals(parser.getText()));
+        return true;
+    }
+
+    /**
+     * Timestamps bind to String in PackageCDC, so every scalar is accepted;
+     * only positive longs skip the textual form. Numeric time mode accepts
+     * epoch micros only.
+     */
+    private long readTimestamp(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL)
+            return ParsedPackageCDC.NO_TIMESTAMP;
+
+        if (numericTime) {
+            if (!isLongToken(parser, token))
+                throw new IOException("Expected epoch micros for timestamp field " + parser.currentName());
+            return parser.getLongValue();
+        }
+
+        if (isLongToken(parser, token)) {
+            long value = parser.getLongValue();
+            if (value > 0)
+                return TimestampParser.fromEpochNumber(value);
+        }
+
+        if (token.isStructStart())
+            throw new IOException("Unexpected " + token + " for timestamp field " + parser.currentName());
+
+        return TimestampParser.toEpochMicros(parser.getText());
+    }
+
+    private static boolean isLongToken(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.VALUE_NUMBER_INT)
+            return false;
+        JsonParser.NumberType type = parser.getNumberType();
+        return type == JsonParser.NumberType.INT || type == JsonParser.NumberType.LONG;
+    }
+
+    private static boolean isIntToken(JsonParser parser, JsonToken token) throws IOException {
+        return token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT;
+    }
+}
@@ -0,0 +1,108 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.NumericPackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.serde.NumericPackageCDCSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.PackageCDCSerde;
+import com.ekasikci.courierdatasimulator.kafka.transformer.PackageTransformer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Parse stage of the CDC pipeline: raw record bytes to ParsedPackageCDC,
+ * according to the configured input format, decoder and time mode. Shared
+ * by the chained and fused topologies.
+ */
+@Slf4j
+@Component
+public class PackageCDCParser {
+
+    private final PackageTransformer packageTransformer;
+    private final PackageCDCSerde packageCDCSerde;
+    private final NumericPackageCDCSerde numericPackageCDCSerde;
+    private final PackageCDCDecoder packageCDCDecoder;
+    private final PackageCDCAvroDecoder packageCDCAvroDecoder;
+    private final String cdcTopic;
+    private final boolean avro;
+    private final boolean selective;
+    private final boolean numericTime;
+
+    public PackageCDCParser(PackageTransformer packageTransformer,
+            PackageCDCSerde packageCDCSerde,
+            NumericPackageCDCSerde numericPackageCDCSerde,
+            PackageCDCDecoder packageCDCDecoder,
+            PackageCDCAvroDecoder packageCDCAvroDecoder,
+            StreamProcessingConfig config,
+            @Value("${app.kafka.topics.cdc-packages}") String cdcTopic) {
+        this.packageTransformer = packageTransformer;
+        this.packageCDCSerde = packageCDCSerde;
+        this.numericPackageCDCSerde = numericPackageCDCSerde;
+        this.packageCDCDecoder = packageCDCDecoder;
+        this.packageCDCAvroDecoder = packageCDCAvroDecoder;
+        this.cdcTopic = cdcTopic;
+        this.avro = config.isAvroInput();
+        this.selective = "SELECTIVE".equalsIgnoreCase(config.getDecoder());
+        this.numericTime = config.isNumericTime();
+    }
+
+    /**
+     * Parse a CDC record value
+     *
+     * @return the parsed fields, or null when the payload cannot be parsed
+     */
+    public ParsedPackageCDC parse(byte[] json) {
+        if (avro)
+            return packageCDCAvroDecoder.decode(json);
+        if (selective)
+            return decodePackageCDC(json);
+        if (numericTime)
+            return bindNumericPackageCDC(json);
+        return bindPackageCDC(json);
+    }
+
+    /**
+     * Full PackageCDC binding, then timestamp pre-parse
+     */
+    private ParsedPackageCDC bindPackageCDC(byte[] json) {
+        return preParse(packageCDCSerde.deserializer().deserialize(cdcTopic, json));
+    }
+
+    /**
+     * Pre-parse the timestamps of a bound PackageCDC
+     */
+    private ParsedPackageCDC preParse(PackageCDC packageCDC) {
+        if (packageCDC == null)
+            return null;
+        try {
+            return packageTransformer.preParse(packageCDC);
+        } catch (Exception e) {
+            log.error("Failed to pre-parse PackageCDC: {}", packageCDC, e);
+            return null;
+        }
+    }
+
+    /**
+     * Bind epoch-micro timestamps directly, falling back to string binding for
+     * payloads outside the numeric time contract
+     */
+    private ParsedPackageCDC bindNumericPackageCDC(byte[] json) {
+        NumericPackageCDC numeric = numericPackageCDCSerde.deserializer().deserialize(cdcTopic, json);
+        if (numeric != null)
+            return packageTransformer.preParse(numeric);
+        return bindPackageCDC(json);
+    }
+
+    /**
+     * Decode only the used fields, falling back to full binding for payloads
+     * the selective decoder does not handle
+     */
+    private ParsedPackageCDC decodePackageCDC(byte[] json) {
+        ParsedPackageCDC parsed = packageCDCDecoder.decode(json);
+        return parsed != null ? parsed : bindPackageCDC(json);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+
+/**
+ * Latest MappedPackage per record key, held back for a short window so rapid
+ * status transitions of the same package go out as their final state only.
+ *
+ * Each entry keeps the wall-clock time its package was first buffered; later
+ * updates replace the value but not that time, so no package waits longer
+ * than the window. The buffer is a persistent changelog-backed store, held
+ * records survive restarts and are flushed by the next owner of the task.
+ */
+public class PackageCoalescer {
+
+    public static final String STORE_NAME = "package-coalescing-buffer";
+
+    private final TimestampedKeyValueStore<String, MappedPackage> store;
+
+    private final long windowMs;
+
+    private final long intervalMs;
+
+    public PackageCoalescer(TimestampedKeyValueStore<String, MappedPackage> store, long windowMs) {
+        this.store = store;
+        this.windowMs = windowMs;
+        this.intervalMs = interval(windowMs).toMillis();
+    }
+
+    public static StoreBuilder<TimestampedKeyValueStore<String, MappedPackage>> storeBuilder(
+            Serde<MappedPackage> serde) {
+        return Stores.timestampedKeyValueStoreBuilder(
+                Stores.persistentTimestampedKeyValueStore(STORE_NAME), Serdes.String(), serde)
+                .withLoggingEnabled(Map.of());
+    }
+
+    /**
+     * How often the buffer is checked; a tenth of the window, at least 1 ms
+     */
+    public static Duration interval(long windowMs) {
+        return Duration.ofMillis(Math.max(1, windowMs / 10));
+    }
+
+    /**
+     * Hold the package until its window closes
+     *
+     * @return true when it replaced a buffered earlier state of the package
+     */
+    public boolean buffer(String key, MappedPackage mapped, long now) {
+        ValueAndTimestamp<MappedPackage> buffered = store.get(key);
+        long since = buffered == null ? now : buffered.timestamp();
+
+        store.put(key, ValueAndTimestamp.make(mapped, since));
+        return buffered != null;
+    }
+
+    /**
+     * Drop the buffered state of a package that is about to be emitted directly
+     *
+     * @return true when an earlier state was buffered
+     */
+    public boolean discard(String key) {
+        return store.delete(key) != null;
+    }
+
+    /**
+     * Emit and remove every package whose window closes before the next check
+     */
+    public void flush(long now, BiConsumer<String, MappedPackage> emit) {
+        List<KeyValue<String, MappedPackage>> due = new ArrayList<>();
+        try (KeyValueIterator<String, ValueAndTimestamp<MappedPackage>> it = store.all()) {
+            while (it.hasNext()) {
+                KeyValue<String, ValueAndTimestamp<MappedPackage>> entry = it.next();
+                if (entry.value.timestamp() + windowMs <= now + intervalMs)
+                    due.add(new KeyValue<>(entry.key, entry.value.value()));
+            }
+        }
+
+        for (KeyValue<String, MappedPackage> entry : due) {
+            store.delete(entry.key);
+            emit.accept(entry.key, entry.value);
+        }
+    }
+}
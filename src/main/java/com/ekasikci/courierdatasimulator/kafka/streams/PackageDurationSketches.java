@@ -0,0 +1,106 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+
+/**
+ * Lead time, collection and delivery duration sketches of every published
+ * MappedPackage, overall and per package type. Both topologies add a package
+ * where they count it as PRODUCED.
+ *
+ * Types beyond MAX_TYPES share the "other" sketches and packages without a
+ * type go to "unknown", so memory stays fixed however many distinct types
+ * the source sends.
+ */
+@Component
+public class PackageDurationSketches {
+
+    public enum Measure {
+        LEAD_TIME,
+        COLLECTION_DURATION,
+        DELIVERY_DURATION
+    }
+
+    static final int MAX_TYPES = 16;
+
+    static final String UNKNOWN = "unknown";
+
+    static final String OTHER = "other";
+
+    private final DurationSketch[] overall = sketches();
+
+    private final Map<String, DurationSketch[]> byType = new ConcurrentHashMap<>();
+
+    public void add(MappedPackage mapped) {
+        add(overall, mapped);
+        add(forType(mapped.getType()), mapped);
+    }
+
+    public DurationSketch overall(Measure measure) {
+        return overall[measure.ordinal()];
+    }
+
+    /**
+     * Sketch of one package type, null when none of that type was published
+     */
+    public DurationSketch byType(String type, Measure measure) {
+        DurationSketch[] sketches = byType.get(type);
+        return sketches == null ? null : sketches[measure.ordinal()];
+    }
+
+    /**
+     * Sketches per type, keyed like byType
+     */
+    public Map<String, Map<Measure, DurationSketch>> types() {
+        Map<String, Map<Measure, DurationSketch>> types = new TreeMap<>();
+        byType.forEach((type, sketches) -> types.put(type, asMap(sketches)));
+        return types;
+    }
+
+    public Map<Measure, DurationSketch> overall() {
+        return asMap(overall);
+    }
+
+    private DurationSketch[] forType(String type) {
+        String key = type == null ? UNKNOWN : type;
+        DurationSketch[] sketches = byType.get(key);
+        if (sketches != null)
+            return sketches;
+
+        // Racing threads may both see room for one more, the cap is approximate
+        if (byType.size() >= MAX_TYPES)
+            key = OTHER;
+        return byType.computeIfAbsent(key, k -> sketches());
+    }
+
+    private static void add(DurationSketch[] sketches, MappedPackage mapped) {
+        if (mapped.getLeadTime() != null)
+            sketches[Measure.LEAD_TIME.ordinal()].add(mapped.getLeadTime());
+        if (mapped.getCollectionDuration() != null)
+            sketches[Measure.COLLECTION_DURATION.ordinal()].add(mapped.getCollectionDuration());
+        if (mapped.getDeliveryDuration() != null)
+            sketches[Measure.DELIVERY_DURATION.ordinal()].add(mapped.getDeliveryDuration());
+    }
+
+    private static DurationSketch[] sketches() {
+        DurationSketch[] sketches = new DurationSketch[Measure.values().length];
+        for (int i = 0; i < sketches.length; i++) {
+            sketches[i] = new DurationSketch();
+        }
+        return sketches;
+    }
+
+    private static Map<Measure, DurationSketch> asMap(DurationSketch[] sketches) {
+        Map<Measure, DurationSketch> map = new LinkedHashMap<>();
+        for (Measure measure : Measure.values()) {
+            map.put(measure, sketches[measure.ordinal()]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageDurationSketches.Measure;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * /actuator/packagedurations: quantiles of the PackageDurationSketches of
+ * this instance, overall and per package type.
+ *
+ * Each sketch also lists its zero count and non-empty bins, so the sketches
+ * of several instances can be merged with DurationSketch.fromBins and merge
+ * to get cluster-wide quantiles.
+ */
+@Component
+@Endpoint(id = "packagedurations")
+@RequiredArgsConstructor
+public class PackageDurationsEndpoint {
+
+    static final double[] QUANTILES = { 0.5, 0.9, 0.95, 0.99 };
+
+    private final PackageDurationSketches sketches;
+
+    @ReadOperation
+    public Map<String, Object> durations() {
+        Map<String, Object> types = new LinkedHashMap<>();
+        sketches.types().forEach((type, byMeasure) -> types.put(type, describe(byMeasure)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("accuracy", DurationSketch.ACCURACY);
+        result.put("overall", describe(sketches.overall()));
+        result.put("types", types);
+        return result;
+    }
+
+    private static Map<String, Object> describe(Map<Measure, DurationSketch> byMeasure) {
+        Map<String, Object> measures = new LinkedHashMap<>();
+        byMeasure.forEach((measure, sketch) -> measures.put(measure.name().toLowerCase(), describe(sketch)));
+        return measures;
+    }
+
+    private static Map<String, Object> describe(DurationSketch sketch) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("count", sketch.count());
+        for (double q : QUANTILES) {
+            description.put("p" + Math.round(q * 100), sketch.quantile(q));
+        }
+        description.put("zero_count", sketch.zeroCount());
+        description.put("bins", sketch.bins());
+        return description;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
+
+/**
+ * Package ids read from Debezium record keys, and the normalized keys of the
+ * compacted mapped-packages topic: the plain decimal package id, so every
+ * record of a package compacts under one key whatever its source key looked
+ * like.
+ */
+public final class PackageKeys {
+
+    public static final long NO_ID = ParsedPackageCDC.NO_ID;
+
+    private static final String ID_FIELD = "\"id\"";
+
+    private PackageKeys() {
+    }
+
+    /**
+     * Package id of a {"id":N} key, with or without a schema envelope, or of
+     * a plain decimal key
+     *
+     * @return the id, or NO_ID when the key holds none
+     */
+    public static long id(String key) {
+        if (key == null || key.isEmpty())
+            return NO_ID;
+
+        int field = key.lastIndexOf(ID_FIELD);
+        if (field < 0)
+            return parse(key, 0, key.length());
+
+        int i = skipWhitespace(key, field + ID_FIELD.length());
+        if (i >= key.length() || key.charAt(i) != ':')
+            return NO_ID;
+        int start = skipWhitespace(key, i + 1);
+        int end = start;
+        if (end < key.length() && key.charAt(end) == '-')
+            end++;
+        while (end < key.length() && Character.isDigit(key.charAt(end))) {
+            end++;
+        }
+        return parse(key, start, end);
+    }
+
+    public static String normalized(long id) {
+        return Long.toString(id);
+    }
+
+    /**
+     * Key of a mapped-packages record: its package id, from the MappedPackage
+     * or else the record key; the record key as-is when neither has one
+     */
+    public static String outputKey(String recordKey, MappedPackage mapped) {
+        long id = mapped.getId() != null ? mapped.getId() : id(recordKey);
+        return id == NO_ID ? recordKey : normalized(id);
+    }
+
+    private static long parse(String key, int start, int end) {
+        if (start >= end)
+            return NO_ID;
+        try {
+            return Long.parseLong(key, start, end, 10);
+        } catch (NumberFormatException e) {
+            return NO_ID;
+        }
+    }
+
+    private static int skipWhitespace(String key, int i) {
+        while (i < key.length() && Character.isWhitespace(key.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+
+/**
+ * 64-bit content hash of the last MappedPackage emitted per package id, kept
+ * in a persistent changelog-backed store next to PackageVersions.
+ *
+ * The hash covers the derived fields only. last_updated_at changes with every
+ * row update, including those touching columns the mapping ignores (store_id,
+ * user_id, reassigned, collected), so it is left out; the id is the store key.
+ */
+public class PackageOutputHashes {
+
+    public static final String STORE_NAME = "package-output-hashes";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // Field markers, so a null in one field never hashes like a value in the next
+    private static final long NULL = 0x9e3779b97f4a7c15L;
+    private static final long PRESENT = 0x632be59bd9b4e019L;
+
+    private final KeyValueStore<Long, Long> store;
+
+    public PackageOutputHashes(KeyValueStore<Long, Long> store) {
+        this.store = store;
+    }
+
+    public static StoreBuilder<KeyValueStore<Long, Long>> storeBuilder() {
+        return Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(STORE_NAME), Serdes.Long(), Serdes.Long())
+                .withLoggingEnabled(Map.of())
+                .withCachingEnabled();
+    }
+
+    /**
+     * Record the output if it differs from the last one emitted for its package
+     *
+     * @return false when the output is unchanged; packages without an id
+     *         cannot be tracked and always pass
+     */
+    public boolean changed(MappedPackage mapped) {
+        if (mapped.getId() == null)
+            return true;
+
+        long hash = hash(mapped);
+        Long emitted = store.get(mapped.getId());
+        if (emitted != null && emitted == hash)
+            return false;
+
+        store.put(mapped.getId(), hash);
+        return true;
+    }
+
+    /**
+     * Forget the package, so its next output is emitted whatever it holds
+     *
+     * @return true when an output of the package had been recorded
+     */
+    public boolean forget(long id) {
+        return store.delete(id) != null;
+    }
+
+    /**
+     * FNV-1a over the output fields, finished with the murmur3 fmix64 avalanche
+     */
+    static long hash(MappedPackage mapped) {
+        long h = FNV_OFFSET;
+        h = mix(h, mapped.getCreatedAt());
+        h = mix(h, mapped.getCollectionDuration());
+        h = mix(h, mapped.getDeliveryDuration());
+        h = mix(h, mapped.getEta());
+        h = mix(h, mapped.getLeadTime());
+        h = mix(h, mapped.getOrderInTime() == null ? null : mapped.getOrderInTime() ? 1 : 0);
+        return fmix64(h);
+    }
+
+    private static long mix(long h, String value) {
+        if (value == null)
+            return step(h, NULL);
+
+        h = step(h, PRESENT ^ value.length());
+        for (int i = 0; i < value.length(); i++) {
+            h = step(h, value.charAt(i));
+        }
+        return h;
+    }
+
+    private static long mix(long h, Integer value) {
+        if (value == null)
+            return step(h, NULL);
+        return step(step(h, PRESENT), value);
+    }
+
+    private static long step(long h, long value) {
+        return (h ^ value) * FNV_PRIME;
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
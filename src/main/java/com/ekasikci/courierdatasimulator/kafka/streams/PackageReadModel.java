@@ -0,0 +1,85 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+
+/**
+ * Latest published MappedPackage per package id, served to the REST API
+ * through interactive queries (see PackageReadModelService).
+ *
+ * Entries are written when a record goes to the mapped-packages topic and
+ * removed when the package is cancelled or deleted, whether that is seen by
+ * the raw-bytes prefilter or after parsing, so the store holds the same live
+ * packages PackageService would return from the database. It is keyed and
+ * partitioned by the CDC record key.
+ */
+public class PackageReadModel {
+
+    public static final String STORE_NAME = "package-read-model";
+
+    private final KeyValueStore<String, MappedPackage> store;
+
+    public PackageReadModel(KeyValueStore<String, MappedPackage> store) {
+        this.store = store;
+    }
+
+    public static StoreBuilder<KeyValueStore<String, MappedPackage>> storeBuilder(Serde<MappedPackage> serde) {
+        return Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(STORE_NAME), Serdes.String(), serde)
+                .withLoggingEnabled(Map.of())
+                .withCachingEnabled();
+    }
+
+    /**
+     * CDC record key of a package, as written by the Debezium JSON converter.
+     * Keys the store and locates the partition, and so the instance, that
+     * owns the package.
+     */
+    public static String recordKey(long id) {
+        return "{\"id\":" + id + "}";
+    }
+
+    public void update(String key, MappedPackage mapped) {
+        store.put(key, mapped);
+    }
+
+    /**
+     * Remove a cancelled or deleted package
+     */
+    public void evict(String key) {
+        store.delete(key);
+    }
+
+    /**
+     * Chained-topology stage that stores every MappedPackage on its way to
+     * the output topic
+     */
+    public static class Updater implements FixedKeyProcessor<String, MappedPackage, MappedPackage> {
+
+        private FixedKeyProcessorContext<String, MappedPackage> context;
+
+        private PackageReadModel readModel;
+
+        @Override
+        public void init(FixedKeyProcessorContext<String, MappedPackage> context) {
+            this.context = context;
+            this.readModel = new PackageReadModel(context.getStateStore(STORE_NAME));
+        }
+
+        @Override
+        public void process(FixedKeyRecord<String, MappedPackage> record) {
+            readModel.update(record.key(), record.value());
+            context.forward(record);
+        }
+    }
+}
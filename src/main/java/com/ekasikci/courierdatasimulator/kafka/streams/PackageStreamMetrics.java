@@ -0,0 +1,151 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Per-stage record counters for the CDC pipeline, exposed as
+ * cdc.stream.records{stage=...}. Both topologies count the same stages, so
+ * switching between them keeps dashboards intact. Records dropped by the
+ * raw-bytes prefilter are counted by CdcRecordPrefilter.
+ *
+ * cdc.stream.unchanged.ratio is the share of mapped records suppressed as
+ * unchanged, i.e. the hit ratio of the output hash store.
+ *
+ * cdc.stream.step.duration{step=...} times parse, transform and serialize,
+ * and the cdc.stream.end.to.end.latency timer records the time from a
+ * record's timestamp to its output. Both are sampled: one in timing-sample-interval records is
+ * measured, so the clock reads stay off the per-record path. Kafka Streams'
+ * own metrics are bridged into the registry by Spring Boot.
+ */
+@Component
+public class PackageStreamMetrics implements MeterBinder {
+
+    public enum Stage {
+        /** Read from the CDC topic */
+        RECEIVED,
+        /** Reached the parse stage */
+        PARSED,
+        /** Could not be parsed */
+        PARSE_FAILED,
+        /** Parsed, then dropped as not newer than the last update of its package */
+        STALE,
+        /** Parsed, then dropped as cancelled or deleted */
+        FILTERED,
+        /** Transform produced no MappedPackage */
+        TRANSFORM_FAILED,
+        /** Transformed, then replaced in the coalescing window by a later state of its package */
+        COALESCED,
+        /** Transformed, then dropped as identical to the last output of its package */
+        UNCHANGED,
+        /** Forwarded to the mapped-packages topic */
+        PRODUCED,
+        /** Forwarded to the compacted mapped-packages topic as a tombstone of a removed package */
+        TOMBSTONED,
+        /** Could not be serialized; the stream thread still fails on it */
+        SERIALIZE_FAILED
+    }
+
+    public enum Step {
+        PARSE,
+        TRANSFORM,
+        SERIALIZE
+    }
+
+    private final LongAdder[] counters = new LongAdder[Stage.values().length];
+
+    private final int sampleInterval;
+
+    /** Set once bound to a registry; nothing is timed before that */
+    private volatile Timer[] timers;
+
+    /** Bound before timers, so it is set whenever sampled() is true */
+    private volatile Timer endToEnd;
+
+    public PackageStreamMetrics() {
+        this(new StreamProcessingConfig());
+    }
+
+    @Autowired
+    public PackageStreamMetrics(StreamProcessingConfig config) {
+        this.sampleInterval = config.getTimingSampleInterval();
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    public void increment(Stage stage) {
+        counters[stage.ordinal()].increment();
+    }
+
+    public long count(Stage stage) {
+        return counters[stage.ordinal()].sum();
+    }
+
+    /**
+     * Whether to time the current record; callers read the clock only when true
+     */
+    public boolean sampled() {
+        return timers != null && sampleInterval > 0 && ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+    }
+
+    /**
+     * Record a sampled step that started at the given System.nanoTime()
+     */
+    public void record(Step step, long startNanos) {
+        timers[step.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a sampled output of a record with the given timestamp
+     */
+    public void endToEnd(long recordTimestampMs, long nowMs) {
+        endToEnd.record(Math.max(0, nowMs - recordTimestampMs), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Unchanged records over all records that reached the output hash check
+     */
+    public double unchangedRatio() {
+        long unchanged = count(Stage.UNCHANGED);
+        long checked = unchanged + count(Stage.PRODUCED);
+        return checked == 0 ? 0.0 : (double) unchanged / checked;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            FunctionCounter.builder("cdc.stream.records", counters[stage.ordinal()], LongAdder::sum)
+                    .description("CDC records per pipeline stage")
+                    .tag("stage", stage.name().toLowerCase())
+                    .register(registry);
+        }
+        Gauge.builder("cdc.stream.unchanged.ratio", this, PackageStreamMetrics::unchangedRatio)
+                .description("Share of mapped records suppressed as identical to the last output")
+                .register(registry);
+        endToEnd = Timer.builder("cdc.stream.end.to.end.latency")
+                .description("Sampled time from CDC record timestamp to output")
+                .register(registry);
+
+        Timer[] bound = new Timer[Step.values().length];
+        for (Step step : Step.values()) {
+            bound[step.ordinal()] = Timer.builder("cdc.stream.step.duration")
+                    .description("Sampled time spent per record in a pipeline step")
+                    .tag("step", step.name().toLowerCase())
+                    .register(registry);
+        }
+        timers = bound;
+    }
+}
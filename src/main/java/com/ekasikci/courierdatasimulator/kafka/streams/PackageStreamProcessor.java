@@ -1,29 +1,53 @@
 package com.ekasikci.courierdatasimulator.kafka.streams;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Branched;
 import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
 import org.apache.kafka.streams.kstream.Produced;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
 import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
-import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.serde.MappedPackageSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.StoreSlaSerde;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Stage;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Step;
 import com.ekasikci.courierdatasimulator.kafka.transformer.PackageTransformer;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Kafka Streams processor that:
- * 1. Consumes from Debezium CDC topic (dbserver.package_db.package)
- * 2. Filters out cancelled packages
+ * 1. Consumes from Debezium CDC topic (dbserver.package_db.package), JSON or
+ *    Avro values
+ * 2. Filters out cancelled and deleted packages, from the raw bytes where possible,
+ *    and updates older than the last one seen for the package
  * 3. Transforms Package -> MappedPackage
- * 4. Produces to mapped-packages topic
+ * 4. Optionally coalesces rapid updates of a package into its latest state
+ *    and skips outputs identical to the last one emitted for the package
+ * 5. Produces to mapped-packages topic, keeping the latest output per package
+ *    in a read model for interactive queries; with compacted output, keyed by
+ *    package id and with tombstones for deleted and cancelled packages
+ * 6. Optionally aggregates the completed packages per store in time windows
+ *    (see StoreSlaAggregates)
+ *
+ * The CHAIN topology runs each step as its own KStream node; the FUSED
+ * topology runs them all inside one FusedPackageProcessor.
  */
 @Slf4j
 @Configuration
@@ -32,7 +56,13 @@ import lombok.extern.slf4j.Slf4j;
 public class PackageStreamProcessor {
 
     private final PackageTransformer packageTransformer;
-    private final ObjectMapper objectMapper;
+    private final MappedPackageSerde mappedPackageSerde;
+    private final StoreSlaSerde storeSlaSerde;
+    private final PackageCDCParser packageCDCParser;
+    private final CdcRecordPrefilter cdcRecordPrefilter;
+    private final PackageStreamMetrics packageStreamMetrics;
+    private final PackageDurationSketches packageDurationSketches;
+    private final StreamProcessingConfig config;
 
     @Value("${app.kafka.topics.cdc-packages}")
     private String cdcTopic;
@@ -40,72 +70,238 @@ public class PackageStreamProcessor {
     @Value("${app.kafka.topics.mapped-packages}")
     private String mappedTopic;
 
+    @Value("${app.kafka.topics.store-sla-aggregates:cdc-store-sla-aggregates}")
+    private String storeSlaTopic;
+
     @Bean
-    public KStream<String, String> packageStream(StreamsBuilder streamsBuilder) {
+    public KStream<String, byte[]> packageStream(StreamsBuilder streamsBuilder) {
+
+        // Create stream from CDC topic, values stay raw bytes until parsed
+        KStream<String, byte[]> cdcStream = streamsBuilder
+                .stream(cdcTopic, Consumed.with(Serdes.String(), Serdes.ByteArray()));
+
+        if (config.isDropStale())
+            streamsBuilder.addStateStore(PackageVersions.storeBuilder());
+        if (config.isSuppressUnchanged())
+            streamsBuilder.addStateStore(PackageOutputHashes.storeBuilder());
+        if (config.isCoalescing())
+            streamsBuilder.addStateStore(PackageCoalescer.storeBuilder(mappedPackageSerde.withGroupingKeys()));
+        if (config.isReadModel())
+            streamsBuilder.addStateStore(PackageReadModel.storeBuilder(mappedPackageSerde.withGroupingKeys()));
+
+        if (config.isFused()) {
+            fusedTopology(cdcStream);
+        } else {
+            chainedTopology(cdcStream);
+        }
+
+        log.info("Kafka Streams topology built: {} -> {} (topology: {}, input: {}, decoder: {}, time mode: {}, "
+                + "prefilter: {}, drop stale: {}, suppress unchanged: {}, coalesce window: {} ms, read model: {}, "
+                + "SLA aggregates: {}, compacted output: {}, wire format: {})", cdcTopic, mappedTopic,
+                config.getTopology(), config.getInputFormat(), config.getDecoder(), config.getTimeMode(),
+                config.isPrefiltering(),
+                config.isDropStale(), config.isSuppressUnchanged(), config.getCoalesceWindowMs(),
+                config.isReadModel(), config.isSlaAggregates(), config.isCompactedOutput(),
+                mappedPackageSerde.getWireFormat());
+
+        return cdcStream;
+    }
+
+    /**
+     * Process: Prefilter -> Parse -> Stale check -> Filter -> Transform -> Coalesce -> Unchanged check
+     * -> Output (-> SLA aggregates), one node per step
+     */
+    private void chainedTopology(KStream<String, byte[]> cdcStream) {
+        KStream<String, byte[]> rawStream = cdcStream
+                .peek((key, json) -> packageStreamMetrics.increment(Stage.RECEIVED));
+
+        // Deleted packages have no later versions once tombstoned
+        if (config.isDropStale())
+            rawStream = rawStream.processValues(PackageVersions.Forgetter::new, PackageVersions.STORE_NAME);
 
-        // Create stream from CDC topic
-        KStream<String, String> cdcStream = streamsBuilder
-                .stream(cdcTopic, Consumed.with(Serdes.String(), Serdes.String()));
+        // Drop records that are certainly filtered before any JSON binding
+        if (config.isPrefiltering())
+            rawStream = drop(rawStream, json -> !cdcRecordPrefilter.shouldParse(json), "prefilter");
+        else if (config.isCompactedOutput())
+            rawStream = drop(rawStream, Objects::isNull, "tombstones");
 
-        // Process: Filter -> Transform -> Output
-        cdcStream
-                // Parse JSON to PackageCDC
-                .mapValues(this::parsePackageCDC)
+        KStream<String, ParsedPackageCDC> parsedStream = rawStream
+                // Parse to the fields used by the transform
+                .mapValues(this::parse)
 
                 // Filter out nulls (parse failures)
-                .filter((key, pkg) -> pkg != null)
+                .filter((key, pkg) -> isParsed(pkg));
 
-                // Filter out canceled packages
-                .filter((key, pkg) -> !pkg.isCancelled())
+        // Drop redelivered and out-of-order updates
+        if (config.isDropStale())
+            parsedStream = parsedStream.processValues(() -> new StaleUpdateProcessor(packageStreamMetrics),
+                    PackageVersions.STORE_NAME);
+
+        // Filter out canceled and deleted packages the prefilter could not rule out
+        KStream<String, MappedPackage> mappedStream = drop(parsedStream, pkg -> !isKept(pkg), "filter")
 
                 // Log incoming packages (optional, for debugging)
-                .peek((key, pkg) -> log.debug("Processing package: id={}, status={}",
-                        pkg.getId(), pkg.getStatus()))
+                .peek((key, pkg) -> log.debug("Processing package: id={}", pkg.getId()))
 
                 // Transform to MappedPackage
-                .mapValues(packageTransformer::transform)
+                .mapValues(this::transform)
 
                 // Filter out null transformations
-                .filter((key, mapped) -> mapped != null)
+                .filter((key, mapped) -> isMapped(mapped));
 
-                // Convert to JSON
-                .mapValues(this::toJson)
+        // Hold rapid status transitions back and emit the latest state
+        if (config.isCoalescing())
+            mappedStream = mappedStream.process(() -> new CoalescingProcessor(packageStreamMetrics,
+                    config.getCoalesceWindowMs(), config.isCoalesceBypassCompleted()), PackageCoalescer.STORE_NAME);
 
-                // Filter out serialization failures
-                .filter((key, json) -> json != null)
+        // Skip outputs downstream consumers already have
+        if (config.isSuppressUnchanged())
+            mappedStream = mappedStream.processValues(() -> new UnchangedOutputProcessor(packageStreamMetrics),
+                    PackageOutputHashes.STORE_NAME);
 
-                // Log output (optional, for debugging)
-                .peek((key, json) -> log.info("Sending to {}: {}", mappedTopic, json))
+        // Serve what is published to interactive queries
+        if (config.isReadModel())
+            mappedStream = mappedStream.processValues(PackageReadModel.Updater::new, PackageReadModel.STORE_NAME);
 
-                // Send to output topic
-                .to(mappedTopic, Produced.with(Serdes.String(), Serdes.String()));
+        Serde<MappedPackage> outputSerde = Serdes.serdeFrom(
+                new MeteredSerializer<>(mappedPackageSerde.wire().serializer(), packageStreamMetrics),
+                mappedPackageSerde.wire().deserializer());
 
-        log.info("Kafka Streams topology built: {} -> {}", cdcTopic, mappedTopic);
+        KStream<String, MappedPackage> outputStream = mappedStream
+                // Log and count output, sample its end-to-end latency
+                .processValues(() -> new ProducedOutputProcessor(packageStreamMetrics, packageDurationSketches,
+                        mappedTopic));
 
-        return cdcStream;
+        // One key per package for compaction
+        if (config.isCompactedOutput())
+            outputStream = outputStream.selectKey(PackageKeys::outputKey);
+
+        outputStream
+
+                // Send to output topic, serialized straight to wire-format bytes
+                .to(mappedTopic, Produced.with(Serdes.String(), outputSerde));
+
+        // Count what was published per store
+        if (config.isSlaAggregates())
+            storeSlaAggregates().build(mappedStream
+                    .filter((key, mapped) -> StoreSlaAggregates.isCounted(mapped))
+                    .selectKey((key, mapped) -> String.valueOf(mapped.getStoreId())));
     }
 
     /**
-     * Parse JSON string to PackageCDC object
+     * Process: every step inside a single processor node
      */
-    private PackageCDC parsePackageCDC(String json) {
-        try {
-            return objectMapper.readValue(json, PackageCDC.class);
-        } catch (Exception e) {
-            log.error("Failed to parse PackageCDC from JSON: {}", json, e);
-            return null;
-        }
+    private void fusedTopology(KStream<String, byte[]> cdcStream) {
+        CdcRecordPrefilter prefilter = config.isPrefiltering() ? cdcRecordPrefilter : null;
+
+        List<String> stores = new ArrayList<>();
+        if (config.isDropStale())
+            stores.add(PackageVersions.STORE_NAME);
+        if (config.isSuppressUnchanged())
+            stores.add(PackageOutputHashes.STORE_NAME);
+        if (config.isCoalescing())
+            stores.add(PackageCoalescer.STORE_NAME);
+        if (config.isReadModel())
+            stores.add(PackageReadModel.STORE_NAME);
+
+        // process() rather than processValues(): the coalescing punctuator has
+        // to forward records of its own, and output and SLA records may be re-keyed
+        KStream<String, byte[]> fusedStream = cdcStream
+                .process(() -> new FusedPackageProcessor(prefilter, packageCDCParser, packageTransformer,
+                        new MeteredSerializer<>(mappedPackageSerde.wire().serializer(), packageStreamMetrics),
+                        mappedPackageSerde.withGroupingKeys().serializer(),
+                        packageStreamMetrics, packageDurationSketches, mappedTopic, config),
+                        stores.toArray(String[]::new));
+
+        fusedStream.to(mappedTopic,
+                Produced.with(Serdes.String(), Serdes.ByteArray()).withName(FusedPackageProcessor.OUTPUT));
+
+        // Completed packages, forwarded by the processor with their store id
+        if (config.isSlaAggregates())
+            storeSlaAggregates().build(fusedStream.mapValues(
+                    json -> mappedPackageSerde.withGroupingKeys().deserializer().deserialize(storeSlaTopic, json),
+                    Named.as(FusedPackageProcessor.SLA)));
     }
 
     /**
-     * Convert MappedPackage to JSON string
+     * Stores a TombstoneProcessor removes packages from
      */
-    private String toJson(MappedPackage mappedPackage) {
-        try {
-            return objectMapper.writeValueAsString(mappedPackage);
-        } catch (Exception e) {
-            log.error("Failed to serialize MappedPackage to JSON: {}", mappedPackage, e);
-            return null;
+    private String[] removalStores() {
+        List<String> stores = new ArrayList<>();
+        if (config.isReadModel())
+            stores.add(PackageReadModel.STORE_NAME);
+        if (config.isCoalescing())
+            stores.add(PackageCoalescer.STORE_NAME);
+        if (config.isSuppressUnchanged())
+            stores.add(PackageOutputHashes.STORE_NAME);
+        return stores.toArray(String[]::new);
+    }
+
+    private StoreSlaAggregates storeSlaAggregates() {
+        return new StoreSlaAggregates(mappedPackageSerde, storeSlaSerde, config, storeSlaTopic);
+    }
+
+    /**
+     * Filter out records; with the read model or coalescing on, their packages
+     * leave those stores too. With compacted output they are removed by a
+     * TombstoneProcessor instead.
+     */
+    private <V> KStream<String, V> drop(KStream<String, V> stream, Predicate<V> dropped, String name) {
+        if (config.isCompactedOutput()) {
+            Map<String, KStream<String, V>> branches = stream.split(Named.as(name + "-"))
+                    .branch((key, value) -> dropped.test(value), Branched.as("removed"))
+                    .defaultBranch(Branched.as("kept"));
+
+            branches.get(name + "-removed")
+                    .process(() -> new TombstoneProcessor<V>(packageStreamMetrics, config), removalStores())
+                    .to(mappedTopic, Produced.with(Serdes.String(), Serdes.ByteArray()));
+            return branches.get(name + "-kept");
         }
+
+        if (config.isReadModel() || config.isCoalescing())
+            return stream.processValues(() -> new RemovalProcessor<V>(dropped, config), removalStores());
+        return stream.filterNot((key, value) -> dropped.test(value));
+    }
+
+    private ParsedPackageCDC parse(byte[] json) {
+        packageStreamMetrics.increment(Stage.PARSED);
+        if (!packageStreamMetrics.sampled())
+            return packageCDCParser.parse(json);
+
+        long start = System.nanoTime();
+        ParsedPackageCDC pkg = packageCDCParser.parse(json);
+        packageStreamMetrics.record(Step.PARSE, start);
+        return pkg;
+    }
+
+    private MappedPackage transform(ParsedPackageCDC pkg) {
+        if (!packageStreamMetrics.sampled())
+            return packageTransformer.transform(pkg);
+
+        long start = System.nanoTime();
+        MappedPackage mapped = packageTransformer.transform(pkg);
+        packageStreamMetrics.record(Step.TRANSFORM, start);
+        return mapped;
+    }
+
+    private boolean isParsed(ParsedPackageCDC pkg) {
+        if (pkg != null)
+            return true;
+        packageStreamMetrics.increment(Stage.PARSE_FAILED);
+        return false;
+    }
+
+    private boolean isKept(ParsedPackageCDC pkg) {
+        if (!pkg.isCancelled() && !pkg.isDeleted())
+            return true;
+        packageStreamMetrics.increment(Stage.FILTERED);
+        return false;
+    }
+
+    private boolean isMapped(MappedPackage mapped) {
+        if (mapped != null)
+            return true;
+        packageStreamMetrics.increment(Stage.TRANSFORM_FAILED);
+        return false;
     }
-}
\ No newline at end of file
+}
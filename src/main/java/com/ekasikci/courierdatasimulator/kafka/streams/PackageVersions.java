@@ -0,0 +1,101 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
+
+/**
+ * Highest last_updated_at seen per package id, kept in a persistent
+ * changelog-backed store so it survives restarts and task migration.
+ *
+ * The store is keyed by the numeric id without repartitioning: Debezium keys
+ * CDC records by {@code {"id":N}}, so every update of a package already lands
+ * on the same partition and task.
+ *
+ * An entry is removed when Debezium tombstones its package (the record that
+ * follows a rewritten delete, transforms.unwrap.drop.tombstones=false), so
+ * the store holds one entry per row in the packages table, cancelled ones
+ * included, rather than per id ever seen. Without tombstones on the CDC
+ * topic it only grows.
+ */
+public class PackageVersions {
+
+    public static final String STORE_NAME = "package-versions";
+
+    private final KeyValueStore<Long, Long> store;
+
+    public PackageVersions(KeyValueStore<Long, Long> store) {
+        this.store = store;
+    }
+
+    public static StoreBuilder<KeyValueStore<Long, Long>> storeBuilder() {
+        return Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(STORE_NAME), Serdes.Long(), Serdes.Long())
+                .withLoggingEnabled(Map.of())
+                .withCachingEnabled();
+    }
+
+    /**
+     * Record the update if it is newer than anything seen for its package
+     *
+     * Cancellations and deletes pass at the same last_updated_at: a delete
+     * rewritten by Debezium carries the row as it was, so it repeats the
+     * version of the last update and must still remove the package.
+     *
+     * @return false for stale updates (same or older last_updated_at, older
+     *         only for removals); updates without id or last_updated_at
+     *         cannot be ordered and pass
+     */
+    public boolean advance(ParsedPackageCDC pkg) {
+        if (!pkg.hasId() || pkg.getLastUpdatedAt() == ParsedPackageCDC.NO_TIMESTAMP)
+            return true;
+
+        Long seen = store.get(pkg.getId());
+        if (seen != null && pkg.getLastUpdatedAt() <= seen)
+            return pkg.getLastUpdatedAt() == seen && (pkg.isCancelled() || pkg.isDeleted());
+
+        store.put(pkg.getId(), pkg.getLastUpdatedAt());
+        return true;
+    }
+
+    /**
+     * Forget the package of a CDC tombstone; its deleted row has no later versions
+     */
+    public void forget(String key) {
+        long id = PackageKeys.id(key);
+        if (id != PackageKeys.NO_ID)
+            store.delete(id);
+    }
+
+    /**
+     * Chained-topology stage that forwards every record, forgetting the
+     * packages of tombstones on the way
+     */
+    public static class Forgetter implements FixedKeyProcessor<String, byte[], byte[]> {
+
+        private FixedKeyProcessorContext<String, byte[]> context;
+
+        private PackageVersions versions;
+
+        @Override
+        public void init(FixedKeyProcessorContext<String, byte[]> context) {
+            this.context = context;
+            this.versions = new PackageVersions(context.getStateStore(STORE_NAME));
+        }
+
+        @Override
+        public void process(FixedKeyRecord<String, byte[]> record) {
+            if (record.value() == null)
+                versions.forget(record.key());
+            context.forward(record);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Stage;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chained-topology stage in front of the sink: counts each MappedPackage as
+ * PRODUCED, adds it to the duration sketches and samples its end-to-end
+ * latency from the record timestamp
+ */
+@Slf4j
+public class ProducedOutputProcessor implements FixedKeyProcessor<String, MappedPackage, MappedPackage> {
+
+    private final PackageStreamMetrics metrics;
+    private final PackageDurationSketches sketches;
+    private final String mappedTopic;
+
+    private FixedKeyProcessorContext<String, MappedPackage> context;
+
+    public ProducedOutputProcessor(PackageStreamMetrics metrics, PackageDurationSketches sketches,
+            String mappedTopic) {
+        this.metrics = metrics;
+        this.sketches = sketches;
+        this.mappedTopic = mappedTopic;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, MappedPackage> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, MappedPackage> record) {
+        log.info("Sending to {}: {}", mappedTopic, record.value());
+        metrics.increment(Stage.PRODUCED);
+        sketches.add(record.value());
+        if (metrics.sampled())
+            metrics.endToEnd(record.timestamp(), context.currentSystemTimeMs());
+
+        context.forward(record);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.util.function.Predicate;
+
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+
+/**
+ * Chained-topology stage that drops records like a filter would, removing
+ * their package from the read model and the coalescing buffer on the way.
+ * Without the latter, a state buffered before the cancel or delete would be
+ * flushed afterwards and put the package back into the read model. With
+ * compacted output a TombstoneProcessor does this instead.
+ */
+public class RemovalProcessor<V> implements FixedKeyProcessor<String, V, V> {
+
+    private final Predicate<V> drop;
+    private final StreamProcessingConfig config;
+
+    private FixedKeyProcessorContext<String, V> context;
+
+    private PackageReadModel readModel;
+
+    private PackageCoalescer coalescer;
+
+    public RemovalProcessor(Predicate<V> drop, StreamProcessingConfig config) {
+        this.drop = drop;
+        this.config = config;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, V> context) {
+        this.context = context;
+        if (config.isReadModel())
+            this.readModel = new PackageReadModel(context.getStateStore(PackageReadModel.STORE_NAME));
+        if (config.isCoalescing())
+            this.coalescer = new PackageCoalescer(context.getStateStore(PackageCoalescer.STORE_NAME),
+                    config.getCoalesceWindowMs());
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, V> record) {
+        if (!drop.test(record.value())) {
+            context.forward(record);
+            return;
+        }
+
+        if (readModel != null)
+            readModel.evict(record.key());
+        if (coalescer != null)
+            coalescer.discard(record.key());
+    }
+}
@@ -0,0 +1,40 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Stage;
+
+/**
+ * Chained-topology stage that forwards only updates newer than the last one
+ * seen for their package (see PackageVersions)
+ */
+public class StaleUpdateProcessor implements FixedKeyProcessor<String, ParsedPackageCDC, ParsedPackageCDC> {
+
+    private final PackageStreamMetrics metrics;
+
+    private FixedKeyProcessorContext<String, ParsedPackageCDC> context;
+
+    private PackageVersions versions;
+
+    public StaleUpdateProcessor(PackageStreamMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, ParsedPackageCDC> context) {
+        this.context = context;
+        this.versions = new PackageVersions(context.getStateStore(PackageVersions.STORE_NAME));
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, ParsedPackageCDC> record) {
+        if (versions.advance(record.value())) {
+            context.forward(record);
+        } else {
+            metrics.increment(Stage.STALE);
+        }
+    }
+}
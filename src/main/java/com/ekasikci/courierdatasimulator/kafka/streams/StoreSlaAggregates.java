@@ -0,0 +1,99 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.Suppressed.BufferConfig;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.dto.StoreSla;
+import com.ekasikci.courierdatasimulator.kafka.serde.MappedPackageSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.StoreSlaSerde;
+
+/**
+ * Topology branch for the on-time SLA per store: completed packages, re-keyed
+ * by store_id, are counted in tumbling and hopping event-time windows. Each
+ * window is written once to the aggregates topic, after it closes.
+ *
+ * Every published record of a completed package counts, so a package whose
+ * durations are corrected after completion is counted again; with
+ * suppress-unchanged on, identical republished records are not.
+ */
+public class StoreSlaAggregates {
+
+    public static final String TUMBLING = "TUMBLING";
+    public static final String HOPPING = "HOPPING";
+
+    public static final String TUMBLING_STORE = "store-sla-tumbling";
+    public static final String HOPPING_STORE = "store-sla-hopping";
+
+    private static final String REPARTITION = "store-sla-by-store";
+
+    private final MappedPackageSerde mappedPackageSerde;
+    private final StoreSlaSerde storeSlaSerde;
+    private final StreamProcessingConfig config;
+    private final String aggregatesTopic;
+
+    public StoreSlaAggregates(MappedPackageSerde mappedPackageSerde, StoreSlaSerde storeSlaSerde,
+            StreamProcessingConfig config, String aggregatesTopic) {
+        this.mappedPackageSerde = mappedPackageSerde;
+        this.storeSlaSerde = storeSlaSerde;
+        this.config = config;
+        this.aggregatesTopic = aggregatesTopic;
+    }
+
+    /**
+     * Whether a published package goes into the aggregates
+     */
+    public static boolean isCounted(MappedPackage mapped) {
+        return mapped.getStoreId() != null && mapped.isCompleted();
+    }
+
+    /**
+     * Aggregate a stream of counted packages keyed by their store id
+     */
+    public void build(KStream<String, MappedPackage> byStore) {
+        // Repartitioned by store, so each window is aggregated on one task
+        KGroupedStream<String, MappedPackage> grouped = byStore
+                .groupByKey(Grouped.with(REPARTITION, Serdes.String(), mappedPackageSerde.withGroupingKeys()));
+
+        TimeWindows tumbling = TimeWindows.ofSizeAndGrace(config.getSlaTumblingWindow(), config.getSlaGrace());
+        TimeWindows hopping = TimeWindows.ofSizeAndGrace(config.getSlaHoppingWindow(), config.getSlaGrace())
+                .advanceBy(config.getSlaHoppingAdvance());
+
+        aggregate(grouped, tumbling, TUMBLING, TUMBLING_STORE);
+        aggregate(grouped, hopping, HOPPING, HOPPING_STORE);
+    }
+
+    private void aggregate(KGroupedStream<String, MappedPackage> grouped, TimeWindows windows, String kind,
+            String storeName) {
+        grouped.windowedBy(windows)
+                .aggregate(StoreSla::new, (storeId, mapped, sla) -> sla.add(mapped),
+                        Materialized.<String, StoreSla, WindowStore<Bytes, byte[]>>as(storeName)
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(storeSlaSerde))
+
+                // One final result per window instead of one update per package
+                .suppress(Suppressed.untilWindowCloses(BufferConfig.unbounded()).withName(storeName + "-final"))
+
+                .toStream(Named.as(storeName + "-results"))
+                .map((window, sla) -> {
+                    sla.setStoreId(Long.valueOf(window.key()));
+                    sla.setWindow(kind);
+                    sla.setWindowStart(window.window().start());
+                    sla.setWindowEnd(window.window().end());
+                    return KeyValue.pair(window.key(), sla);
+                }, Named.as(storeName + "-rekey"))
+                .to(aggregatesTopic, Produced.with(Serdes.String(), storeSlaSerde).withName(storeName + "-sink"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Stage;
+
+/**
+ * Chained-topology stage for deleted and cancelled packages when the
+ * mapped-packages topic is compacted: removes the package from the read
+ * model, the coalescing buffer and the output hashes, and forwards a
+ * tombstone under its normalized key (see PackageKeys).
+ *
+ * With suppress-unchanged on, the output hash tells whether the package was
+ * ever published; packages that were not, or were already removed, get no
+ * tombstone. Debezium deletes arrive twice (rewritten record, then its
+ * tombstone), so this halves the tombstones written.
+ */
+public class TombstoneProcessor<V> implements Processor<String, V, String, byte[]> {
+
+    private final PackageStreamMetrics metrics;
+    private final StreamProcessingConfig config;
+
+    private ProcessorContext<String, byte[]> context;
+
+    private PackageReadModel readModel;
+
+    private PackageCoalescer coalescer;
+
+    private PackageOutputHashes hashes;
+
+    public TombstoneProcessor(PackageStreamMetrics metrics, StreamProcessingConfig config) {
+        this.metrics = metrics;
+        this.config = config;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, byte[]> context) {
+        this.context = context;
+        if (config.isReadModel())
+            this.readModel = new PackageReadModel(context.getStateStore(PackageReadModel.STORE_NAME));
+        if (config.isCoalescing())
+            this.coalescer = new PackageCoalescer(context.getStateStore(PackageCoalescer.STORE_NAME),
+                    config.getCoalesceWindowMs());
+        if (config.isSuppressUnchanged())
+            this.hashes = new PackageOutputHashes(context.getStateStore(PackageOutputHashes.STORE_NAME));
+    }
+
+    @Override
+    public void process(Record<String, V> record) {
+        if (readModel != null)
+            readModel.evict(record.key());
+        if (coalescer != null)
+            coalescer.discard(record.key());
+
+        long id = PackageKeys.id(record.key());
+        if (id == PackageKeys.NO_ID)
+            return;
+        if (hashes != null && !hashes.forget(id))
+            return;
+
+        metrics.increment(Stage.TOMBSTONED);
+        context.forward(new Record<>(PackageKeys.normalized(id), (byte[]) null, record.timestamp()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Stage;
+
+/**
+ * Chained-topology stage that forwards only MappedPackages that differ from
+ * the last one emitted for their package (see PackageOutputHashes)
+ */
+public class UnchangedOutputProcessor implements FixedKeyProcessor<String, MappedPackage, MappedPackage> {
+
+    private final PackageStreamMetrics metrics;
+
+    private FixedKeyProcessorContext<String, MappedPackage> context;
+
+    private PackageOutputHashes hashes;
+
+    public UnchangedOutputProcessor(PackageStreamMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, MappedPackage> context) {
+        this.context = context;
+        this.hashes = new PackageOutputHashes(context.getStateStore(PackageOutputHashes.STORE_NAME));
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, MappedPackage> record) {
+        if (hashes.changed(record.value())) {
+            context.forward(record);
+        } else {
+            metrics.increment(Stage.UNCHANGED);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ekasikci.courierdatasimulator.kafka.transformer;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Business rules for the calculated MappedPackage fields, shared by the JPA
+ * path (PackageService) and the CDC path (PackageTransformer).
+ *
+ * Works on epoch-micros longs and primitive sentinels only, so callers box
+ * once when building the MappedPackage and nothing is allocated in between.
+ *
+ * Rules:
+ * - a duration is the whole minutes from start to end, truncated toward zero
+ * - a package is completed when its status is COMPLETED; records that carry
+ *   no status count as completed once completed_at is set
+ * - a duration is missing when either timestamp is missing or the package
+ *   is not completed
+ * - orderInTime = leadTime <= eta, missing when either is missing
+ */
+public final class MappingKernel {
+
+    /**
+     * Sentinel for a missing timestamp, shared with TimestampParser
+     */
+    public static final long NO_TIMESTAMP = TimestampParser.NO_TIMESTAMP;
+
+    /**
+     * Sentinel for a missing duration; never a real result since minutes of
+     * any long micro difference fit well inside a long
+     */
+    public static final long NO_DURATION = Long.MIN_VALUE;
+
+    private static final long MICROS_PER_MINUTE = 60_000_000L;
+
+    private MappingKernel() {
+    }
+
+    /**
+     * Whether the calculated fields apply to a package, see the rules above
+     *
+     * @param status package status, null when the record does not carry it
+     */
+    public static boolean isCompleted(String status, long completedAtMicros) {
+        if (status != null)
+            return "COMPLETED".equalsIgnoreCase(status);
+        return completedAtMicros != NO_TIMESTAMP;
+    }
+
+    /**
+     * Whole minutes from start to end, truncated toward zero
+     *
+     * @param completed result of {@link #isCompleted(String, long)}
+     * @return the minutes, or NO_DURATION
+     */
+    public static long durationMinutes(long startMicros, long endMicros, boolean completed) {
+        if (!completed || startMicros == NO_TIMESTAMP || endMicros == NO_TIMESTAMP)
+            return NO_DURATION;
+
+        return (endMicros - startMicros) / MICROS_PER_MINUTE;
+    }
+
+    /**
+     * Whether the lead time is within the ETA. Only meaningful when both are
+     * present, see {@link #hasOrderInTime(long, boolean)}.
+     */
+    public static boolean orderInTime(long leadTimeMinutes, int eta) {
+        return (int) leadTimeMinutes <= eta;
+    }
+
+    public static boolean hasOrderInTime(long leadTimeMinutes, boolean hasEta) {
+        return leadTimeMinutes != NO_DURATION && hasEta;
+    }
+
+    /**
+     * Boxes a duration for MappedPackage, as the int the DTO has always carried
+     */
+    public static Integer toMinutes(long durationMinutes) {
+        return durationMinutes == NO_DURATION ? null : (int) durationMinutes;
+    }
+
+    /**
+     * Epoch micros of a local date-time read as UTC, the same reading the CDC
+     * path applies to date-time strings. Sub-micro nanos are dropped.
+     */
+    public static long toEpochMicros(LocalDateTime dateTime) {
+        if (dateTime == null)
+            return NO_TIMESTAMP;
+
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+}
@@ -1,15 +1,11 @@
 package com.ekasikci.courierdatasimulator.kafka.transformer;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-
 import org.springframework.stereotype.Component;
 
 import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.dto.NumericPackageCDC;
 import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -17,111 +13,102 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public class PackageTransformer {
 
-    private static final DateTimeFormatter FORMAT_MICROS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
-
-    private static final DateTimeFormatter FORMAT_MILLIS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
-
-    private static final DateTimeFormatter FORMAT_SECONDS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final TimestampFormatter timestampFormatter = TimestampFormatter.systemDefault();
 
     public MappedPackage transform(PackageCDC packageCDC) {
         if (packageCDC == null)
             return null;
 
-        String createdAtFormatted = fromEpochMicros(toEpochMicros(packageCDC.getCreatedAt()));
-        String lastUpdatedAtFormatted = fromEpochMicros(toEpochMicros(packageCDC.getLastUpdatedAt()));
-
-        MappedPackage.MappedPackageBuilder builder = MappedPackage.builder()
-                .id(packageCDC.getId())
-                .createdAt(createdAtFormatted)
-                .lastUpdatedAt(lastUpdatedAtFormatted)
-                .eta(packageCDC.getEta());
-
-        builder.collectionDuration(
-                calculateDuration(packageCDC.getCreatedAt(), packageCDC.getPickedUpAt()));
-        builder.deliveryDuration(
-                calculateDuration(packageCDC.getPickedUpAt(), packageCDC.getCompletedAt()));
-        builder.leadTime(
-                calculateDuration(packageCDC.getCreatedAt(), packageCDC.getCompletedAt()));
-
-        Integer leadTime = builder.build().getLeadTime();
-        if (leadTime != null && packageCDC.getEta() != null) {
-            builder.orderInTime(leadTime <= packageCDC.getEta());
-        }
-
-        return builder.build();
+        return transform(preParse(packageCDC));
     }
 
-    /** Converts ANY input string to epoch microseconds. */
-    private Long toEpochMicros(String input) {
-        if (input == null || input.isEmpty())
-            return null;
-
-        if (input.matches("\\d+")) {
-            long value = Long.parseLong(input);
-            if (value > 9_000_000_000_000L) { // bigger than millis range -> micros
-                return value;
-            } else {
-                return value * 1000; // millis → micros
-            }
-        }
-
-        try {
-            LocalDateTime ldt = parseFlexibleDate(input);
-            return ldt.toInstant(ZoneOffset.UTC).getEpochSecond() * 1_000_000
-                    + ldt.getNano() / 1000;
-        } catch (Exception e) {
-            log.warn("Failed to parse datetime: {}", input);
-            return null;
-        }
+    /**
+     * Pre-parse stage: turns the CDC string fields the transform needs into
+     * primitives, parsing each timestamp exactly once per record.
+     */
+    public ParsedPackageCDC preParse(PackageCDC packageCDC) {
+        ParsedPackageCDC parsed = new ParsedPackageCDC();
+
+        if (packageCDC.getId() != null)
+            parsed.setId(packageCDC.getId());
+        if (packageCDC.getEta() != null)
+            parsed.setEta(packageCDC.getEta());
+        if (packageCDC.getStoreId() != null)
+            parsed.setStoreId(packageCDC.getStoreId());
+        parsed.setType(packageCDC.getType());
+        parsed.setStatus(packageCDC.getStatus());
+        parsed.setCancelled(packageCDC.isCancelled());
+        parsed.setDeleted(packageCDC.isDeleted());
+
+        parsed.setCreatedAt(TimestampParser.toEpochMicros(packageCDC.getCreatedAt()));
+        parsed.setLastUpdatedAt(TimestampParser.toEpochMicros(packageCDC.getLastUpdatedAt()));
+        parsed.setPickedUpAt(TimestampParser.toEpochMicros(packageCDC.getPickedUpAt()));
+        parsed.setCompletedAt(TimestampParser.toEpochMicros(packageCDC.getCompletedAt()));
+
+        return parsed;
     }
 
-    /** Converts epoch microseconds to string format automatically. */
-    private String fromEpochMicros(Long micros) {
-        if (micros == null)
-            return null;
-
-        long seconds = micros / 1_000_000;
-        long microsPart = micros % 1_000_000;
-
-        Instant instant = Instant.ofEpochSecond(seconds, microsPart * 1000);
-
-        LocalDateTime dt = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
-
-        if (microsPart == 0) {
-            return dt.format(FORMAT_SECONDS);
-        }
-
-        return dt.format(FORMAT_MICROS);
+    /**
+     * Pre-parse stage for the numeric time contract: timestamps are already
+     * epoch micros, so nothing is parsed.
+     */
+    public ParsedPackageCDC preParse(NumericPackageCDC packageCDC) {
+        ParsedPackageCDC parsed = new ParsedPackageCDC();
+
+        if (packageCDC.getId() != null)
+            parsed.setId(packageCDC.getId());
+        if (packageCDC.getEta() != null)
+            parsed.setEta(packageCDC.getEta());
+        if (packageCDC.getStoreId() != null)
+            parsed.setStoreId(packageCDC.getStoreId());
+        parsed.setType(packageCDC.getType());
+        parsed.setStatus(packageCDC.getStatus());
+        parsed.setCancelled(packageCDC.isCancelled());
+        parsed.setDeleted(packageCDC.isDeleted());
+
+        parsed.setCreatedAt(packageCDC.getCreatedAt());
+        parsed.setLastUpdatedAt(packageCDC.getLastUpdatedAt());
+        parsed.setPickedUpAt(packageCDC.getPickedUpAt());
+        parsed.setCompletedAt(packageCDC.getCompletedAt());
+
+        return parsed;
     }
 
-    /** Tries parsing seconds, millis, and micros formats. */
-    private LocalDateTime parseFlexibleDate(String input) {
-        try {
-            return LocalDateTime.parse(input, FORMAT_MICROS);
-        } catch (Exception ignored) {
-        }
-
-        try {
-            return LocalDateTime.parse(input, FORMAT_MILLIS);
-        } catch (Exception ignored) {
-        }
-
-        try {
-            return LocalDateTime.parse(input, FORMAT_SECONDS);
-        } catch (Exception ignored) {
-        }
+    /**
+     * Computes durations and orderInTime from pre-parsed epoch micros.
+     */
+    public MappedPackage transform(ParsedPackageCDC parsed) {
+        if (parsed == null)
+            return null;
 
-        throw new RuntimeException("Unparseable datetime: " + input);
+        boolean completed = MappingKernel.isCompleted(parsed.getStatus(), parsed.getCompletedAt());
+        long collectionDuration = MappingKernel.durationMinutes(parsed.getCreatedAt(), parsed.getPickedUpAt(),
+                completed);
+        long deliveryDuration = MappingKernel.durationMinutes(parsed.getPickedUpAt(), parsed.getCompletedAt(),
+                completed);
+        long leadTime = MappingKernel.durationMinutes(parsed.getCreatedAt(), parsed.getCompletedAt(), completed);
+
+        return MappedPackage.builder()
+                .id(parsed.hasId() ? parsed.getId() : null)
+                .createdAt(fromEpochMicros(parsed.getCreatedAt()))
+                .lastUpdatedAt(fromEpochMicros(parsed.getLastUpdatedAt()))
+                .eta(parsed.hasEta() ? parsed.getEta() : null)
+                .storeId(parsed.hasStoreId() ? parsed.getStoreId() : null)
+                .type(parsed.getType())
+                .collectionDuration(MappingKernel.toMinutes(collectionDuration))
+                .deliveryDuration(MappingKernel.toMinutes(deliveryDuration))
+                .leadTime(MappingKernel.toMinutes(leadTime))
+                .orderInTime(MappingKernel.hasOrderInTime(leadTime, parsed.hasEta())
+                        ? MappingKernel.orderInTime(leadTime, parsed.getEta())
+                        : null)
+                .build();
     }
 
-    private Integer calculateDuration(String start, String end) {
-        Long startMicros = toEpochMicros(start);
-        Long endMicros = toEpochMicros(end);
-
-        if (startMicros == null || endMicros == null)
+    /** Converts epoch microseconds to string format automatically. */
+    private String fromEpochMicros(long micros) {
+        if (micros == TimestampParser.NO_TIMESTAMP)
             return null;
 
-        long diffMicros = endMicros - startMicros;
-        return (int) (diffMicros / 1_000_000L / 60L); // minutes
+        return timestampFormatter.formatEpochMicros(micros);
     }
 }
@@ -0,0 +1,226 @@
+package com.ekasikci.courierdatasimulator.kafka.transformer;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Renders {@code yyyy-MM-dd HH:mm:ss[.SSSSSS]} without going through
+ * DateTimeFormatter on the hot path.
+ *
+ * The 19-char {@code yyyy-MM-dd HH:mm:ss} prefix is cached per local epoch
+ * second and the zone offset per epoch hour, so records from the same burst
+ * only pay for the micro fraction. Output matches the DateTimeFormatter
+ * patterns byte for byte; years outside 0001-9999 use the formatters.
+ *
+ * Caches are small direct-mapped arrays of immutable entries, safe to share
+ * between threads.
+ */
+public final class TimestampFormatter {
+
+    private static final DateTimeFormatter FORMAT_MICROS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private static final DateTimeFormatter FORMAT_SECONDS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final TimestampFormatter SYSTEM_DEFAULT = new TimestampFormatter(ZoneId.systemDefault());
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private static final int SECONDS_PER_HOUR = 3_600;
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private static final long DAYS_0000_TO_1970 = (146097 * 5L) - (30L * 365L + 7L);
+
+    // 0001-01-01T00:00:00 and 9999-12-31T23:59:59 as local epoch seconds
+    private static final long MIN_FAST_SECOND = -62_135_596_800L;
+
+    private static final long MAX_FAST_SECOND = 253_402_300_799L;
+
+    private static final int PREFIX_LENGTH = 19;
+
+    private static final int PREFIX_CACHE_SIZE = 256;
+
+    private static final int OFFSET_CACHE_SIZE = 64;
+
+    private final ZoneId zone;
+
+    private final ZoneRules rules;
+
+    private final boolean fixedOffset;
+
+    private final int fixedOffsetSeconds;
+
+    private final PrefixEntry[] prefixCache = new PrefixEntry[PREFIX_CACHE_SIZE];
+
+    private final OffsetEntry[] offsetCache = new OffsetEntry[OFFSET_CACHE_SIZE];
+
+    public TimestampFormatter(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.fixedOffset = rules.isFixedOffset();
+        this.fixedOffsetSeconds = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+    }
+
+    /**
+     * Formatter for the JVM default zone, resolved once at class load.
+     */
+    public static TimestampFormatter systemDefault() {
+        return SYSTEM_DEFAULT;
+    }
+
+    /**
+     * Formats epoch micros in this formatter's zone. The fraction is dropped
+     * when the micros part is zero.
+     */
+    public String formatEpochMicros(long micros) {
+        long epochSecond = Math.floorDiv(micros, MICROS_PER_SECOND);
+        int microsPart = (int) Math.floorMod(micros, MICROS_PER_SECOND);
+        long localSecond = epochSecond + offsetSeconds(epochSecond);
+
+        if (localSecond < MIN_FAST_SECOND || localSecond > MAX_FAST_SECOND)
+            return formatWithFormatters(epochSecond, microsPart);
+
+        String prefix = prefix(localSecond);
+        return microsPart == 0 ? prefix : withFraction(prefix, microsPart);
+    }
+
+    /**
+     * Formats a local date-time. The fraction is written whenever the nano
+     * part is non-zero, even if it truncates to zero micros.
+     */
+    public String format(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            return dateTime.getNano() > 0 ? dateTime.format(FORMAT_MICROS) : dateTime.format(FORMAT_SECONDS);
+        }
+
+        long localSecond = dateTime.toLocalDate().toEpochDay() * SECONDS_PER_DAY
+                + dateTime.toLocalTime().toSecondOfDay();
+
+        String prefix = prefix(localSecond);
+        return dateTime.getNano() > 0 ? withFraction(prefix, dateTime.getNano() / 1000) : prefix;
+    }
+
+    private String prefix(long localSecond) {
+        int slot = (int) (localSecond & (PREFIX_CACHE_SIZE - 1));
+        PrefixEntry entry = prefixCache[slot];
+
+        if (entry == null || entry.localSecond != localSecond) {
+            entry = new PrefixEntry(localSecond, renderPrefix(localSecond));
+            prefixCache[slot] = entry;
+        }
+        return entry.prefix;
+    }
+
+    private int offsetSeconds(long epochSecond) {
+        if (fixedOffset)
+            return fixedOffsetSeconds;
+
+        long epochHour = Math.floorDiv(epochSecond, SECONDS_PER_HOUR);
+        int slot = (int) (epochHour & (OFFSET_CACHE_SIZE - 1));
+        OffsetEntry entry = offsetCache[slot];
+
+        if (entry != null && entry.epochHour == epochHour)
+            return entry.offsetSeconds;
+
+        long hourStart = epochHour * SECONDS_PER_HOUR;
+        ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochSecond(hourStart));
+        if (next != null && next.toEpochSecond() < hourStart + SECONDS_PER_HOUR) {
+            // Offset changes inside this hour, resolve the exact instant
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+
+        int offset = rules.getOffset(Instant.ofEpochSecond(hourStart)).getTotalSeconds();
+        offsetCache[slot] = new OffsetEntry(epochHour, offset);
+        return offset;
+    }
+
+    private static String withFraction(String prefix, int micros) {
+        char[] buf = new char[PREFIX_LENGTH + 7];
+        prefix.getChars(0, PREFIX_LENGTH, buf, 0);
+        buf[PREFIX_LENGTH] = '.';
+        for (int i = PREFIX_LENGTH + 6; i > PREFIX_LENGTH; i--) {
+            buf[i] = (char) ('0' + micros % 10);
+            micros /= 10;
+        }
+        return new String(buf);
+    }
+
+    /**
+     * Civil-from-days conversion (same arithmetic as LocalDate.ofEpochDay).
+     */
+    private static String renderPrefix(long localSecond) {
+        long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60; // adjust to 0000-03-01
+        long adjust = 0;
+        if (zeroDay < 0) {
+            long adjustCycles = (zeroDay + 1) / 146097 - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * 146097;
+        }
+        long yearEst = (400 * zeroDay + 591) / 146097;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        yearEst += adjust;
+        int marchDoy0 = (int) doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12 + 1;
+        int day = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        int year = (int) (yearEst + marchMonth0 / 10);
+
+        char[] buf = new char[PREFIX_LENGTH];
+        writeDigits(buf, 0, year, 4);
+        buf[4] = '-';
+        writeDigits(buf, 5, month, 2);
+        buf[7] = '-';
+        writeDigits(buf, 8, day, 2);
+        buf[10] = ' ';
+        writeDigits(buf, 11, secondOfDay / SECONDS_PER_HOUR, 2);
+        buf[13] = ':';
+        writeDigits(buf, 14, secondOfDay / 60 % 60, 2);
+        buf[16] = ':';
+        writeDigits(buf, 17, secondOfDay % 60, 2);
+        return new String(buf);
+    }
+
+    private static void writeDigits(char[] buf, int from, int value, int count) {
+        for (int i = from + count - 1; i >= from; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private String formatWithFormatters(long epochSecond, int microsPart) {
+        LocalDateTime dt = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, microsPart * 1000L), zone);
+        return microsPart == 0 ? dt.format(FORMAT_SECONDS) : dt.format(FORMAT_MICROS);
+    }
+
+    private static final class PrefixEntry {
+        private final long localSecond;
+        private final String prefix;
+
+        private PrefixEntry(long localSecond, String prefix) {
+            this.localSecond = localSecond;
+            this.prefix = prefix;
+        }
+    }
+
+    private static final class OffsetEntry {
+        private final long epochHour;
+        private final int offsetSeconds;
+
+        private OffsetEntry(long epochHour, int offsetSeconds) {
+            this.epochHour = epochHour;
+            this.offsetSeconds = offsetSeconds;
+        }
+    }
+}
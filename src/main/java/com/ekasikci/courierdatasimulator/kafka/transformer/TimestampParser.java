@@ -0,0 +1,237 @@
+package com.ekasikci.courierdatasimulator.kafka.transformer;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-pass parser for the timestamp shapes found in Debezium package events.
+ *
+ * Accepts epoch millis / micros as plain digits and
+ * {@code yyyy-MM-dd HH:mm:ss[.SSS|.SSSSSS]} date strings (read as UTC) and
+ * returns epoch microseconds as a primitive. The common shapes are scanned
+ * char by char without throwing or allocating; only signed extended years
+ * are handed to java.time, which keeps results identical to the previous
+ * formatter-based implementation.
+ */
+@Slf4j
+public final class TimestampParser {
+
+    /**
+     * Returned when the input is null, empty or unparseable
+     */
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    // Bigger than this is already micros, anything else is millis
+    private static final long MILLIS_UPPER_BOUND = 9_000_000_000_000L;
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private static final long DAYS_0000_TO_1970 = (146097 * 5L) - (30L * 365L + 7L);
+
+    private static final int LENGTH_SECONDS = 19;
+
+    private static final int LENGTH_MILLIS = 23;
+
+    private static final int LENGTH_MICROS = 26;
+
+    private static final DateTimeFormatter FORMAT_MICROS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private static final DateTimeFormatter FORMAT_MILLIS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private static final DateTimeFormatter FORMAT_SECONDS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final DateTimeFormatter[] FORMATTERS = { FORMAT_MICROS, FORMAT_MILLIS, FORMAT_SECONDS };
+
+    private TimestampParser() {
+    }
+
+    /**
+     * Converts a numeric or date-time string to epoch microseconds.
+     *
+     * @return epoch micros, or {@link #NO_TIMESTAMP} when absent or unparseable
+     */
+    public static long toEpochMicros(CharSequence input) {
+        if (input == null || input.length() == 0)
+            return NO_TIMESTAMP;
+
+        if (isAllDigits(input))
+            return fromEpochNumber(parseDigits(input));
+
+        long micros = parseDateTime(input);
+        if (micros != NO_TIMESTAMP)
+            return micros;
+
+        char first = input.charAt(0);
+        if (first == '+' || first == '-')
+            return parseWithFormatters(input.toString());
+
+        log.warn("Failed to parse datetime: {}", input);
+        return NO_TIMESTAMP;
+    }
+
+    /**
+     * Converts a non-negative epoch number (millis or micros) to epoch micros.
+     */
+    public static long fromEpochNumber(long value) {
+        return value > MILLIS_UPPER_BOUND ? value : value * 1000; // millis -> micros
+    }
+
+    private static boolean isAllDigits(CharSequence input) {
+        for (int i = 0, n = input.length(); i < n; i++) {
+            if (!isDigit(input.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static long parseDigits(CharSequence input) {
+        long value = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            int digit = input.charAt(i) - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                // Out of long range: surface the same NumberFormatException as Long.parseLong
+                return Long.parseLong(input.toString());
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Scans {@code yyyy-MM-dd HH:mm:ss[.SSS|.SSSSSS]} with the same SMART
+     * resolution java.time applies: day-of-month is clamped to the month
+     * length and {@code 24:00:00} rolls over to the next day.
+     */
+    private static long parseDateTime(CharSequence s) {
+        int len = s.length();
+        if (len != LENGTH_SECONDS && len != LENGTH_MILLIS && len != LENGTH_MICROS)
+            return NO_TIMESTAMP;
+
+        if (s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != ' '
+                || s.charAt(13) != ':' || s.charAt(16) != ':')
+            return NO_TIMESTAMP;
+
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if ((year | month | day | hour | minute | second) < 0)
+            return NO_TIMESTAMP;
+
+        int fractionMicros = 0;
+        if (len > LENGTH_SECONDS) {
+            if (s.charAt(LENGTH_SECONDS) != '.')
+                return NO_TIMESTAMP;
+            int fraction = digits(s, LENGTH_SECONDS + 1, len - LENGTH_SECONDS - 1);
+            if (fraction < 0)
+                return NO_TIMESTAMP;
+            fractionMicros = len == LENGTH_MILLIS ? fraction * 1000 : fraction;
+        }
+
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31
+                || minute > 59 || second > 59)
+            return NO_TIMESTAMP;
+
+        int extraDays = 0;
+        if (hour == 24 && minute == 0 && second == 0 && fractionMicros == 0) {
+            hour = 0;
+            extraDays = 1;
+        } else if (hour > 23) {
+            return NO_TIMESTAMP;
+        }
+
+        day = Math.min(day, monthLength(year, month));
+
+        long epochDay = epochDay(year, month, day) + extraDays;
+        long epochSecond = epochDay * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+        return epochSecond * MICROS_PER_SECOND + fractionMicros;
+    }
+
+    /**
+     * Reads {@code count} ASCII digits starting at {@code from}, or -1 if any
+     * char is not a digit.
+     */
+    private static int digits(CharSequence s, int from, int count) {
+        int value = 0;
+        for (int i = from, end = from + count; i < end; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c))
+                return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int monthLength(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date (same as
+     * {@code LocalDate.toEpochDay()}).
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Slow path for inputs the scanner does not cover (signed extended years).
+     */
+    private static long parseWithFormatters(String input) {
+        LocalDateTime ldt = parseFlexibleDate(input);
+        if (ldt == null) {
+            log.warn("Failed to parse datetime: {}", input);
+            return NO_TIMESTAMP;
+        }
+
+        return ldt.toInstant(ZoneOffset.UTC).getEpochSecond() * MICROS_PER_SECOND
+                + ldt.getNano() / 1000;
+    }
+
+    /** Tries parsing micros, millis, and seconds formats. */
+    private static LocalDateTime parseFlexibleDate(String input) {
+        for (DateTimeFormatter formatter : FORMATTERS) {
+            try {
+                return LocalDateTime.parse(input, formatter);
+            } catch (Exception ignored) {
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ekasikci.courierdatasimulator.kafka.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.streams.StreamsConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests for the scale-out settings of KafkaStreamsConfig
+ */
+@DisplayName("KafkaStreamsConfig Unit Tests")
+class KafkaStreamsConfigTest {
+
+    private StreamProcessingConfig streamProcessingConfig;
+
+    private KafkaStreamsConfig kafkaStreamsConfig;
+
+    @BeforeEach
+    void setUp() {
+        streamProcessingConfig = new StreamProcessingConfig();
+        kafkaStreamsConfig = new KafkaStreamsConfig(streamProcessingConfig);
+        ReflectionTestUtils.setField(kafkaStreamsConfig, "applicationId", "package-stream-processor");
+        ReflectionTestUtils.setField(kafkaStreamsConfig, "bootstrapServers", "localhost:9092");
+        ReflectionTestUtils.setField(kafkaStreamsConfig, "cdcTopic", "dbserver.package_db.packages");
+        ReflectionTestUtils.setField(kafkaStreamsConfig, "mappedTopic", "cdc-mapped-packages");
+        ReflectionTestUtils.setField(kafkaStreamsConfig, "partitions", 12);
+        ReflectionTestUtils.setField(kafkaStreamsConfig, "replicationFactor", (short) 3);
+        ReflectionTestUtils.setField(kafkaStreamsConfig, "stateDir", "/tmp/kafka-streams/8081");
+    }
+
+    @Nested
+    @DisplayName("Topic Provisioning Tests")
+    class TopicProvisioningTests {
+
+        @Test
+        @DisplayName("Should size both topics from the configured partitions and replication factor")
+        void shouldSizeTopicsFromConfig() {
+            // When
+            List<NewTopic> topics = kafkaStreamsConfig.topics();
+
+            // Then
+            assertThat(topics).extracting(NewTopic::name)
+                    .containsExactly("dbserver.package_db.packages", "cdc-mapped-packages");
+            assertThat(topics).allSatisfy(topic -> {
+                assertThat(topic.numPartitions()).isEqualTo(12);
+                assertThat(topic.replicationFactor()).isEqualTo((short) 3);
+            });
+        }
+
+        @Test
+        @DisplayName("Should compact the mapped topic when output is compacted")
+        void shouldCompactMappedTopic() {
+            // Given
+            streamProcessingConfig.setCompactedOutput(true);
+
+            // When
+            List<NewTopic> topics = kafkaStreamsConfig.topics();
+
+            // Then
+            assertThat(topics.get(0).configs()).containsEntry("cleanup.policy", "delete");
+            assertThat(topics.get(1).configs()).containsEntry("cleanup.policy", "compact");
+        }
+    }
+
+    @Nested
+    @DisplayName("Streams Properties Tests")
+    class StreamsPropertiesTests {
+
+        @Test
+        @DisplayName("Should set threads, standby replicas, replication and state dir")
+        void shouldSetScaleOutProperties() {
+            // Given
+            streamProcessingConfig.setThreads(4);
+            streamProcessingConfig.setStandbyReplicas(1);
+
+            // When
+            Properties props = kafkaStreamsConfig.kStreamsConfig().asProperties();
+
+            // Then
+            assertThat(props)
+                    .containsEntry(StreamsConfig.NUM_STREAM_THREADS_CONFIG, 4)
+                    .containsEntry(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, 1)
+                    .containsEntry(StreamsConfig.REPLICATION_FACTOR_CONFIG, 3)
+                    .containsEntry(StreamsConfig.STATE_DIR_CONFIG, "/tmp/kafka-streams/8081");
+        }
+
+        @Test
+        @DisplayName("Should set the built-in metrics recording level")
+        void shouldSetMetricsRecordingLevel() {
+            // Given
+            streamProcessingConfig.setMetricsRecordingLevel("DEBUG");
+
+            // When
+            Properties props = kafkaStreamsConfig.kStreamsConfig().asProperties();
+
+            // Then
+            assertThat(props).containsEntry(StreamsConfig.METRICS_RECORDING_LEVEL_CONFIG, "DEBUG");
+        }
+
+        @ParameterizedTest
+        @CsvSource({
+                "0, 12, 8, 8",
+                "0, 3, 8, 3",
+                "0, 12, 1, 1",
+                "0, 0, 8, 1",
+                "2, 12, 8, 2",
+                "16, 12, 8, 16" })
+        @DisplayName("Should derive threads from cores, capped at partitions, unless set explicitly")
+        void shouldResolveThreads(int configured, int partitions, int cores, int expected) {
+            streamProcessingConfig.setThreads(configured);
+
+            assertThat(streamProcessingConfig.resolveThreads(partitions, cores)).isEqualTo(expected);
+        }
+    }
+}
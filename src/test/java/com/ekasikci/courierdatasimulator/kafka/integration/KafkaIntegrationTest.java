@@ -17,7 +17,7 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
-import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.LongDeserializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -72,7 +72,7 @@ class KafkaIntegrationTest {
     @Autowired
     private KafkaProducerService kafkaProducerService;
 
-    private KafkaConsumer<String, MappedPackage> testConsumer;
+    private KafkaConsumer<Long, MappedPackage> testConsumer;
 
     private String testTopic;
 
@@ -90,7 +90,7 @@ class KafkaIntegrationTest {
         Properties props = new Properties();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers());
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "test-group-" + UUID.randomUUID());
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, LongDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JacksonJsonDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(JacksonJsonDeserializer.TRUSTED_PACKAGES, "*");
@@ -109,7 +109,7 @@ class KafkaIntegrationTest {
     private void drainExistingMessages() {
         boolean hasMessages = true;
         while (hasMessages) {
-            ConsumerRecords<String, MappedPackage> records = testConsumer.poll(Duration.ofMillis(500));
+            ConsumerRecords<Long, MappedPackage> records = testConsumer.poll(Duration.ofMillis(500));
             hasMessages = !records.isEmpty();
         }
         // One more poll to ensure we're caught up
@@ -338,12 +338,12 @@ class KafkaIntegrationTest {
             kafkaProducerService.sendPackage(mappedPackage.get());
 
             // Then
-            ConsumerRecords<String, MappedPackage> records = testConsumer.poll(Duration.ofSeconds(10));
+            ConsumerRecords<Long, MappedPackage> records = testConsumer.poll(Duration.ofSeconds(10));
 
             assertThat(records.isEmpty()).isFalse();
 
-            ConsumerRecord<String, MappedPackage> record = records.iterator().next();
-            assertThat(record.key()).isEqualTo("5000");
+            ConsumerRecord<Long, MappedPackage> record = records.iterator().next();
+            assertThat(record.key()).isEqualTo(5000L);
         }
     }
 
@@ -458,7 +458,7 @@ class KafkaIntegrationTest {
     }
 
     private MappedPackage consumeOneMessage(Duration timeout) {
-        ConsumerRecords<String, MappedPackage> records = testConsumer.poll(timeout);
+        ConsumerRecords<Long, MappedPackage> records = testConsumer.poll(timeout);
         if (records.isEmpty()) {
             return null;
         }
@@ -470,7 +470,7 @@ class KafkaIntegrationTest {
         long endTime = System.currentTimeMillis() + timeout.toMillis();
 
         while (messages.size() < expectedCount && System.currentTimeMillis() < endTime) {
-            ConsumerRecords<String, MappedPackage> records = testConsumer.poll(Duration.ofMillis(500));
+            ConsumerRecords<Long, MappedPackage> records = testConsumer.poll(Duration.ofMillis(500));
 
             records.forEach(record -> messages.add(record.value()));
 
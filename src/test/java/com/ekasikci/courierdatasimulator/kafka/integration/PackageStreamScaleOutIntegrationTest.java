@@ -0,0 +1,198 @@
+package com.ekasikci.courierdatasimulator.kafka.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ekasikci.courierdatasimulator.kafka.config.KafkaStreamsConfig;
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.serde.MappedPackageSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.NumericPackageCDCSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.PackageCDCSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.StoreSlaSerde;
+import com.ekasikci.courierdatasimulator.kafka.streams.CdcRecordPrefilter;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageCDCAvroDecoder;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageCDCDecoder;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageCDCParser;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageDurationSketches;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Stage;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamProcessor;
+import com.ekasikci.courierdatasimulator.kafka.transformer.PackageTransformer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs two instances of the package stream processor against the same
+ * application id, the way the scaleout profile is deployed, and checks that
+ * the partitions are split between them with every record processed once.
+ */
+@EmbeddedKafka(partitions = PackageStreamScaleOutIntegrationTest.PARTITIONS, topics = {
+        PackageStreamScaleOutIntegrationTest.CDC_TOPIC, PackageStreamScaleOutIntegrationTest.MAPPED_TOPIC })
+@DisplayName("Package Stream Scale-Out Integration Tests")
+class PackageStreamScaleOutIntegrationTest {
+
+    static final int PARTITIONS = 4;
+
+    static final String CDC_TOPIC = "scaleout-cdc-packages";
+
+    static final String MAPPED_TOPIC = "scaleout-mapped-packages";
+
+    private static final int RECORDS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<KafkaStreams> instances = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        instances.forEach(streams -> {
+            streams.close(Duration.ofSeconds(10));
+            streams.cleanUp();
+        });
+    }
+
+    @Test
+    @Timeout(120)
+    @DisplayName("Should split partitions across instances and process every record once")
+    void shouldSplitPartitionsAcrossInstances(EmbeddedKafkaBroker broker) throws Exception {
+        // Given - two instances, one thread each, same application id
+        String applicationId = "scaleout-" + UUID.randomUUID();
+        PackageStreamMetrics first = new PackageStreamMetrics();
+        PackageStreamMetrics second = new PackageStreamMetrics();
+        KafkaStreams firstInstance = startInstance(broker, applicationId, first);
+        KafkaStreams secondInstance = startInstance(broker, applicationId, second);
+
+        awaitActiveTasks(firstInstance, secondInstance);
+
+        // When
+        produceCdcRecords(broker);
+        Set<String> keys = consumeMappedKeys(broker);
+
+        // Then
+        assertThat(keys).hasSize(RECORDS);
+        assertThat(first.count(Stage.PRODUCED)).isPositive();
+        assertThat(second.count(Stage.PRODUCED)).isPositive();
+        assertThat(first.count(Stage.PRODUCED) + second.count(Stage.PRODUCED)).isEqualTo(RECORDS);
+    }
+
+    private KafkaStreams startInstance(EmbeddedKafkaBroker broker, String applicationId,
+            PackageStreamMetrics metrics) throws Exception {
+        StreamProcessingConfig config = new StreamProcessingConfig();
+        config.setThreads(1);
+
+        // Same streams properties as the application, per-instance state dir
+        KafkaStreamsConfig streamsConfig = new KafkaStreamsConfig(config);
+        ReflectionTestUtils.setField(streamsConfig, "applicationId", applicationId);
+        ReflectionTestUtils.setField(streamsConfig, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(streamsConfig, "partitions", PARTITIONS);
+        ReflectionTestUtils.setField(streamsConfig, "replicationFactor", (short) 1);
+        ReflectionTestUtils.setField(streamsConfig, "stateDir",
+                Files.createTempDirectory("kafka-streams").toString());
+
+        Properties props = streamsConfig.kStreamsConfig().asProperties();
+        props.put(StreamsConfig.consumerPrefix(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG), 10000);
+
+        PackageTransformer transformer = new PackageTransformer();
+        PackageCDCParser parser = new PackageCDCParser(transformer, new PackageCDCSerde(objectMapper),
+                new NumericPackageCDCSerde(objectMapper), new PackageCDCDecoder(objectMapper, config),
+                new PackageCDCAvroDecoder(objectMapper, config, CDC_TOPIC), config, CDC_TOPIC);
+        PackageStreamProcessor processor = new PackageStreamProcessor(transformer,
+                new MappedPackageSerde(objectMapper), new StoreSlaSerde(objectMapper), parser, new CdcRecordPrefilter(),
+                metrics, new PackageDurationSketches(), config);
+        ReflectionTestUtils.setField(processor, "cdcTopic", CDC_TOPIC);
+        ReflectionTestUtils.setField(processor, "mappedTopic", MAPPED_TOPIC);
+
+        StreamsBuilder builder = new StreamsBuilder();
+        processor.packageStream(builder);
+
+        KafkaStreams streams = new KafkaStreams(builder.build(), props);
+        instances.add(streams);
+        streams.start();
+        return streams;
+    }
+
+    /**
+     * Wait for the rebalance to settle with tasks on both instances
+     */
+    private void awaitActiveTasks(KafkaStreams... streams) throws InterruptedException {
+        while (true) {
+            boolean settled = true;
+            for (KafkaStreams instance : streams) {
+                settled &= instance.state() == KafkaStreams.State.RUNNING
+                        && instance.metadataForLocalThreads().stream()
+                                .anyMatch(thread -> !thread.activeTasks().isEmpty());
+            }
+            if (settled)
+                return;
+            Thread.sleep(200);
+        }
+    }
+
+    private void produceCdcRecords(EmbeddedKafkaBroker broker) throws Exception {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(props)) {
+            for (int id = 1; id <= RECORDS; id++) {
+                String value = "{\"id\":" + id + ",\"cancelled\":0,\"eta\":60,"
+                        + "\"created_at\":1763030872000000,\"picked_up_at\":1763030990000000,"
+                        + "\"completed_at\":1763034015000000,\"__deleted\":\"false\"}";
+                producer.send(new ProducerRecord<>(CDC_TOPIC, "{\"id\":" + id + "}", value));
+            }
+            producer.flush();
+        }
+    }
+
+    private Set<String> consumeMappedKeys(EmbeddedKafkaBroker broker) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "scaleout-verifier-" + UUID.randomUUID());
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+
+        Set<String> keys = new HashSet<>();
+        int received = 0;
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props)) {
+            consumer.subscribe(List.of(MAPPED_TOPIC));
+            while (received < RECORDS) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(500))) {
+                    keys.add(record.key());
+                    received++;
+                }
+            }
+        }
+        assertThat(received).as("records on %s", MAPPED_TOPIC).isEqualTo(RECORDS);
+        return keys;
+    }
+}
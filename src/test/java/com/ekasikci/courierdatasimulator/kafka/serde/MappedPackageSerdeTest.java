@@ -0,0 +1,119 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for MappedPackageSerde
+ * Serialized bytes must match ObjectMapper output exactly
+ */
+@DisplayName("MappedPackageSerde Unit Tests")
+class MappedPackageSerdeTest {
+
+    private static final String TOPIC = "cdc-mapped-packages";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final MappedPackageSerde serde = new MappedPackageSerde(objectMapper);
+
+    @Nested
+    @DisplayName("Serializer Tests")
+    class SerializerTests {
+
+        @Test
+        @DisplayName("Should write the same JSON as ObjectMapper")
+        void shouldMatchObjectMapper() throws Exception {
+            // Given
+            MappedPackage mapped = MappedPackage.builder()
+                    .id(100001L)
+                    .createdAt("2025-11-13 10:47:52")
+                    .lastUpdatedAt("2025-11-13 11:40:15.123456")
+                    .collectionDuration(1)
+                    .deliveryDuration(50)
+                    .eta(277)
+                    .leadTime(52)
+                    .orderInTime(true)
+                    .build();
+
+            // When
+            byte[] bytes = serde.serializer().serialize(TOPIC, mapped);
+
+            // Then
+            assertThat(bytes).isEqualTo(objectMapper.writeValueAsBytes(mapped));
+        }
+
+        @Test
+        @DisplayName("Should write null fields like ObjectMapper")
+        void shouldWriteNullFields() throws Exception {
+            // Given
+            MappedPackage mapped = new MappedPackage();
+
+            // When
+            byte[] bytes = serde.serializer().serialize(TOPIC, mapped);
+
+            // Then
+            assertThat(new String(bytes)).isEqualTo(objectMapper.writeValueAsString(mapped));
+        }
+
+        @Test
+        @DisplayName("Should return null for null record")
+        void shouldReturnNullForNullRecord() {
+            assertThat(serde.serializer().serialize(TOPIC, null)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should not share output arrays between records")
+        void shouldNotShareOutputArrays() {
+            // Given
+            byte[] first = serde.serializer().serialize(TOPIC, MappedPackage.builder().id(1L).build());
+
+            // When
+            serde.serializer().serialize(TOPIC, MappedPackage.builder().id(2L).createdAt("x".repeat(2_000)).build());
+
+            // Then
+            assertThat(new String(first)).startsWith("{\"id\":1,");
+        }
+    }
+
+    @Test
+    @DisplayName("Should match ObjectMapper and round trip on randomized records")
+    void shouldMatchObjectMapperOnRandomizedRecords() throws Exception {
+        Random random = new Random(11);
+
+        for (int i = 0; i < 5_000; i++) {
+            MappedPackage mapped = randomMappedPackage(random);
+            byte[] bytes = serde.serializer().serialize(TOPIC, mapped);
+
+            assertThat(bytes).as("bytes of %s", mapped).isEqualTo(objectMapper.writeValueAsBytes(mapped));
+            assertThat(serde.deserializer().deserialize(TOPIC, bytes)).isEqualTo(mapped);
+        }
+    }
+
+    @Test
+    @DisplayName("Should deserialize malformed JSON to null")
+    void shouldDeserializeMalformedToNull() {
+        assertThat(serde.deserializer().deserialize(TOPIC, "{\"id\":".getBytes())).isNull();
+        assertThat(serde.deserializer().deserialize(TOPIC, null)).isNull();
+    }
+
+    private static MappedPackage randomMappedPackage(Random random) {
+        return MappedPackage.builder()
+                .id(random.nextInt(10) == 0 ? null : random.nextLong())
+                .createdAt(random.nextInt(10) == 0 ? null : "2025-11-13 10:47:" + random.nextInt(60))
+                .lastUpdatedAt(random.nextInt(10) == 0 ? null : "\"quoted\"\té€🚀" + random.nextInt())
+                .collectionDuration(random.nextInt(3) == 0 ? null : random.nextInt())
+                .deliveryDuration(random.nextInt(3) == 0 ? null : random.nextInt(-10, 500))
+                .eta(random.nextInt(3) == 0 ? null : random.nextInt(30, 150))
+                .leadTime(random.nextInt(3) == 0 ? null : random.nextInt(0, 600))
+                .orderInTime(random.nextInt(3) == 0 ? null : random.nextBoolean())
+                .build();
+    }
+}
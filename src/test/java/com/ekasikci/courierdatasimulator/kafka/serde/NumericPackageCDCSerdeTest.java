@@ -0,0 +1,85 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.dto.NumericPackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.transformer.PackageTransformer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for NumericPackageCDCSerde
+ */
+@DisplayName("NumericPackageCDCSerde Unit Tests")
+class NumericPackageCDCSerdeTest {
+
+    private static final String TOPIC = "dbserver.package_db.packages";
+
+    private static final String PAYLOAD = "{\"id\":100001,\"cancelled\":0,\"completed_at\":1763034015000000,"
+            + "\"created_at\":1763030872000000,\"customer_id\":20000000123456,\"in_delivery_at\":null,"
+            + "\"last_updated_at\":1763034015000000,\"eta\":277,\"status\":\"COMPLETED\","
+            + "\"picked_up_at\":null,\"__deleted\":\"false\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final NumericPackageCDCSerde serde = new NumericPackageCDCSerde(objectMapper);
+
+    private final PackageTransformer transformer = new PackageTransformer();
+
+    private NumericPackageCDC deserialize(String json) {
+        return serde.deserializer().deserialize(TOPIC, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should bind epoch micros and keep the sentinel for null timestamps")
+    void shouldBindMicrosAndSentinel() {
+        // When
+        NumericPackageCDC cdc = deserialize(PAYLOAD);
+
+        // Then
+        assertThat(cdc.getId()).isEqualTo(100001L);
+        assertThat(cdc.getCreatedAt()).isEqualTo(1763030872000000L);
+        assertThat(cdc.getPickedUpAt()).isEqualTo(NumericPackageCDC.NO_TIMESTAMP);
+        assertThat(cdc.isCancelled()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should transform to the same MappedPackage as string mode")
+    void shouldTransformLikeStringMode() throws Exception {
+        // When
+        MappedPackage numeric = transformer.transform(transformer.preParse(deserialize(PAYLOAD)));
+        MappedPackage string = transformer.transform(objectMapper.readValue(PAYLOAD, PackageCDC.class));
+
+        // Then
+        assertThat(numeric).isEqualTo(string);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "{\"created_at\":\"2025-11-13 10:47:52\"}", "{\"id\":1", "not json" })
+    @DisplayName("Should deserialize payloads outside the numeric contract to null")
+    void shouldDeserializeNonNumericToNull(String json) {
+        assertThat(deserialize(json)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should round trip with nulls for missing timestamps")
+    void shouldRoundTrip() {
+        // Given
+        NumericPackageCDC cdc = deserialize(PAYLOAD);
+
+        // When
+        byte[] bytes = serde.serializer().serialize(TOPIC, cdc);
+
+        // Then
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).contains("\"picked_up_at\":null");
+        assertThat(serde.deserializer().deserialize(TOPIC, bytes)).isEqualTo(cdc);
+    }
+}
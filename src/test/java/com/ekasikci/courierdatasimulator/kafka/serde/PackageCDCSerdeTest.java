@@ -0,0 +1,69 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for PackageCDCSerde
+ */
+@DisplayName("PackageCDCSerde Unit Tests")
+class PackageCDCSerdeTest {
+
+    private static final String TOPIC = "dbserver.package_db.packages";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final PackageCDCSerde serde = new PackageCDCSerde(objectMapper);
+
+    @Test
+    @DisplayName("Should bind Debezium payload bytes like ObjectMapper")
+    void shouldBindLikeObjectMapper() throws Exception {
+        // Given
+        String json = "{\"id\":100001,\"cancelled\":0,\"completed_at\":1763034015000000,"
+                + "\"created_at\":1763030872000000,\"last_updated_at\":1763034015000000,\"eta\":277,"
+                + "\"status\":\"COMPLETED\",\"store_id\":20000000001234,\"type\":\"EXPRESS\","
+                + "\"picked_up_at\":1763030990000000,\"delivery_date\":\"2025-11-13\",\"__deleted\":\"false\"}";
+
+        // When
+        PackageCDC cdc = serde.deserializer().deserialize(TOPIC, json.getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        assertThat(cdc).isEqualTo(objectMapper.readValue(json, PackageCDC.class));
+        assertThat(cdc.getCreatedAt()).isEqualTo("1763030872000000");
+    }
+
+    @Test
+    @DisplayName("Should write the same JSON as ObjectMapper")
+    void shouldSerializeLikeObjectMapper() throws Exception {
+        // Given
+        PackageCDC cdc = PackageCDC.builder()
+                .id(1L)
+                .cancelled(0)
+                .createdAt("2025-11-13 10:47:52")
+                .status("COMPLETED")
+                .build();
+
+        // When
+        byte[] bytes = serde.serializer().serialize(TOPIC, cdc);
+
+        // Then
+        assertThat(bytes).isEqualTo(objectMapper.writeValueAsBytes(cdc));
+        assertThat(serde.deserializer().deserialize(TOPIC, bytes)).isEqualTo(cdc);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "not-json", "{\"id\":\"abc\"}", "{\"id\":1" })
+    @DisplayName("Should deserialize unbindable payloads to null")
+    void shouldDeserializeUnbindableToNull(String json) {
+        assertThat(serde.deserializer().deserialize(TOPIC, json.getBytes(StandardCharsets.UTF_8))).isNull();
+    }
+}
@@ -0,0 +1,207 @@
+package com.ekasikci.courierdatasimulator.kafka.serde;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for the MappedPackage wire formats and LocalSchemaRegistry
+ * Every format must read back what it wrote, nulls included
+ */
+@DisplayName("Wire Format Unit Tests")
+class WireFormatTest {
+
+    private static final String TOPIC = "cdc-mapped-packages";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final LocalSchemaRegistry REGISTRY = new LocalSchemaRegistry("classpath:schemas");
+
+    private static MappedPackageSerde serde(WireFormat format) {
+        return new MappedPackageSerde(OBJECT_MAPPER, format, REGISTRY);
+    }
+
+    private static MappedPackage completed() {
+        return MappedPackage.builder()
+                .id(100001L)
+                .createdAt("2025-11-13 10:47:52")
+                .lastUpdatedAt("2025-11-13 11:40:15.123456")
+                .collectionDuration(1)
+                .deliveryDuration(50)
+                .eta(277)
+                .leadTime(52)
+                .orderInTime(true)
+                .build();
+    }
+
+    private static MappedPackage random(Random random) {
+        return MappedPackage.builder()
+                .id(random.nextBoolean() ? random.nextLong() : null)
+                .createdAt(random.nextBoolean() ? "2025-11-13 10:47:52" : null)
+                .lastUpdatedAt(String.format("19%02d-%02d-28 %02d:%02d:%02d.%06d", random.nextInt(100),
+                        random.nextInt(12) + 1, random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                        random.nextInt(1_000_000)))
+                .collectionDuration(random.nextBoolean() ? random.nextInt() : null)
+                .deliveryDuration(random.nextBoolean() ? -random.nextInt(100) : null)
+                .eta(random.nextBoolean() ? random.nextInt(1000) : null)
+                .leadTime(random.nextBoolean() ? 0 : null)
+                .orderInTime(random.nextBoolean() ? random.nextBoolean() : null)
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Round Trip Tests")
+    class RoundTripTests {
+
+        @ParameterizedTest
+        @EnumSource(WireFormat.class)
+        @DisplayName("Should read back every field")
+        void shouldRoundTrip(WireFormat format) {
+            // Given
+            MappedPackageSerde wire = serde(format);
+            Random random = new Random(24);
+
+            for (int i = 0; i < 1_000; i++) {
+                MappedPackage mapped = i == 0 ? completed() : random(random);
+
+                // When
+                byte[] bytes = wire.wire().serializer().serialize(TOPIC, mapped);
+
+                // Then
+                assertThat(wire.wire().deserializer().deserialize(TOPIC, bytes)).isEqualTo(mapped);
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(WireFormat.class)
+        @DisplayName("Should keep tombstones null")
+        void shouldKeepTombstones(WireFormat format) {
+            MappedPackageSerde wire = serde(format);
+
+            assertThat(wire.wire().serializer().serialize(TOPIC, null)).isNull();
+            assertThat(wire.wire().deserializer().deserialize(TOPIC, null)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should keep JSON for the internal serde whatever the wire format")
+        void shouldKeepInternalJson() throws Exception {
+            // Given
+            MappedPackageSerde wire = serde(WireFormat.COMPACT);
+
+            // When
+            byte[] bytes = wire.serializer().serialize(TOPIC, completed());
+
+            // Then
+            assertThat(bytes).isEqualTo(OBJECT_MAPPER.writeValueAsBytes(completed()));
+        }
+
+        @Test
+        @DisplayName("Should shrink a completed package 3 to 5 times")
+        void shouldShrinkPayload() {
+            // Given
+            int json = serde(WireFormat.JSON).wire().serializer().serialize(TOPIC, completed()).length;
+
+            // When
+            int avro = serde(WireFormat.AVRO).wire().serializer().serialize(TOPIC, completed()).length;
+            int compact = serde(WireFormat.COMPACT).wire().serializer().serialize(TOPIC, completed()).length;
+
+            // Then
+            assertThat(compact).isEqualTo(CompactMappedPackageSerde.SIZE);
+            assertThat((double) json / avro).isBetween(3.0, 6.0);
+            assertThat((double) json / compact).isBetween(3.0, 5.0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Compact Format Tests")
+    class CompactFormatTests {
+
+        private final CompactMappedPackageSerde compact = new CompactMappedPackageSerde();
+
+        @Test
+        @DisplayName("Should lead with the version byte")
+        void shouldWriteVersion() {
+            byte[] bytes = compact.serializer().serialize(TOPIC, completed());
+
+            assertThat(bytes[0]).isEqualTo(CompactMappedPackageSerde.VERSION);
+        }
+
+        @Test
+        @DisplayName("Should not read another version or length")
+        void shouldRejectUnknownVersion() {
+            // Given
+            byte[] bytes = compact.serializer().serialize(TOPIC, completed());
+            bytes[0] = 2;
+
+            // Then
+            assertThat(compact.deserializer().deserialize(TOPIC, bytes)).isNull();
+            assertThat(compact.deserializer().deserialize(TOPIC, new byte[0])).isNull();
+        }
+
+        @Test
+        @DisplayName("Should not write timestamps it cannot read back")
+        void shouldRejectUnparseableTimestamp() {
+            MappedPackage mapped = MappedPackage.builder().id(1L).createdAt("yesterday").build();
+
+            assertThatThrownBy(() -> compact.serializer().serialize(TOPIC, mapped))
+                    .hasMessageContaining("yesterday");
+        }
+    }
+
+    @Nested
+    @DisplayName("Avro Format Tests")
+    class AvroFormatTests {
+
+        private final AvroMappedPackageSerde avro = new AvroMappedPackageSerde(REGISTRY);
+
+        @Test
+        @DisplayName("Should write the framed Avro binary encoding")
+        void shouldWriteAvroEncoding() {
+            // When
+            byte[] bytes = avro.serializer().serialize(TOPIC, MappedPackage.builder().id(-3L).eta(64).build());
+
+            // Then - magic, schema id, then union index 1 and zig-zag value, or union index 0 for null
+            assertThat(bytes).containsExactly(
+                    0, 0, 0, 0, 1,
+                    2, 5,
+                    0, 0, 0, 0,
+                    2, (byte) 0x80, 1,
+                    0, 0);
+        }
+
+        @Test
+        @DisplayName("Should not read records of another schema id")
+        void shouldRejectUnknownSchema() {
+            // Given
+            byte[] bytes = avro.serializer().serialize(TOPIC, completed());
+            bytes[4] = 9;
+
+            // Then
+            assertThat(avro.deserializer().deserialize(TOPIC, bytes)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should assign schema ids from the schema files")
+        void shouldAssignIdsFromFiles() {
+            // When
+            int id = REGISTRY.id(AvroMappedPackageSerde.SUBJECT, 1);
+
+            // Then
+            assertThat(id).isEqualTo(1);
+            assertThat(REGISTRY.byId(id).getDefinition()).contains("local-timestamp-micros");
+            assertThat(REGISTRY.byId(2)).isNull();
+            assertThatThrownBy(() -> REGISTRY.id(AvroMappedPackageSerde.SUBJECT, 2))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.ekasikci.courierdatasimulator.kafka.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ekasikci.courierdatasimulator.kafka.config.ProducerBackpressureConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the bulk send and the in-flight limit of KafkaProducerService
+ * The template is mocked, so each test decides when and how the broker acks
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("KafkaProducerService Unit Tests")
+class KafkaProducerServiceTest {
+
+    private static final String TOPIC = "mapped-packages";
+
+    @Mock
+    private KafkaTemplate<Long, MappedPackage> kafkaTemplate;
+
+    private KafkaProducerService kafkaProducerService;
+
+    @BeforeEach
+    void setUp() {
+        kafkaProducerService = service(new ProducerInFlightLimiter());
+    }
+
+    private KafkaProducerService service(ProducerInFlightLimiter limiter) {
+        return service(limiter, new PackagePartitioner("BY_ID", 100));
+    }
+
+    private KafkaProducerService service(ProducerInFlightLimiter limiter, PackagePartitioner partitioner) {
+        KafkaProducerService service = new KafkaProducerService(kafkaTemplate, limiter, partitioner);
+        ReflectionTestUtils.setField(service, "packageTopic", TOPIC);
+        return service;
+    }
+
+    private static ProducerInFlightLimiter limiter(int maxRecords, int maxBytes, String onLimit) {
+        ProducerBackpressureConfig config = new ProducerBackpressureConfig();
+        config.setMaxInFlightRecords(maxRecords);
+        config.setMaxInFlightBytes(maxBytes);
+        config.setOnLimit(onLimit);
+        config.setPermitTimeout(Duration.ofMillis(50));
+        return new ProducerInFlightLimiter(config);
+    }
+
+    private static MappedPackage mapped(long id) {
+        return MappedPackage.builder().id(id).build();
+    }
+
+    private static CompletableFuture<SendResult<Long, MappedPackage>> acked(long id, int partition,
+            long offset) {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(TOPIC, partition), offset, 0, 0L, 8, 392);
+        return CompletableFuture.completedFuture(
+                new SendResult<>(new ProducerRecord<>(TOPIC, id, mapped(id)), metadata));
+    }
+
+    private void ack(long id, CompletableFuture<SendResult<Long, MappedPackage>> future) {
+        when(kafkaTemplate.send(eq(TOPIC), any(), eq(id), any())).thenReturn(future);
+    }
+
+    @Nested
+    @DisplayName("Bulk Send Tests")
+    class BulkSendTests {
+
+        @Test
+        @DisplayName("Should complete with acked counts and the highest offset per partition")
+        void shouldAggregateAcks() {
+            // Given
+            ack(1, acked(1, 0, 10));
+            ack(2, acked(2, 1, 4));
+            ack(3, acked(3, 0, 11));
+
+            // When
+            BatchSendResult result = kafkaProducerService.sendPackages(List.of(mapped(1), mapped(2), mapped(3)))
+                    .join();
+
+            // Then
+            assertThat(result.getAcked()).isEqualTo(3);
+            assertThat(result.isSuccessful()).isTrue();
+            assertThat(result.getPartitionOffsets()).isEqualTo(Map.of(0, 11L, 1, 4L));
+            assertThat(result.getFailedIds()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should count failed acks and failed sends with their ids")
+        void shouldCountFailures() {
+            // Given - one rejected by the broker, one failing before it was handed to the client
+            ack(1, acked(1, 0, 10));
+            ack(2, CompletableFuture.failedFuture(new KafkaException("not leader")));
+            when(kafkaTemplate.send(eq(TOPIC), any(), eq(3L), any())).thenThrow(new KafkaException("buffer full"));
+
+            // When
+            BatchSendResult result = kafkaProducerService.sendPackages(List.of(mapped(1), mapped(2), mapped(3)))
+                    .join();
+
+            // Then
+            assertThat(result.getAcked()).isEqualTo(1);
+            assertThat(result.getFailed()).isEqualTo(2);
+            assertThat(result.getTotal()).isEqualTo(3);
+            assertThat(result.getFailedIds()).containsExactlyInAnyOrder(2L, 3L);
+        }
+
+        @Test
+        @DisplayName("Should only complete once the last ack arrives")
+        void shouldWaitForLastAck() {
+            // Given
+            CompletableFuture<SendResult<Long, MappedPackage>> pending = new CompletableFuture<>();
+            ack(1, acked(1, 0, 10));
+            ack(2, pending);
+
+            // When
+            CompletableFuture<BatchSendResult> batch = kafkaProducerService.sendPackages(
+                    List.of(mapped(1), mapped(2)));
+
+            // Then
+            assertThat(batch).isNotDone();
+            assertThat(kafkaProducerService.awaitAcks(batch, Duration.ofMillis(10))).isNull();
+
+            pending.complete(acked(2, 2, 7).join());
+            assertThat(kafkaProducerService.awaitAcks(batch, Duration.ofSeconds(1)).getAcked()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should complete an empty batch right away")
+        void shouldCompleteEmptyBatch() {
+            // When
+            CompletableFuture<BatchSendResult> batch = kafkaProducerService.sendPackages(List.of());
+
+            // Then
+            assertThat(batch).isCompleted();
+            assertThat(batch.join().getTotal()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("In-Flight Limit Tests")
+    class InFlightLimitTests {
+
+        @Test
+        @DisplayName("Should shed sends beyond the record limit until an ack releases a permit")
+        void shouldShedUntilAcked() {
+            // Given
+            ProducerInFlightLimiter limiter = limiter(1, 0, "SHED");
+            KafkaProducerService service = service(limiter);
+            CompletableFuture<SendResult<Long, MappedPackage>> pending = new CompletableFuture<>();
+            ack(1, pending);
+            ack(3, acked(3, 0, 11));
+
+            // When
+            service.sendPackage(mapped(1));
+
+            // Then
+            assertThat(limiter.inFlightRecords()).isEqualTo(1);
+            assertThatThrownBy(() -> service.sendPackage(mapped(2)))
+                    .isInstanceOf(KafkaProducerService.InFlightLimitException.class)
+                    .hasMessageContaining("SHED");
+            verify(kafkaTemplate, never()).send(eq(TOPIC), any(), eq(2L), any());
+
+            pending.complete(acked(1, 0, 10).join());
+            service.sendPackage(mapped(3));
+            assertThat(limiter.inFlightRecords()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should fail the rest of a batch once the limit times out")
+        void shouldFailRestOfBatch() {
+            // Given
+            MeterRegistry registry = new SimpleMeterRegistry();
+            ProducerInFlightLimiter limiter = limiter(2, 0, "TIMEOUT");
+            limiter.bindTo(registry);
+            KafkaProducerService service = service(limiter);
+            ack(1, new CompletableFuture<>());
+            ack(2, new CompletableFuture<>());
+
+            // When
+            BatchSendResult result = service.awaitAcks(
+                    service.sendPackages(List.of(mapped(1), mapped(2), mapped(3), mapped(4))), Duration.ZERO);
+            CompletableFuture<BatchSendResult> batch = service.sendPackages(List.of(mapped(5), mapped(6)));
+
+            // Then - 3 waited for the timeout, 4 failed without waiting
+            assertThat(result).isNull();
+            assertThat(batch.join().getFailedIds()).containsExactly(5L, 6L);
+            assertThat(registry.get("kafka.producer.permit.wait").tag("outcome", "rejected").timer().count())
+                    .isEqualTo(2);
+            assertThat(registry.get("kafka.producer.permit.wait").tag("outcome", "acquired").timer().count())
+                    .isEqualTo(2);
+            assertThat(registry.get("kafka.producer.in.flight.records").gauge().value()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should reserve bytes by the average size of acked records")
+        void shouldReserveEstimatedBytes() {
+            // Given - acked records are 400 bytes, the estimate starts above that
+            ProducerInFlightLimiter limiter = limiter(0, 1000, "SHED");
+            KafkaProducerService service = service(limiter);
+            for (long id = 1; id <= 40; id++) {
+                ack(id, acked(id, 0, id));
+            }
+
+            // When
+            service.sendPackages(LongStream.rangeClosed(1, 40).mapToObj(
+                    KafkaProducerServiceTest::mapped).toList()).join();
+            int first = limiter.acquire();
+            int second = limiter.acquire();
+
+            // Then
+            assertThat(first).isBetween(400, 450);
+            assertThat(second).isBetween(400, 450);
+            assertThat(limiter.acquire()).isEqualTo(ProducerInFlightLimiter.REJECTED);
+            assertThat(limiter.inFlightBytes()).isEqualTo(first + second);
+        }
+    }
+
+    @Nested
+    @DisplayName("Partitioning Tests")
+    class PartitioningTests {
+
+        private void topicPartitions(int count) {
+            when(kafkaTemplate.partitionsFor(TOPIC)).thenReturn(IntStream.range(0, count)
+                    .mapToObj(partition -> new PartitionInfo(TOPIC, partition, null, null, null))
+                    .toList());
+        }
+
+        @Test
+        @DisplayName("Should key by store id with BY_STORE, by package id without a store")
+        void shouldKeyByStore() {
+            // Given
+            KafkaProducerService service = service(new ProducerInFlightLimiter(),
+                    new PackagePartitioner("BY_STORE", 100));
+            when(kafkaTemplate.send(eq(TOPIC), any(), any(), any())).thenReturn(acked(1, 0, 1));
+
+            // When
+            service.sendPackages(List.of(MappedPackage.builder().id(1L).storeId(42L).build(), mapped(2))).join();
+
+            // Then - the producer hashes the key
+            verify(kafkaTemplate).send(eq(TOPIC), isNull(), eq(42L), any());
+            verify(kafkaTemplate).send(eq(TOPIC), isNull(), eq(2L), any());
+        }
+
+        @Test
+        @DisplayName("Should cycle through the partitions with ROUND_ROBIN")
+        void shouldRoundRobin() {
+            // Given
+            topicPartitions(3);
+            KafkaProducerService service = service(new ProducerInFlightLimiter(),
+                    new PackagePartitioner("ROUND_ROBIN", 100));
+            when(kafkaTemplate.send(eq(TOPIC), any(), any(), any())).thenReturn(acked(1, 0, 1));
+
+            // When
+            service.sendPackages(LongStream.rangeClosed(1, 4).mapToObj(KafkaProducerServiceTest::mapped).toList())
+                    .join();
+
+            // Then
+            verify(kafkaTemplate).send(eq(TOPIC), eq(0), eq(1L), any());
+            verify(kafkaTemplate).send(eq(TOPIC), eq(1), eq(2L), any());
+            verify(kafkaTemplate).send(eq(TOPIC), eq(2), eq(3L), any());
+            verify(kafkaTemplate).send(eq(TOPIC), eq(0), eq(4L), any());
+        }
+
+        @Test
+        @DisplayName("Should stay on one partition per run of sticky records")
+        void shouldStick() {
+            // Given
+            PackagePartitioner partitioner = new PackagePartitioner("STICKY", 2);
+
+            // When
+            List<Integer> partitions = IntStream.range(0, 7).mapToObj(i -> partitioner.partition(3)).toList();
+
+            // Then
+            assertThat(partitions).containsExactly(0, 0, 1, 1, 2, 2, 0);
+            assertThat(new PackagePartitioner("BY_ID", 2).partition(3)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should measure the skew of the acked records per window")
+        void shouldMeasureSkew() {
+            // Given
+            MeterRegistry registry = new SimpleMeterRegistry();
+            PackagePartitioner partitioner = new PackagePartitioner("BY_STORE", 100);
+            partitioner.bindTo(registry);
+            partitioner.partitions(4);
+
+            // When - a balanced window, then one where a big store's partition takes half
+            for (int i = 0; i < PackagePartitioner.SKEW_WINDOW; i++) {
+                partitioner.acked(i % 4);
+            }
+            double balanced = partitioner.skew();
+            for (int i = 0; i < PackagePartitioner.SKEW_WINDOW; i++) {
+                partitioner.acked(i % 2 == 0 ? 3 : i % 3);
+            }
+
+            // Then
+            assertThat(balanced).isEqualTo(1.0);
+            assertThat(registry.get("kafka.producer.partition.skew").gauge().value()).isEqualTo(2.0);
+            assertThat(registry.get("kafka.producer.partition.records").tag("partition", "3").functionCounter()
+                    .count()).isEqualTo(PackagePartitioner.SKEW_WINDOW / 4 + PackagePartitioner.SKEW_WINDOW / 2);
+        }
+    }
+}
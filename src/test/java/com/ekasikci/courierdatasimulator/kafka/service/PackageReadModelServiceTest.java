@@ -0,0 +1,160 @@
+package com.ekasikci.courierdatasimulator.kafka.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.serde.MappedPackageSerde;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageReadModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for PackageReadModelService
+ * Every case it cannot answer must come back empty so callers use the database
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PackageReadModelService Unit Tests")
+class PackageReadModelServiceTest {
+
+    @Mock
+    private ObjectProvider<StreamsBuilderFactoryBean> streamsBuilder;
+
+    @Mock
+    private StreamsBuilderFactoryBean factoryBean;
+
+    @Mock
+    private KafkaStreams kafkaStreams;
+
+    @Mock
+    private ReadOnlyKeyValueStore<String, MappedPackage> store;
+
+    private final StreamProcessingConfig config = new StreamProcessingConfig();
+
+    private PackageReadModelService service;
+
+    private final MappedPackage mapped = MappedPackage.builder().id(1L).eta(60).build();
+
+    @BeforeEach
+    void setUp() {
+        config.setReadModel(true);
+        service = new PackageReadModelService(streamsBuilder, new MappedPackageSerde(new ObjectMapper()), config);
+    }
+
+    private void running() {
+        when(streamsBuilder.getIfAvailable()).thenReturn(factoryBean);
+        when(factoryBean.getKafkaStreams()).thenReturn(kafkaStreams);
+        when(kafkaStreams.state()).thenReturn(KafkaStreams.State.RUNNING);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void ownedBy(String host, int port) {
+        when(kafkaStreams.queryMetadataForKey(eq(PackageReadModel.STORE_NAME), eq(PackageReadModel.recordKey(1)),
+                any(Serializer.class))).thenReturn(new KeyQueryMetadata(new HostInfo(host, port), Set.of(), 3));
+    }
+
+    @Nested
+    @DisplayName("Local Lookup Tests")
+    class LocalLookupTests {
+
+        @Test
+        @DisplayName("Should read the local store on a single instance")
+        void shouldReadLocalStore() {
+            // Given
+            running();
+            when(kafkaStreams.store(any(StoreQueryParameters.class))).thenReturn(store);
+            when(store.get(PackageReadModel.recordKey(1))).thenReturn(mapped);
+
+            // When
+            Optional<MappedPackage> result = service.findById(1L);
+
+            // Then
+            assertThat(result).contains(mapped);
+            verify(kafkaStreams, never()).queryMetadataForKey(any(), any(), any(Serializer.class));
+        }
+
+        @Test
+        @DisplayName("Should read the owning partition when this instance hosts it")
+        void shouldReadOwnedPartition() {
+            // Given
+            config.setApplicationServer("localhost:8091");
+            running();
+            ownedBy("localhost", 8091);
+            when(kafkaStreams.store(any(StoreQueryParameters.class))).thenReturn(store);
+            when(store.get(PackageReadModel.recordKey(1))).thenReturn(mapped);
+
+            // When
+            Optional<MappedPackage> result = service.findById(1L);
+
+            // Then
+            assertThat(result).contains(mapped);
+        }
+    }
+
+    @Nested
+    @DisplayName("Fallback Tests")
+    class FallbackTests {
+
+        @Test
+        @DisplayName("Should return empty when the stream processor is not running")
+        void shouldReturnEmptyWithoutStreams() {
+            assertThat(service.findById(1L)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should return empty when the read model is disabled")
+        void shouldReturnEmptyWhenDisabled() {
+            config.setReadModel(false);
+
+            assertThat(service.findById(1L)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should return empty while the store is not queryable")
+        void shouldReturnEmptyWhileRestoring() {
+            // Given
+            running();
+            when(kafkaStreams.store(any(StoreQueryParameters.class)))
+                    .thenThrow(new InvalidStateStoreException("restoring"));
+
+            // When / Then
+            assertThat(service.findById(1L)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should return empty when the owning instance cannot be reached")
+        void shouldReturnEmptyWhenOwnerUnreachable() {
+            // Given - nothing listens on port 1
+            config.setApplicationServer("localhost:8091");
+            running();
+            ownedBy("localhost", 1);
+
+            // When / Then
+            assertThat(service.findById(1L)).isEmpty();
+        }
+    }
+}
@@ -5,9 +5,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -242,6 +244,69 @@ class PackageServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Batch Mapping Tests")
+    class BatchMappingTests {
+
+        @Test
+        @DisplayName("Should skip cancelled packages and keep batch order")
+        void shouldSkipCancelledPackages() {
+            // Given
+            List<Package> packages = Arrays.asList(inProgressPackage, cancelledPackage, completedPackage);
+
+            // When
+            List<MappedPackage> result = packageService.mapNonCancelledPackages(packages);
+
+            // Then
+            assertThat(result).extracting(MappedPackage::getId).containsExactly(3L, 1L);
+            assertThat(result.get(1).getLeadTime()).isEqualTo(52);
+            assertThat(result.get(1).getOrderInTime()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should match single-package mapping on randomized packages")
+        void shouldMatchSingleMappingOnRandomizedPackages() {
+            // Given
+            Random random = new Random(17);
+            List<Package> packages = new ArrayList<>();
+            List<MappedPackage> expected = new ArrayList<>();
+
+            for (long id = 1; id <= 2_000; id++) {
+                Package pkg = randomPackage(random, id);
+                packages.add(pkg);
+                when(packageRepository.findById(id)).thenReturn(Optional.of(pkg));
+                packageService.getPackageById(id).ifPresent(expected::add);
+            }
+
+            // When
+            List<MappedPackage> result = packageService.mapNonCancelledPackages(packages);
+
+            // Then
+            assertThat(result).containsExactlyElementsOf(expected);
+        }
+
+        private Package randomPackage(Random random, long id) {
+            LocalDateTime created = LocalDateTime.of(2025, 11, 13, 10, 0, 0)
+                    .plusSeconds(random.nextInt(86_400))
+                    .plusNanos(random.nextInt(4) == 0 ? 0 : random.nextInt(1_000_000_000));
+
+            // Offsets straddle whole minutes and go negative so truncation toward zero is covered
+            LocalDateTime pickedUp = random.nextInt(5) == 0 ? null
+                    : created.plusNanos(random.nextLong(-600_000_000_000L, 3_600_000_000_000L));
+            LocalDateTime completed = random.nextInt(4) == 0 ? null
+                    : created.plusNanos(random.nextLong(-120_000_000_000L, 7_200_000_000_000L));
+
+            return createPackage(
+                    id,
+                    random.nextInt(20) == 0 ? null : created,
+                    pickedUp,
+                    completed,
+                    random.nextInt(3) == 0 ? "IN_DELIVERY" : "COMPLETED",
+                    random.nextInt(5) == 0 ? 1 : 0,
+                    random.nextInt(10) == 0 ? null : random.nextInt(0, 150));
+        }
+    }
+
     @Nested
     @DisplayName("Business Logic - Duration Calculations")
     class DurationCalculationTests {
@@ -540,6 +605,8 @@ class PackageServiceTest {
             Integer eta) {
         Package pkg = new Package();
         pkg.setId(id);
+        pkg.setStoreId(20000000000000L + id % 50);
+        pkg.setType(id % 2 == 0 ? "EXPRESS" : "REGULAR");
         pkg.setCreatedAt(createdAt);
         pkg.setPickedUpAt(pickedUpAt);
         pkg.setCompletedAt(completedAt);
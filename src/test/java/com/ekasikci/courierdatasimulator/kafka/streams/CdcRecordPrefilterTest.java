@@ -0,0 +1,203 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.streams.CdcRecordPrefilter.Outcome;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for CdcRecordPrefilter
+ * A record may only be dropped when full binding would filter it as well
+ */
+@DisplayName("CdcRecordPrefilter Unit Tests")
+class CdcRecordPrefilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Outcome classify(String json) {
+        return CdcRecordPrefilter.classify(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * What the BINDING topology keeps: parsed, not cancelled, not deleted.
+     * Binds with the mapper directly, the serde would log every rejected payload.
+     */
+    private boolean keptByFullParse(String json) {
+        try {
+            PackageCDC cdc = objectMapper.readValue(json, PackageCDC.class);
+            return cdc != null && !cdc.isCancelled() && !cdc.isDeleted();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Nested
+    @DisplayName("Short-Circuit Tests")
+    class ShortCircuitTests {
+
+        @Test
+        @DisplayName("Should drop cancelled packages without parsing")
+        void shouldDropCancelled() {
+            // Given
+            String json = "{\"id\":7,\"cancel_reason\":\"Customer, \\\"cancelled\\\":0\",\"cancelled\":1,"
+                    + "\"created_at\":1763030872000000,\"__deleted\":\"false\"}";
+
+            // When / Then
+            assertThat(classify(json)).isEqualTo(Outcome.CANCELLED);
+            assertThat(keptByFullParse(json)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should drop rewritten deletes without parsing")
+        void shouldDropDeleted() {
+            // Given
+            String json = "{ \"id\" : 7 , \"cancelled\" : 0 , \"nested\" : {\"a\":[1,{\"b\":\"}\"}]},"
+                    + " \"__deleted\" : \"true\" }";
+
+            // When / Then
+            assertThat(classify(json)).isEqualTo(Outcome.DELETED);
+            assertThat(keptByFullParse(json)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should treat null and empty values as tombstones")
+        void shouldDropTombstones() {
+            assertThat(CdcRecordPrefilter.classify(null)).isEqualTo(Outcome.TOMBSTONE);
+            assertThat(CdcRecordPrefilter.classify(new byte[0])).isEqualTo(Outcome.TOMBSTONE);
+        }
+
+        @Test
+        @DisplayName("Should use the last top-level value like Jackson")
+        void shouldUseLastDuplicate() {
+            assertThat(classify("{\"cancelled\":0,\"cancelled\":1}")).isEqualTo(Outcome.CANCELLED);
+            assertThat(classify("{\"cancelled\":1,\"cancelled\":0}")).isEqualTo(Outcome.PARSE);
+            assertThat(keptByFullParse("{\"cancelled\":1,\"cancelled\":0}")).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Fallback Tests")
+    class FallbackTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "{\"id\":7,\"cancelled\":0,\"__deleted\":\"false\"}",
+                "{\"cancelled\":\"1\"}", "{\"cancelled\":1.0}", "{\"cancelled\":true}", "{\"cancelled\":10}",
+                "{\"cancelled\":null}", "{\"__deleted\":true}", "{\"__deleted\":\"TRUE\"}",
+                "{\"cancell\\u0065d\":1}", "{\"\\u005f_deleted\":\"true\"}",
+                "{\"nested\":{\"cancelled\":1}}", "{\"reason\":\"\\\"cancelled\\\":1\"}",
+                "{\"cancelled\":1", "{\"cancelled\":1}}", "[{\"cancelled\":1}]", "{}", "not json", " " })
+        @DisplayName("Should send anything it cannot rule out to the full parse")
+        void shouldParseAmbiguousPayloads(String json) {
+            assertThat(classify(json)).isEqualTo(Outcome.PARSE);
+        }
+    }
+
+    @Nested
+    @DisplayName("Counter Tests")
+    class CounterTests {
+
+        @Test
+        @DisplayName("Should count every outcome and expose it as a meter")
+        void shouldCountOutcomes() {
+            // Given
+            CdcRecordPrefilter prefilter = new CdcRecordPrefilter();
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            prefilter.bindTo(registry);
+
+            // When
+            boolean tombstone = prefilter.shouldParse(null);
+            boolean cancelled = prefilter.shouldParse("{\"cancelled\":1}".getBytes(StandardCharsets.UTF_8));
+            boolean parsed = prefilter.shouldParse("{\"cancelled\":0}".getBytes(StandardCharsets.UTF_8));
+            prefilter.shouldParse("{\"__deleted\":\"true\"}".getBytes(StandardCharsets.UTF_8));
+
+            // Then
+            assertThat(tombstone).isFalse();
+            assertThat(cancelled).isFalse();
+            assertThat(parsed).isTrue();
+            for (Outcome outcome : Outcome.values()) {
+                assertThat(prefilter.count(outcome)).isEqualTo(1);
+                assertThat(registry.get("cdc.prefilter.records")
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .functionCounter()
+                        .count()).isEqualTo(1.0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should never drop a record the full parse would keep on randomized payloads")
+    void shouldNeverDropKeptRecords() {
+        Random random = new Random(23);
+        int shortCircuited = 0;
+
+        for (int i = 0; i < 20_000; i++) {
+            String json = randomPayload(random);
+
+            if (classify(json) != Outcome.PARSE) {
+                shortCircuited++;
+                assertThat(keptByFullParse(json)).as("full parse of %s", json).isFalse();
+            }
+        }
+
+        assertThat(shortCircuited).isGreaterThan(1_000);
+    }
+
+    private static final String[] CANCELLED_VALUES = {
+            "1", "1", "1", "0", "0", "null", "\"1\"", "1.0", "true", "-1", "01", " 1 " };
+
+    private static final String[] DELETED_VALUES = {
+            "\"true\"", "\"false\"", "\"false\"", "null", "true", "\"TRUE\"", "\"true \"" };
+
+    private static final String[] CANCELLED_KEYS = { "cancelled", "cancelled", "cancelled", "cancell\\u0065d" };
+
+    private static String randomPayload(Random random) {
+        List<String> members = new ArrayList<>();
+        members.add("\"id\":" + random.nextInt(1_000_000));
+        members.add("\"status\":\"COMPLETED\"");
+        members.add("\"created_at\":1763030872000000");
+
+        int cancelledCount = random.nextInt(3);
+        for (int i = 0; i < cancelledCount; i++) {
+            members.add("\"" + CANCELLED_KEYS[random.nextInt(CANCELLED_KEYS.length)] + "\":"
+                    + CANCELLED_VALUES[random.nextInt(CANCELLED_VALUES.length)]);
+        }
+        if (random.nextBoolean()) {
+            members.add("\"__deleted\":" + DELETED_VALUES[random.nextInt(DELETED_VALUES.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+            members.add("\"cancel_reason\":\"x\\\",\\\"cancelled\\\":1,\\\"__deleted\\\":\\\"true\"");
+        }
+        if (random.nextInt(4) == 0) {
+            members.add("\"meta\":{\"cancelled\":1,\"__deleted\":\"true\",\"list\":[\"]\",{}]}");
+        }
+        if (random.nextInt(10) == 0) {
+            members.add("\"id\":\"not-a-number\"");
+        }
+        Collections.shuffle(members, random);
+
+        String separator = random.nextBoolean() ? "," : " ,\n ";
+        String json = "{" + String.join(separator, members) + "}";
+
+        if (random.nextInt(20) == 0) {
+            json = json.substring(0, random.nextInt(json.length()));
+        }
+        return json;
+    }
+}
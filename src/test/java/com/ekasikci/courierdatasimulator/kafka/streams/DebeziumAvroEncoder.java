@@ -0,0 +1,86 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.ekasikci.courierdatasimulator.kafka.serde.AvroBinary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes rows the way the Avro converter of the connector does: the framing
+ * header, then each field of a flat record schema in order. Unions take the
+ * null branch for null values and the first other branch otherwise. Test
+ * and benchmark input only.
+ */
+public final class DebeziumAvroEncoder {
+
+    private final JsonNode fields;
+
+    private final int schemaId;
+
+    public DebeziumAvroEncoder(ObjectMapper objectMapper, String schema, int schemaId) {
+        try {
+            this.fields = objectMapper.readTree(schema).path("fields");
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+        this.schemaId = schemaId;
+    }
+
+    public byte[] encode(Map<String, Object> row) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] header = new byte[AvroBinary.HEADER];
+        AvroBinary.writeHeader(header, schemaId);
+        out.writeBytes(header);
+
+        for (JsonNode field : fields) {
+            Object value = row.get(field.path("name").asText());
+            JsonNode type = field.path("type");
+            if (type.isArray()) {
+                int index = branch(type, value);
+                writeLong(out, index);
+                type = type.get(index);
+            }
+            write(out, typeName(type), value);
+        }
+        return out.toByteArray();
+    }
+
+    private static int branch(JsonNode union, Object value) {
+        for (int i = 0; i < union.size(); i++) {
+            if ("null".equals(typeName(union.get(i))) == (value == null))
+                return i;
+        }
+        throw new IllegalArgumentException("No branch of " + union + " for " + value);
+    }
+
+    private static String typeName(JsonNode type) {
+        return type.isTextual() ? type.asText() : type.path("type").asText();
+    }
+
+    private static void write(ByteArrayOutputStream out, String type, Object value) {
+        switch (type) {
+            case "null" -> {
+            }
+            case "boolean" -> out.write(Boolean.TRUE.equals(value) ? 1 : 0);
+            case "int", "long" -> writeLong(out, ((Number) value).longValue());
+            case "double" -> out.writeBytes(ByteBuffer.allocate(8)
+                    .putLong(Long.reverseBytes(Double.doubleToLongBits(((Number) value).doubleValue()))).array());
+            case "string" -> {
+                byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                writeLong(out, bytes.length);
+                out.writeBytes(bytes);
+            }
+            default -> throw new IllegalArgumentException("Unsupported type " + type);
+        }
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        byte[] buffer = new byte[10];
+        out.write(buffer, 0, AvroBinary.writeLong(buffer, 0, value));
+    }
+}
@@ -0,0 +1,205 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageDurationSketches.Measure;
+
+/**
+ * Unit tests for DurationSketch, PackageDurationSketches and PackageDurationsEndpoint
+ * Every quantile must stay within the relative accuracy of the exact one
+ */
+@DisplayName("DurationSketch Unit Tests")
+class DurationSketchTest {
+
+    private static int[] randomDurations(Random random, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            // Long-tailed, like lead times: mostly under an hour, some take days
+            values[i] = (int) Math.round(Math.exp(random.nextGaussian() * 1.2 + 3.5));
+        }
+        return values;
+    }
+
+    private static double exactQuantile(int[] sorted, double q) {
+        return sorted[(int) (q * (sorted.length - 1))];
+    }
+
+    @Nested
+    @DisplayName("Accuracy Tests")
+    class AccuracyTests {
+
+        @Test
+        @DisplayName("Should estimate quantiles within the relative accuracy")
+        void shouldEstimateWithinAccuracy() {
+            // Given
+            int[] values = randomDurations(new Random(18), 100_000);
+            DurationSketch sketch = new DurationSketch();
+
+            // When
+            Arrays.stream(values).forEach(sketch::add);
+
+            // Then
+            Arrays.sort(values);
+            for (double q : new double[] { 0.0, 0.5, 0.9, 0.95, 0.99, 0.999, 1.0 }) {
+                double exact = exactQuantile(values, q);
+                assertThat(sketch.quantile(q)).as("p%s", q * 100)
+                        .isCloseTo(exact, within(exact * DurationSketch.ACCURACY + 1e-9));
+            }
+            assertThat(sketch.count()).isEqualTo(values.length);
+        }
+
+        @Test
+        @DisplayName("Should count zero and negative durations as zero")
+        void shouldCountZeroAndBelowAsZero() {
+            // Given
+            DurationSketch sketch = new DurationSketch();
+
+            // When
+            sketch.add(0);
+            sketch.add(-5);
+            sketch.add(40);
+
+            // Then
+            assertThat(sketch.zeroCount()).isEqualTo(2);
+            assertThat(sketch.quantile(0.5)).isZero();
+            assertThat(sketch.quantile(1.0)).isCloseTo(40, within(0.4));
+        }
+
+        @Test
+        @DisplayName("Should return no quantile while empty")
+        void shouldReturnNullWhenEmpty() {
+            assertThat(new DurationSketch().quantile(0.5)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should keep a fixed number of bins for any int duration")
+        void shouldKeepFixedBins() {
+            // Given
+            DurationSketch sketch = new DurationSketch();
+
+            // When
+            sketch.add(1);
+            sketch.add(Integer.MAX_VALUE);
+
+            // Then
+            assertThat(sketch.bins()).containsOnlyKeys(0, DurationSketch.BINS - 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Merge Tests")
+    class MergeTests {
+
+        @Test
+        @DisplayName("Should merge into the sketch of all values")
+        void shouldMergeIntoCombinedSketch() {
+            // Given - two instances, each seeing half of the packages
+            Random random = new Random(7);
+            DurationSketch first = new DurationSketch();
+            DurationSketch second = new DurationSketch();
+            DurationSketch combined = new DurationSketch();
+            for (int value : randomDurations(random, 10_000)) {
+                (random.nextBoolean() ? first : second).add(value);
+                combined.add(value);
+            }
+
+            // When
+            first.merge(second);
+
+            // Then
+            assertThat(first.bins()).isEqualTo(combined.bins());
+            assertThat(first.quantile(0.99)).isEqualTo(combined.quantile(0.99));
+        }
+
+        @Test
+        @DisplayName("Should rebuild a sketch from its exposed bins")
+        void shouldRebuildFromBins() {
+            // Given
+            DurationSketch sketch = new DurationSketch();
+            Arrays.stream(randomDurations(new Random(3), 1_000)).forEach(sketch::add);
+            sketch.add(0);
+
+            // When
+            DurationSketch rebuilt = DurationSketch.fromBins(sketch.zeroCount(), sketch.bins());
+
+            // Then
+            assertThat(rebuilt.bins()).isEqualTo(sketch.bins());
+            assertThat(rebuilt.zeroCount()).isEqualTo(1);
+            assertThat(rebuilt.quantile(0.5)).isEqualTo(sketch.quantile(0.5));
+        }
+    }
+
+    @Nested
+    @DisplayName("Package Sketch Tests")
+    class PackageSketchTests {
+
+        @Test
+        @DisplayName("Should add each duration overall and to its package type")
+        void shouldAddPerType() {
+            // Given
+            PackageDurationSketches sketches = new PackageDurationSketches();
+
+            // When
+            sketches.add(MappedPackage.builder().type("EXPRESS").leadTime(30).collectionDuration(5).build());
+            sketches.add(MappedPackage.builder().type("REGULAR").leadTime(90).deliveryDuration(60).build());
+            sketches.add(MappedPackage.builder().eta(60).build());
+
+            // Then
+            assertThat(sketches.overall(Measure.LEAD_TIME).count()).isEqualTo(2);
+            assertThat(sketches.overall(Measure.DELIVERY_DURATION).count()).isEqualTo(1);
+            assertThat(sketches.byType("EXPRESS", Measure.LEAD_TIME).quantile(0.5)).isCloseTo(30, within(0.3));
+            assertThat(sketches.byType("REGULAR", Measure.COLLECTION_DURATION).count()).isZero();
+            assertThat(sketches.types()).containsOnlyKeys("EXPRESS", "REGULAR", PackageDurationSketches.UNKNOWN);
+        }
+
+        @Test
+        @DisplayName("Should share one sketch between the types beyond the cap")
+        void shouldCapTypes() {
+            // Given
+            PackageDurationSketches sketches = new PackageDurationSketches();
+
+            // When
+            for (int i = 0; i < PackageDurationSketches.MAX_TYPES + 10; i++) {
+                sketches.add(MappedPackage.builder().type("TYPE_" + i).leadTime(i + 1).build());
+            }
+
+            // Then
+            assertThat(sketches.types()).hasSize(PackageDurationSketches.MAX_TYPES + 1);
+            assertThat(sketches.byType(PackageDurationSketches.OTHER, Measure.LEAD_TIME).count()).isEqualTo(10);
+            assertThat(sketches.overall(Measure.LEAD_TIME).count()).isEqualTo(PackageDurationSketches.MAX_TYPES + 10);
+        }
+
+        @Test
+        @DisplayName("Should expose quantiles and mergeable bins through the endpoint")
+        @SuppressWarnings("unchecked")
+        void shouldExposeQuantilesAndBins() {
+            // Given
+            PackageDurationSketches sketches = new PackageDurationSketches();
+            List.of(20, 40, 60).forEach(lead -> sketches.add(MappedPackage.builder().type("EXPRESS").leadTime(lead)
+                    .build()));
+
+            // When
+            Map<String, Object> durations = new PackageDurationsEndpoint(sketches).durations();
+
+            // Then
+            Map<String, Object> overall = (Map<String, Object>) durations.get("overall");
+            Map<String, Object> leadTime = (Map<String, Object>) overall.get("lead_time");
+            assertThat(leadTime).containsKeys("count", "p50", "p90", "p95", "p99", "zero_count", "bins");
+            assertThat(leadTime.get("count")).isEqualTo(3L);
+            assertThat((Double) leadTime.get("p50")).isCloseTo(40, within(0.4));
+            assertThat((Map<Integer, Long>) leadTime.get("bins")).hasSize(3);
+            assertThat((Map<String, Object>) durations.get("types")).containsOnlyKeys("EXPRESS");
+        }
+    }
+}
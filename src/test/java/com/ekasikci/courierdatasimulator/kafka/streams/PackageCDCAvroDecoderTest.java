@@ -0,0 +1,221 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.serde.LocalSchemaRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for PackageCDCAvroDecoder
+ * Every decoded payload must match the JSON decoder on the same row
+ */
+@DisplayName("PackageCDCAvroDecoder Unit Tests")
+class PackageCDCAvroDecoderTest {
+
+    private static final String CDC_TOPIC = "dbserver.package_db.packages";
+
+    private static final String SUBJECT = CDC_TOPIC + "-value";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LocalSchemaRegistry registry = new LocalSchemaRegistry("classpath:schemas/cdc");
+
+    private final PackageCDCAvroDecoder decoder = new PackageCDCAvroDecoder(objectMapper, registry, CDC_TOPIC);
+
+    private final DebeziumAvroEncoder encoder = new DebeziumAvroEncoder(objectMapper,
+            registry.latest(SUBJECT).getDefinition(), registry.id(SUBJECT, 1));
+
+    private final PackageCDCDecoder jsonDecoder = new PackageCDCDecoder(objectMapper);
+
+    private static Map<String, Object> completed() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 100001L);
+        row.put("cancel_reason", null);
+        row.put("cancelled", 0);
+        row.put("completed_at", 1763034015000000L);
+        row.put("created_at", 1763030872000000L);
+        row.put("customer_id", 20000000123456L);
+        row.put("last_updated_at", 1763034015000000L);
+        row.put("eta", 277);
+        row.put("status", "COMPLETED");
+        row.put("store_id", 20000000001234L);
+        row.put("type", "EXPRESS");
+        row.put("collected", 1);
+        row.put("collected_at", 1763030992000000L);
+        row.put("picked_up_at", 1763030990000000L);
+        row.put("order_id", 123456789L);
+        row.put("delivery_date", "2025-11-13");
+        row.put("__deleted", "false");
+        return row;
+    }
+
+    private static Map<String, Object> with(Map<String, Object> row, String column, Object value) {
+        row.put(column, value);
+        return row;
+    }
+
+    @Nested
+    @DisplayName("Debezium Payload Tests")
+    class DebeziumPayloadTests {
+
+        @Test
+        @DisplayName("Should decode the same fields as the JSON decoder")
+        void shouldMatchJsonDecoder() throws Exception {
+            // Given
+            List<Map<String, Object>> rows = List.of(
+                    completed(),
+                    with(completed(), "cancelled", 1),
+                    with(completed(), "__deleted", "true"),
+                    with(with(with(completed(), "eta", null), "store_id", null), "type", null),
+                    with(with(completed(), "completed_at", null), "cancelled", null));
+
+            for (Map<String, Object> row : rows) {
+                // When
+                ParsedPackageCDC parsed = decoder.decode(encoder.encode(row));
+
+                // Then
+                assertThat(parsed).as("%s", row).isNotNull()
+                        .isEqualTo(jsonDecoder.decode(objectMapper.writeValueAsBytes(row)));
+            }
+        }
+
+        @Test
+        @DisplayName("Should take about half the bytes of the JSON payload")
+        void shouldShrinkPayload() throws Exception {
+            // When
+            int avro = encoder.encode(completed()).length;
+            int json = objectMapper.writeValueAsBytes(completed()).length;
+
+            // Then
+            assertThat(avro * 2).isLessThan(json);
+        }
+
+        @Test
+        @DisplayName("Should return null for tombstones and payloads not matching their schema")
+        void shouldReturnNullForBrokenPayloads() {
+            byte[] bytes = encoder.encode(completed());
+
+            assertThat(decoder.decode(null)).isNull();
+            assertThat(decoder.decode(new byte[0])).isNull();
+            assertThat(decoder.decode("{\"id\":1}".getBytes())).isNull();
+            assertThat(decoder.decode(Arrays.copyOf(bytes, bytes.length - 3))).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Schema Version Tests")
+    class SchemaVersionTests {
+
+        @TempDir
+        Path schemas;
+
+        private static final String V2 = "{\"type\":\"record\",\"name\":\"Value\",\"fields\":["
+                + "{\"name\":\"weight\",\"type\":[\"null\",\"double\"],\"default\":null},"
+                + "{\"name\":\"created_at\","
+                + "\"type\":{\"type\":\"long\",\"connect.name\":\"io.debezium.time.Timestamp\"}},"
+                + "{\"name\":\"id\",\"type\":\"long\"},"
+                + "{\"name\":\"cancelled\",\"type\":[\"boolean\",\"null\"],\"default\":false},"
+                + "{\"name\":\"note\",\"type\":[\"null\",\"string\"],\"default\":null}]}";
+
+        private LocalSchemaRegistry twoVersions() throws Exception {
+            Files.writeString(schemas.resolve(SUBJECT + "-v1.avsc"), registry.latest(SUBJECT).getDefinition());
+            Files.writeString(schemas.resolve(SUBJECT + "-v2.avsc"), V2);
+            return new LocalSchemaRegistry("file:" + schemas);
+        }
+
+        @Test
+        @DisplayName("Should read each record with the schema of its id")
+        void shouldReadBySchemaId() throws Exception {
+            // Given
+            LocalSchemaRegistry versions = twoVersions();
+            PackageCDCAvroDecoder versioned = new PackageCDCAvroDecoder(objectMapper, versions, CDC_TOPIC);
+            Map<String, Object> row = Map.of("weight", 1.5, "created_at", 1763030872123L, "id", 7L,
+                    "cancelled", true, "note", "fragile");
+
+            // When
+            ParsedPackageCDC v1 = versioned.decode(encoder.encode(completed()));
+            ParsedPackageCDC v2 = versioned.decode(
+                    new DebeziumAvroEncoder(objectMapper, V2, versions.id(SUBJECT, 2)).encode(row));
+
+            // Then
+            assertThat(v1.getId()).isEqualTo(100001L);
+            assertThat(v2.getId()).isEqualTo(7L);
+            assertThat(v2.isCancelled()).isTrue();
+            assertThat(v2.getCreatedAt()).isEqualTo(1763030872123000L);
+            assertThat(v2.hasEta()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should read ids of the connector's registry with their mapped version")
+        void shouldReadMappedIds() throws Exception {
+            // Given
+            PackageCDCAvroDecoder versioned = new PackageCDCAvroDecoder(objectMapper, twoVersions(), CDC_TOPIC,
+                    Map.of(42, 2));
+            Map<String, Object> row = Map.of("created_at", 1763030872000L, "id", 8L, "cancelled", true);
+
+            // When
+            ParsedPackageCDC parsed = versioned.decode(new DebeziumAvroEncoder(objectMapper, V2, 42).encode(row));
+
+            // Then
+            assertThat(parsed.getId()).isEqualTo(8L);
+            assertThat(parsed.isCancelled()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should fail records with ids that are neither mapped nor local")
+        void shouldFailUnknownIds() throws Exception {
+            // Given
+            PackageCDCAvroDecoder versioned = new PackageCDCAvroDecoder(objectMapper, twoVersions(), CDC_TOPIC);
+            Map<String, Object> row = Map.of("created_at", 1763030872000L, "id", 8L, "cancelled", false);
+
+            // When
+            ParsedPackageCDC parsed = versioned.decode(new DebeziumAvroEncoder(objectMapper, V2, 42).encode(row));
+
+            // Then
+            assertThat(parsed).isNull();
+        }
+
+        @Test
+        @DisplayName("Should fail at startup when a mapped version is not registered")
+        void shouldRequireMappedVersions() {
+            // Given
+            StreamProcessingConfig config = new StreamProcessingConfig();
+            config.setInputFormat("AVRO");
+            config.setInputSchemaVersions(Map.of(42, 9));
+
+            // Then
+            assertThatThrownBy(() -> new PackageCDCAvroDecoder(objectMapper, config, CDC_TOPIC))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(SUBJECT + " v9");
+        }
+
+        @Test
+        @DisplayName("Should fail at startup when AVRO input has no schema")
+        void shouldRequireSchema() {
+            // Given
+            StreamProcessingConfig config = new StreamProcessingConfig();
+            config.setInputFormat("AVRO");
+            config.setInputSchemaLocation("file:" + schemas);
+
+            // Then
+            assertThatThrownBy(() -> new PackageCDCAvroDecoder(objectMapper, config, CDC_TOPIC))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(SUBJECT);
+        }
+    }
+}
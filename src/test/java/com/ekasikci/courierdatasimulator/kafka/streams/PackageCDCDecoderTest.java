@@ -0,0 +1,213 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.dto.ParsedPackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.serde.NumericPackageCDCSerde;
+import com.ekasikci.courierdatasimulator.kafka.transformer.PackageTransformer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for PackageCDCDecoder
+ * Every decoded payload must match full PackageCDC binding
+ */
+@DisplayName("PackageCDCDecoder Unit Tests")
+class PackageCDCDecoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final PackageCDCDecoder decoder = new PackageCDCDecoder(objectMapper);
+
+    private final PackageTransformer transformer = new PackageTransformer();
+
+    private ParsedPackageCDC bind(String json) throws Exception {
+        return transformer.preParse(objectMapper.readValue(json, PackageCDC.class));
+    }
+
+    @Nested
+    @DisplayName("Debezium Payload Tests")
+    class DebeziumPayloadTests {
+
+        @Test
+        @DisplayName("Should decode used fields from a full Debezium payload")
+        void shouldDecodeUsedFields() throws Exception {
+            // Given
+            String json = "{\"id\":100001,\"arrival_for_delivery_at\":null,\"arrival_for_pickup_at\":null,"
+                    + "\"cancel_reason\":null,\"cancelled\":0,\"completed_at\":1763034015000000,"
+                    + "\"created_at\":1763030872000000,\"customer_id\":20000000123456,\"in_delivery_at\":null,"
+                    + "\"last_updated_at\":1763034015000000,\"eta\":277,\"status\":\"COMPLETED\","
+                    + "\"store_id\":20000000001234,\"origin_address_id\":999000000012345,\"type\":\"EXPRESS\","
+                    + "\"waiting_for_assignment_at\":null,\"user_id\":50000000012345,\"collected\":1,"
+                    + "\"collected_at\":1763030992000000,\"cancelled_at\":null,\"picked_up_at\":1763030990000000,"
+                    + "\"reassigned\":null,\"order_id\":123456789,\"delivery_date\":\"2025-11-13\","
+                    + "\"__deleted\":\"false\"}";
+
+            // When
+            ParsedPackageCDC parsed = decoder.decode(json);
+
+            // Then
+            assertThat(parsed).isNotNull();
+            assertThat(parsed.getId()).isEqualTo(100001L);
+            assertThat(parsed.getEta()).isEqualTo(277);
+            assertThat(parsed.isCancelled()).isFalse();
+            assertThat(parsed.isDeleted()).isFalse();
+            assertThat(parsed.getCreatedAt()).isEqualTo(1763030872000000L);
+            assertThat(parsed.getPickedUpAt()).isEqualTo(1763030990000000L);
+            assertThat(parsed).isEqualTo(bind(json));
+        }
+
+        @Test
+        @DisplayName("Should decode cancelled flag and missing fields")
+        void shouldDecodeCancelledAndMissingFields() throws Exception {
+            // Given
+            String json = "{\"id\":7,\"cancelled\":1,\"nested\":{\"a\":[1,2,{\"b\":\"c\"}]},"
+                    + "\"created_at\":\"2025-11-13 10:47:52.123\"}";
+
+            // When
+            ParsedPackageCDC parsed = decoder.decode(json);
+
+            // Then
+            assertThat(parsed.isCancelled()).isTrue();
+            assertThat(parsed.hasEta()).isFalse();
+            assertThat(parsed.getCompletedAt()).isEqualTo(ParsedPackageCDC.NO_TIMESTAMP);
+            assertThat(parsed).isEqualTo(bind(json));
+        }
+    }
+
+    @Nested
+    @DisplayName("Fallback Tests")
+    class FallbackTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "{\"id\":\"7\"}", "{\"id\":1.5}", "{\"eta\":\"30\"}", "{\"cancelled\":true}",
+                "{\"__deleted\":true}",
+                "{\"eta\":30000000000}", "{\"id\":99999999999999999999}", "{\"created_at\":{\"x\":1}}",
+                "[1,2]", "\"text\"", "{\"id\":1", "not json" })
+        @DisplayName("Should request full binding for payloads it does not handle")
+        void shouldReturnNullForUnhandledPayloads(String json) {
+            assertThat(decoder.decode(json)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should return null for null payload")
+        void shouldReturnNullForNullPayload() {
+            assertThat(decoder.decode((String) null)).isNull();
+            assertThat(decoder.decode((byte[]) null)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Numeric Time Mode Tests")
+    class NumericTimeModeTests {
+
+        private final PackageCDCDecoder numericDecoder = new PackageCDCDecoder(objectMapper, true);
+
+        private final NumericPackageCDCSerde numericSerde = new NumericPackageCDCSerde(objectMapper);
+
+        @Test
+        @DisplayName("Should take timestamp numbers as epoch micros without sniffing")
+        void shouldTakeNumbersAsMicros() {
+            // Given - 1731495472000 would be read as millis in string mode
+            String json = "{\"id\":1,\"created_at\":1731495472000,\"completed_at\":null,"
+                    + "\"picked_up_at\":1763030990000000}";
+
+            // When
+            ParsedPackageCDC parsed = numericDecoder.decode(json);
+
+            // Then
+            assertThat(parsed.getCreatedAt()).isEqualTo(1731495472000L);
+            assertThat(parsed.getPickedUpAt()).isEqualTo(1763030990000000L);
+            assertThat(parsed.getCompletedAt()).isEqualTo(ParsedPackageCDC.NO_TIMESTAMP);
+            assertThat(decoder.decode(json).getCreatedAt()).isEqualTo(1731495472000000L);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "{\"created_at\":\"2025-11-13 10:47:52\"}", "{\"created_at\":\"1763030872000000\"}",
+                "{\"created_at\":1.5}", "{\"created_at\":true}" })
+        @DisplayName("Should fall back for timestamps outside the numeric contract")
+        void shouldFallBackForNonNumericTimestamps(String json) {
+            assertThat(numericDecoder.decode(json)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should match numeric binding on randomized micros payloads")
+        void shouldMatchNumericBindingOnRandomizedPayloads() throws Exception {
+            Random random = new Random(13);
+
+            for (int i = 0; i < 2_000; i++) {
+                Map<String, Object> payload = randomPayload(random);
+                payload.replaceAll((field, value) -> field.endsWith("_at") && !(value instanceof Long) ? null : value);
+                byte[] json = objectMapper.writeValueAsBytes(payload);
+
+                ParsedPackageCDC decoded = numericDecoder.decode(json);
+
+                assertThat(decoded).as("decode of %s", payload).isNotNull();
+                assertThat(decoded).isEqualTo(transformer.preParse(numericSerde.deserializer().deserialize("cdc", json)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should match full binding on randomized payloads")
+    void shouldMatchBindingOnRandomizedPayloads() throws Exception {
+        Random random = new Random(11);
+
+        for (int i = 0; i < 5_000; i++) {
+            String json = objectMapper.writeValueAsString(randomPayload(random));
+
+            ParsedPackageCDC decoded = decoder.decode(json);
+
+            assertThat(decoded).as("decode of %s", json).isNotNull();
+            assertThat(decoded).as("decode of %s", json).isEqualTo(bind(json));
+        }
+    }
+
+    private static Map<String, Object> randomPayload(Random random) {
+        long created = 1_763_030_872_000_000L + random.nextInt(86_400) * 1_000_000L + random.nextInt(1_000_000);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", random.nextInt(10) == 0 ? null : random.nextLong(1, 10_000_000));
+        payload.put("arrival_for_delivery_at", null);
+        payload.put("cancel_reason", random.nextBoolean() ? null : "Customer \"requested\" cancellation");
+        payload.put("cancelled", random.nextInt(10) == 0 ? null : random.nextInt(2));
+        payload.put("completed_at", randomTimestamp(random, created + 3_000_000_000L));
+        payload.put("created_at", randomTimestamp(random, created));
+        payload.put("customer_id", 20_000_000_000_000L + random.nextInt(1_000_000));
+        payload.put("last_updated_at", randomTimestamp(random, created + 3_000_000_000L));
+        payload.put("eta", random.nextInt(10) == 0 ? null : random.nextInt(30, 150));
+        payload.put("status", "COMPLETED");
+        payload.put("store_id", 20_000_000_000_000L + random.nextInt(10_000));
+        payload.put("picked_up_at", randomTimestamp(random, created + 600_000_000L));
+        payload.put("delivery_date", "2025-11-13");
+        payload.put("__deleted", random.nextInt(10) == 0 ? "true" : "false");
+        return payload;
+    }
+
+    private static Object randomTimestamp(Random random, long micros) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return null;
+            case 1:
+                return micros / 1000;
+            case 2:
+                return "2025-11-13 10:47:52.123456";
+            case 3:
+                return random.nextBoolean() ? "" : Long.toString(micros);
+            default:
+                return micros;
+        }
+    }
+}
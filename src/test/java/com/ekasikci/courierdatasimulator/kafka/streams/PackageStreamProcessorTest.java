@@ -0,0 +1,1000 @@
+package com.ekasikci.courierdatasimulator.kafka.streams;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ekasikci.courierdatasimulator.kafka.config.StreamProcessingConfig;
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.dto.StoreSla;
+import com.ekasikci.courierdatasimulator.kafka.entitiy.Package;
+import com.ekasikci.courierdatasimulator.kafka.repository.PackageRepository;
+import com.ekasikci.courierdatasimulator.kafka.serde.LocalSchemaRegistry;
+import com.ekasikci.courierdatasimulator.kafka.serde.MappedPackageSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.NumericPackageCDCSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.PackageCDCSerde;
+import com.ekasikci.courierdatasimulator.kafka.serde.StoreSlaSerde;
+import com.ekasikci.courierdatasimulator.kafka.service.PackageService;
+import com.ekasikci.courierdatasimulator.kafka.streams.PackageStreamMetrics.Stage;
+import com.ekasikci.courierdatasimulator.kafka.transformer.MappingKernel;
+import com.ekasikci.courierdatasimulator.kafka.transformer.PackageTransformer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Topology tests for PackageStreamProcessor
+ * The FUSED topology must produce exactly what the CHAIN topology produces
+ */
+@DisplayName("PackageStreamProcessor Topology Tests")
+class PackageStreamProcessorTest {
+
+    private static final String CDC_TOPIC = "dbserver.package_db.packages";
+
+    private static final String MAPPED_TOPIC = "cdc-mapped-packages";
+
+    private static final String STORE_SLA_TOPIC = "cdc-store-sla-aggregates";
+
+    private static final String APPLICATION_ID = "package-stream-processor";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * Pipes the records through a topology built from the given config
+     */
+    static final class TopologyRun {
+
+        final List<KeyValue<String, String>> output;
+
+        /** What was emitted before the wall clock was advanced */
+        final List<KeyValue<String, String>> immediate;
+
+        final Map<Long, Long> versions = new HashMap<>();
+
+        final Map<String, MappedPackage> readModel = new HashMap<>();
+
+        final List<KeyValue<Long, Long>> versionChangelog;
+
+        final List<StoreSla> storeSla = new ArrayList<>();
+
+        final PackageStreamMetrics metrics;
+
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        final CdcRecordPrefilter prefilter = new CdcRecordPrefilter();
+
+        final PackageDurationSketches sketches = new PackageDurationSketches();
+
+        TopologyRun(StreamProcessingConfig config, List<KeyValue<String, byte[]>> records) {
+            this(config, records, Duration.ZERO);
+        }
+
+        TopologyRun(StreamProcessingConfig config, List<KeyValue<String, byte[]>> records, Duration wallClock) {
+            this(config, records.stream().map(kv -> new TestRecord<>(kv.key, kv.value)).toList(), wallClock);
+        }
+
+        /**
+         * Records without a timestamp get the input topic's auto-advancing time
+         */
+        TopologyRun(StreamProcessingConfig config, Collection<TestRecord<String, byte[]>> records,
+                Duration wallClock) {
+            metrics = new PackageStreamMetrics(config);
+            metrics.bindTo(registry);
+
+            PackageTransformer transformer = new PackageTransformer();
+            PackageCDCParser parser = new PackageCDCParser(transformer, new PackageCDCSerde(OBJECT_MAPPER),
+                    new NumericPackageCDCSerde(OBJECT_MAPPER), new PackageCDCDecoder(OBJECT_MAPPER, config),
+                    new PackageCDCAvroDecoder(OBJECT_MAPPER, config, CDC_TOPIC), config, CDC_TOPIC);
+
+            StoreSlaSerde storeSlaSerde = new StoreSlaSerde(OBJECT_MAPPER);
+            PackageStreamProcessor processor = new PackageStreamProcessor(transformer,
+                    new MappedPackageSerde(OBJECT_MAPPER), storeSlaSerde, parser, prefilter, metrics, sketches,
+                    config);
+            ReflectionTestUtils.setField(processor, "cdcTopic", CDC_TOPIC);
+            ReflectionTestUtils.setField(processor, "mappedTopic", MAPPED_TOPIC);
+            ReflectionTestUtils.setField(processor, "storeSlaTopic", STORE_SLA_TOPIC);
+
+            StreamsBuilder builder = new StreamsBuilder();
+            processor.packageStream(builder);
+
+            Properties props = new Properties();
+            props.put(StreamsConfig.APPLICATION_ID_CONFIG, APPLICATION_ID);
+
+            try (TopologyTestDriver driver = new TopologyTestDriver(builder.build(), props)) {
+                TestInputTopic<String, byte[]> input = driver.createInputTopic(CDC_TOPIC,
+                        Serdes.String().serializer(), Serdes.ByteArray().serializer());
+                TestOutputTopic<String, String> out = driver.createOutputTopic(MAPPED_TOPIC,
+                        Serdes.String().deserializer(), Serdes.String().deserializer());
+
+                TestOutputTopic<Long, Long> changelog = driver.createOutputTopic(
+                        APPLICATION_ID + "-" + PackageVersions.STORE_NAME + "-changelog",
+                        Serdes.Long().deserializer(), Serdes.Long().deserializer());
+
+                input.pipeRecordList(List.copyOf(records));
+                immediate = out.readKeyValuesToList();
+                driver.advanceWallClockTime(wallClock);
+                output = new ArrayList<>(immediate);
+                output.addAll(out.readKeyValuesToList());
+                versionChangelog = changelog.readKeyValuesToList();
+
+                if (config.isSlaAggregates())
+                    storeSla.addAll(driver.createOutputTopic(STORE_SLA_TOPIC, Serdes.String().deserializer(),
+                            storeSlaSerde.deserializer()).readValuesToList());
+
+                if (config.isDropStale()) {
+                    KeyValueStore<Long, Long> store = driver.getKeyValueStore(PackageVersions.STORE_NAME);
+                    store.all().forEachRemaining(entry -> versions.put(entry.key, entry.value));
+                }
+                if (config.isReadModel()) {
+                    KeyValueStore<String, MappedPackage> store = driver.getKeyValueStore(PackageReadModel.STORE_NAME);
+                    store.all().forEachRemaining(entry -> readModel.put(entry.key, entry.value));
+                }
+            }
+        }
+    }
+
+    private static StreamProcessingConfig config(String topology, String decoder, boolean prefilter) {
+        StreamProcessingConfig config = new StreamProcessingConfig();
+        config.setTopology(topology);
+        config.setDecoder(decoder);
+        config.setPrefilter(prefilter);
+        return config;
+    }
+
+    @Nested
+    @DisplayName("Pipeline Tests")
+    class PipelineTests {
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN, true", "CHAIN, false", "FUSED, true", "FUSED, false" })
+        @DisplayName("Should emit only live packages and count every stage")
+        void shouldEmitOnlyLivePackages(String topology, boolean prefilter) {
+            // Given
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, "{\"id\":1,\"cancelled\":0,\"eta\":60,\"created_at\":1763030872000000,"
+                            + "\"picked_up_at\":1763030990000000,\"completed_at\":1763034015000000,"
+                            + "\"__deleted\":\"false\"}"),
+                    record(2, "{\"id\":2,\"cancelled\":1,\"__deleted\":\"false\"}"),
+                    record(3, "{\"id\":3,\"cancelled\":0,\"__deleted\":\"true\"}"),
+                    new KeyValue<>("{\"id\":4}", null),
+                    record(5, "not json"));
+
+            // When
+            TopologyRun run = new TopologyRun(config(topology, "BINDING", prefilter), records);
+
+            // Then
+            assertThat(run.output).hasSize(1);
+            assertThat(run.output.get(0).key).isEqualTo("{\"id\":1}");
+            assertThat(run.output.get(0).value).contains("\"lead_time\":52").contains("\"order_in_time\":true");
+
+            assertThat(run.metrics.count(Stage.PRODUCED)).isEqualTo(1);
+            assertThat(run.metrics.count(Stage.PARSE_FAILED)).isEqualTo(prefilter ? 1 : 2);
+            assertThat(run.metrics.count(Stage.FILTERED)).isEqualTo(prefilter ? 0 : 2);
+            assertThat(run.metrics.count(Stage.PARSED)).isEqualTo(prefilter ? 2 : 5);
+            assertThat(run.prefilter.count(CdcRecordPrefilter.Outcome.PARSE)).isEqualTo(prefilter ? 2 : 0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Stale Update Tests")
+    class StaleUpdateTests {
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN", "FUSED" })
+        @DisplayName("Should drop redelivered and out-of-order updates per package")
+        void shouldDropStaleUpdates(String topology) {
+            // Given - package 1 updated at t2, then t1 (older), t2 (redelivery) and t3
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, update(1, 1763034015000000L, 60)),
+                    record(1, update(1, 1763033000000000L, 61)),
+                    record(2, update(2, 1763033000000000L, 62)),
+                    record(1, update(1, 1763034015000000L, 63)),
+                    record(1, update(1, 1763035000000000L, 64)),
+                    record(3, "{\"id\":3,\"cancelled\":0,\"eta\":65}"),
+                    record(3, "{\"id\":3,\"cancelled\":0,\"eta\":66}"));
+
+            // When
+            TopologyRun run = new TopologyRun(config(topology, "BINDING", true), records);
+
+            // Then - updates without last_updated_at cannot be ordered and pass
+            assertThat(run.output).extracting(kv -> kv.value.replaceAll(".*\"eta\":(\\d+).*", "$1"))
+                    .containsExactly("60", "62", "64", "65", "66");
+            assertThat(run.metrics.count(Stage.STALE)).isEqualTo(2);
+            assertThat(run.versions).containsOnly(
+                    Map.entry(1L, 1763035000000000L), Map.entry(2L, 1763033000000000L));
+        }
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN", "FUSED" })
+        @DisplayName("Should remove packages on deletes repeating the last update's version")
+        void shouldRemoveOnRewrittenDeletes(String topology) {
+            // Given - without the prefilter every delete reaches the version check
+            StreamProcessingConfig config = config(topology, "BINDING", false);
+            config.setCompactedOutput(true);
+            config.setReadModel(true);
+            String live = update(1, 1763034015000000L, 60);
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, live),
+                    record(1, live.replace("\"__deleted\":\"false\"", "\"__deleted\":\"true\"")),
+                    record(1, live));
+
+            // When
+            TopologyRun run = new TopologyRun(config, records);
+
+            // Then - the redelivered update is still stale
+            assertThat(run.output).extracting(kv -> kv.key + "=" + (kv.value == null ? null : "live"))
+                    .containsExactly("1=live", "1=null");
+            assertThat(run.metrics.count(Stage.TOMBSTONED)).isEqualTo(1);
+            assertThat(run.metrics.count(Stage.STALE)).isEqualTo(1);
+            assertThat(run.readModel).isEmpty();
+        }
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN, true", "CHAIN, false", "FUSED, true", "FUSED, false" })
+        @DisplayName("Should forget the versions of tombstoned packages")
+        void shouldForgetTombstonedPackages(String topology, boolean prefilter) {
+            // Given - package 1 deleted (rewritten record, then its tombstone), package 2 still live
+            String live = update(1, 1763034015000000L, 60);
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, live),
+                    record(2, update(2, 1763034015000000L, 61)),
+                    record(1, live.replace("\"__deleted\":\"false\"", "\"__deleted\":\"true\"")),
+                    new KeyValue<>("{\"id\":1}", null));
+
+            // When
+            TopologyRun run = new TopologyRun(config(topology, "BINDING", prefilter), records);
+
+            // Then - the deletion reaches the changelog too
+            assertThat(run.versions).containsOnlyKeys(2L);
+            assertThat(run.versionChangelog).last().isEqualTo(new KeyValue<>(1L, null));
+        }
+
+        @Test
+        @DisplayName("Should back the version store with a changelog topic")
+        void shouldWriteVersionsToChangelog() {
+            // Given
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, update(1, 1763034015000000L, 60)),
+                    record(1, update(1, 1763035000000000L, 61)));
+
+            // When
+            TopologyRun run = new TopologyRun(config("FUSED", "SELECTIVE", true), records);
+
+            // Then
+            assertThat(run.versionChangelog).isNotEmpty();
+            assertThat(run.versionChangelog.get(run.versionChangelog.size() - 1))
+                    .isEqualTo(new KeyValue<>(1L, 1763035000000000L));
+        }
+
+        @Test
+        @DisplayName("Should keep the topology stateless when disabled")
+        void shouldPassEverythingWhenDisabled() {
+            // Given
+            StreamProcessingConfig config = config("CHAIN", "BINDING", true);
+            config.setDropStale(false);
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, update(1, 1763034015000000L, 60)),
+                    record(1, update(1, 1763033000000000L, 61)));
+
+            // When
+            TopologyRun run = new TopologyRun(config, records);
+
+            // Then
+            assertThat(run.output).hasSize(2);
+            assertThat(run.versionChangelog).isEmpty();
+        }
+
+        private String update(long id, long lastUpdatedAt, int eta) {
+            return "{\"id\":" + id + ",\"cancelled\":0,\"eta\":" + eta + ",\"created_at\":1763030872000000,"
+                    + "\"last_updated_at\":" + lastUpdatedAt + ",\"__deleted\":\"false\"}";
+        }
+    }
+
+    @Nested
+    @DisplayName("Unchanged Output Tests")
+    class UnchangedOutputTests {
+
+        private StreamProcessingConfig suppressing(String topology, String decoder) {
+            StreamProcessingConfig config = config(topology, decoder, true);
+            config.setSuppressUnchanged(true);
+            return config;
+        }
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN", "FUSED" })
+        @DisplayName("Should skip updates that leave the mapped package unchanged")
+        void shouldSkipUnchangedOutput(String topology) {
+            // Given - package 1 reassigned to another store, then its eta changes and changes back
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, update(1, 1763034015000000L, 60, 10)),
+                    record(1, update(1, 1763035000000000L, 60, 11)),
+                    record(1, update(1, 1763036000000000L, 70, 11)),
+                    record(1, update(1, 1763037000000000L, 60, 11)),
+                    record(2, update(2, 1763034015000000L, 60, 10)));
+
+            // When
+            TopologyRun run = new TopologyRun(suppressing(topology, "BINDING"), records);
+
+            // Then
+            assertThat(run.output).extracting(kv -> kv.key + kv.value.replaceAll(".*\"eta\":(\\d+).*", "$1"))
+                    .containsExactly("{\"id\":1}60", "{\"id\":1}70", "{\"id\":1}60", "{\"id\":2}60");
+            assertThat(run.metrics.count(Stage.UNCHANGED)).isEqualTo(1);
+            assertThat(run.metrics.count(Stage.PRODUCED)).isEqualTo(4);
+            assertThat(run.metrics.unchangedRatio()).isEqualTo(0.2);
+        }
+
+        @Test
+        @DisplayName("Should expose the hit ratio as a gauge")
+        void shouldExposeRatioGauge() {
+            // Given
+            TopologyRun run = new TopologyRun(suppressing("FUSED", "SELECTIVE"), List.of(
+                    record(1, update(1, 1763034015000000L, 60, 10)),
+                    record(1, update(1, 1763035000000000L, 60, 11))));
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+            // When
+            run.metrics.bindTo(registry);
+
+            // Then
+            assertThat(registry.get("cdc.stream.unchanged.ratio").gauge().value()).isEqualTo(0.5);
+        }
+
+        @Test
+        @DisplayName("Should hash the output fields except last_updated_at")
+        void shouldHashDerivedFieldsOnly() {
+            // Given
+            MappedPackage mapped = mapped(1L, "2025-11-13 11:40:15", 60, 52, true);
+            MappedPackage touched = mapped(2L, "2025-11-13 12:00:00", 60, 52, true);
+            MappedPackage shifted = mapped(1L, "2025-11-13 11:40:15", null, 60, true);
+            MappedPackage late = mapped(1L, "2025-11-13 11:40:15", 60, 52, false);
+
+            // When / Then
+            assertThat(PackageOutputHashes.hash(touched)).isEqualTo(PackageOutputHashes.hash(mapped));
+            assertThat(PackageOutputHashes.hash(shifted)).isNotEqualTo(PackageOutputHashes.hash(mapped));
+            assertThat(PackageOutputHashes.hash(late)).isNotEqualTo(PackageOutputHashes.hash(mapped));
+        }
+
+        @Test
+        @DisplayName("Should emit every update when disabled")
+        void shouldPassEverythingWhenDisabled() {
+            // Given
+            StreamProcessingConfig config = config("CHAIN", "BINDING", true);
+            config.setSuppressUnchanged(false);
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, update(1, 1763034015000000L, 60, 10)),
+                    record(1, update(1, 1763035000000000L, 60, 11)));
+
+            // When
+            TopologyRun run = new TopologyRun(config, records);
+
+            // Then
+            assertThat(run.output).hasSize(2);
+            assertThat(run.metrics.count(Stage.UNCHANGED)).isZero();
+        }
+
+        private MappedPackage mapped(Long id, String lastUpdatedAt, Integer eta, Integer leadTime,
+                Boolean orderInTime) {
+            return MappedPackage.builder().id(id).createdAt("2025-11-13 10:47:52").lastUpdatedAt(lastUpdatedAt)
+                    .eta(eta).leadTime(leadTime).orderInTime(orderInTime).build();
+        }
+
+        private String update(long id, long lastUpdatedAt, int eta, int storeId) {
+            return "{\"id\":" + id + ",\"cancelled\":0,\"eta\":" + eta + ",\"store_id\":" + storeId
+                    + ",\"created_at\":1763030872000000,\"last_updated_at\":" + lastUpdatedAt
+                    + ",\"__deleted\":\"false\"}";
+        }
+    }
+
+    @Nested
+    @DisplayName("Coalescing Tests")
+    class CoalescingTests {
+
+        private static final long CREATED = 1763030872000000L;
+
+        private StreamProcessingConfig coalescing(String topology, boolean bypassCompleted) {
+            StreamProcessingConfig config = config(topology, "SELECTIVE", true);
+            config.setCoalesceWindowMs(500);
+            config.setCoalesceBypassCompleted(bypassCompleted);
+            return config;
+        }
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN", "FUSED" })
+        @DisplayName("Should emit only the latest state per package once the window closes")
+        void shouldEmitLatestStateAfterWindow(String topology) {
+            // Given - package 1 assigned and picked up within the window
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, update(1, CREATED + 1_000_000L, 60, null, null)),
+                    record(2, update(2, CREATED + 1_000_000L, 45, null, null)),
+                    record(1, update(1, CREATED + 2_000_000L, 55, CREATED + 2_000_000L, null)));
+
+            // When
+            TopologyRun run = new TopologyRun(coalescing(topology, true), records, Duration.ofMillis(500));
+
+            // Then
+            assertThat(run.immediate).isEmpty();
+            assertThat(run.output).extracting(kv -> kv.key + kv.value.replaceAll(".*\"eta\":(\\d+).*", "$1"))
+                    .containsExactlyInAnyOrder("{\"id\":1}55", "{\"id\":2}45");
+            assertThat(run.metrics.count(Stage.COALESCED)).isEqualTo(1);
+            assertThat(run.metrics.count(Stage.PRODUCED)).isEqualTo(2);
+        }
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN", "FUSED" })
+        @DisplayName("Should emit completed packages at once and drop their buffered state")
+        void shouldBypassCompleted(String topology) {
+            // Given
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, update(1, CREATED + 1_000_000L, 60, CREATED + 2_000_000L, null)),
+                    record(1, update(1, CREATED + 3_000_000L, 60, CREATED + 2_000_000L,
+                            CREATED + 3_000_000_000L)));
+
+            // When
+            TopologyRun run = new TopologyRun(coalescing(topology, true), records, Duration.ofMillis(500));
+
+            // Then
+            assertThat(run.immediate).hasSize(1);
+            assertThat(run.immediate.get(0).value).contains("\"lead_time\":50");
+            assertThat(run.output).isEqualTo(run.immediate);
+            assertThat(run.metrics.count(Stage.COALESCED)).isEqualTo(1);
+        }
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN, true", "CHAIN, false", "FUSED, true", "FUSED, false" })
+        @DisplayName("Should drop the buffered state of a package cancelled within the window")
+        void shouldDiscardOnCancel(String topology, boolean prefilter) {
+            // Given - no compacted output, so the cancel only reaches the read model and the buffer
+            StreamProcessingConfig config = coalescing(topology, true);
+            config.setPrefilter(prefilter);
+            config.setReadModel(true);
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, update(1, CREATED + 1_000_000L, 60, null, null)),
+                    record(1, "{\"id\":1,\"cancelled\":1,\"__deleted\":\"false\"}"));
+
+            // When
+            TopologyRun run = new TopologyRun(config, records, Duration.ofMillis(500));
+
+            // Then
+            assertThat(run.output).isEmpty();
+            assertThat(run.readModel).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should hold completed packages too when the bypass is off")
+        void shouldHoldCompletedWithoutBypass() {
+            // Given
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, update(1, CREATED + 1_000_000L, 60, CREATED + 2_000_000L,
+                            CREATED + 3_000_000_000L)));
+
+            // When
+            TopologyRun run = new TopologyRun(coalescing("FUSED", false), records, Duration.ofMillis(500));
+
+            // Then
+            assertThat(run.immediate).isEmpty();
+            assertThat(run.output).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Should keep records buffered until the window has nearly elapsed")
+        void shouldHoldUntilWindowCloses() {
+            // Given
+            List<KeyValue<String, byte[]>> records = List.of(record(1, update(1, CREATED + 1_000_000L, 60,
+                    null, null)));
+
+            // When
+            TopologyRun run = new TopologyRun(coalescing("CHAIN", true), records, Duration.ofMillis(300));
+
+            // Then
+            assertThat(run.output).isEmpty();
+        }
+
+        private String update(long id, long lastUpdatedAt, int eta, Long pickedUpAt, Long completedAt) {
+            return "{\"id\":" + id + ",\"cancelled\":0,\"eta\":" + eta + ",\"created_at\":" + CREATED
+                    + ",\"picked_up_at\":" + pickedUpAt + ",\"completed_at\":" + completedAt
+                    + ",\"last_updated_at\":" + lastUpdatedAt + ",\"__deleted\":\"false\"}";
+        }
+    }
+
+    @Nested
+    @DisplayName("Read Model Tests")
+    class ReadModelTests {
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN, true", "CHAIN, false", "FUSED, true", "FUSED, false" })
+        @DisplayName("Should keep the latest published state of live packages only")
+        void shouldKeepLivePackages(String topology, boolean prefilter) {
+            // Given - package 2 cancelled and package 3 deleted after being published
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, live(1, 60)),
+                    record(2, live(2, 60)),
+                    record(3, live(3, 60)),
+                    record(1, live(1, 75)),
+                    record(2, "{\"id\":2,\"cancelled\":1,\"__deleted\":\"false\"}"),
+                    record(3, "{\"id\":3,\"cancelled\":0,\"__deleted\":\"true\"}"));
+
+            StreamProcessingConfig config = config(topology, "BINDING", prefilter);
+            config.setReadModel(true);
+
+            // When
+            TopologyRun run = new TopologyRun(config, records);
+
+            // Then
+            assertThat(run.readModel).containsOnlyKeys(PackageReadModel.recordKey(1));
+            assertThat(run.readModel.get(PackageReadModel.recordKey(1)).getEta()).isEqualTo(75);
+        }
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN", "FUSED" })
+        @DisplayName("Should hold the same record PackageService maps from the database")
+        void shouldMatchDatabaseLookup(String topology) throws Exception {
+            // Given - one completed and one in-delivery package, as stored in MySQL and as streamed by Debezium
+            LocalDateTime created = LocalDateTime.of(2025, 11, 13, 10, 47, 52);
+            List<Package> packages = List.of(
+                    Package.builder().id(1L).storeId(20000000001234L).type("EXPRESS").status("COMPLETED")
+                            .cancelled(0).eta(60).createdAt(created).pickedUpAt(created.plusMinutes(2))
+                            .completedAt(created.plusMinutes(52)).lastUpdatedAt(created.plusMinutes(52)).build(),
+                    Package.builder().id(2L).storeId(20000000005678L).type("REGULAR").status("IN_DELIVERY")
+                            .cancelled(0).eta(90).createdAt(created).pickedUpAt(created.plusMinutes(5))
+                            .lastUpdatedAt(created.plusMinutes(5)).build());
+            PackageRepository repository = mock(PackageRepository.class);
+            List<KeyValue<String, byte[]>> records = new ArrayList<>();
+            for (Package pkg : packages) {
+                when(repository.findById(pkg.getId())).thenReturn(Optional.of(pkg));
+                records.add(record(pkg.getId(), OBJECT_MAPPER.writeValueAsString(row(pkg))));
+            }
+            StreamProcessingConfig config = config(topology, "BINDING", true);
+            config.setReadModel(true);
+
+            // When
+            TopologyRun run = new TopologyRun(config, records);
+
+            // Then
+            PackageService packageService = new PackageService(repository);
+            for (Package pkg : packages) {
+                assertThat(run.readModel.get(PackageReadModel.recordKey(pkg.getId())))
+                        .isNotNull()
+                        .isEqualTo(packageService.getPackageById(pkg.getId()).orElseThrow());
+            }
+        }
+
+        @Test
+        @DisplayName("Should leave the topology without the store when disabled")
+        void shouldSkipStoreWhenDisabled() {
+            // Given
+            StreamProcessingConfig config = config("CHAIN", "BINDING", true);
+            config.setReadModel(false);
+
+            // When
+            TopologyRun run = new TopologyRun(config, List.of(record(1, live(1, 60))));
+
+            // Then
+            assertThat(run.output).hasSize(1);
+            assertThat(run.readModel).isEmpty();
+        }
+
+        private String live(long id, int eta) {
+            return "{\"id\":" + id + ",\"cancelled\":0,\"eta\":" + eta + ",\"created_at\":1763030872000000,"
+                    + "\"__deleted\":\"false\"}";
+        }
+
+        /** Debezium row of a package, timestamps as epoch micros */
+        private Map<String, Object> row(Package pkg) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", pkg.getId());
+            row.put("store_id", pkg.getStoreId());
+            row.put("type", pkg.getType());
+            row.put("status", pkg.getStatus());
+            row.put("cancelled", pkg.getCancelled());
+            row.put("eta", pkg.getEta());
+            row.put("created_at", micros(pkg.getCreatedAt()));
+            row.put("last_updated_at", micros(pkg.getLastUpdatedAt()));
+            row.put("picked_up_at", micros(pkg.getPickedUpAt()));
+            row.put("completed_at", micros(pkg.getCompletedAt()));
+            row.put("__deleted", "false");
+            return row;
+        }
+
+        private Long micros(LocalDateTime value) {
+            return value == null ? null : MappingKernel.toEpochMicros(value);
+        }
+    }
+
+    @Nested
+    @DisplayName("Compacted Output Tests")
+    class CompactedOutputTests {
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN, true", "CHAIN, false", "FUSED, true", "FUSED, false" })
+        @DisplayName("Should key by package id and publish one tombstone per removed package")
+        void shouldPublishTombstones(String topology, boolean prefilter) {
+            // Given - 2 cancelled; 1 deleted, rewritten then tombstoned; 3 deleted before ever being published
+            StreamProcessingConfig config = config(topology, "BINDING", prefilter);
+            config.setCompactedOutput(true);
+            config.setSuppressUnchanged(true);
+            config.setReadModel(true);
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, live(1, 60)),
+                    record(2, live(2, 60)),
+                    record(2, "{\"id\":2,\"cancelled\":1,\"__deleted\":\"false\"}"),
+                    record(1, "{\"id\":1,\"cancelled\":0,\"__deleted\":\"true\"}"),
+                    new KeyValue<>("{\"id\":1}", null),
+                    record(3, "{\"id\":3,\"cancelled\":0,\"__deleted\":\"true\"}"),
+                    new KeyValue<>("{\"id\":3}", null),
+                    record(1, live(1, 75)));
+
+            // When
+            TopologyRun run = new TopologyRun(config, records);
+
+            // Then - the package comes back after its tombstone
+            assertThat(run.output).extracting(kv -> kv.key + "=" + (kv.value == null ? null : "live"))
+                    .containsExactly("1=live", "2=live", "2=null", "1=null", "1=live");
+            assertThat(run.metrics.count(Stage.TOMBSTONED)).isEqualTo(2);
+            assertThat(run.readModel).containsOnlyKeys(PackageReadModel.recordKey(1));
+        }
+
+        @Test
+        @DisplayName("Should drop buffered states of a removed package")
+        void shouldDiscardCoalescedState() {
+            // Given
+            StreamProcessingConfig config = config("CHAIN", "BINDING", true);
+            config.setCompactedOutput(true);
+            config.setSuppressUnchanged(true);
+            config.setCoalesceWindowMs(1_000);
+            List<KeyValue<String, byte[]>> records = List.of(
+                    record(1, live(1, 60)),
+                    record(1, "{\"id\":1,\"cancelled\":1,\"__deleted\":\"false\"}"));
+
+            // When
+            TopologyRun run = new TopologyRun(config, records, Duration.ofSeconds(2));
+
+            // Then - never published, so no tombstone either
+            assertThat(run.output).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should keep the source keys and drop removals when disabled")
+        void shouldKeepSourceKeysWhenDisabled() {
+            // When
+            TopologyRun run = new TopologyRun(config("FUSED", "BINDING", true), List.of(
+                    record(1, live(1, 60)),
+                    new KeyValue<>("{\"id\":1}", null)));
+
+            // Then
+            assertThat(run.output).extracting(kv -> kv.key).containsExactly("{\"id\":1}");
+        }
+
+        @Test
+        @DisplayName("Should read package ids from Debezium keys")
+        void shouldReadIdsFromKeys() {
+            assertThat(PackageKeys.id("{\"id\":42}")).isEqualTo(42);
+            assertThat(PackageKeys.id("{ \"id\" : -7 }")).isEqualTo(-7);
+            assertThat(PackageKeys.id("{\"schema\":{\"fields\":[{\"field\":\"id\"}]},\"payload\":{\"id\":9}}"))
+                    .isEqualTo(9);
+            assertThat(PackageKeys.id("12")).isEqualTo(12);
+            assertThat(PackageKeys.id("{\"id\":null}")).isEqualTo(PackageKeys.NO_ID);
+            assertThat(PackageKeys.id(null)).isEqualTo(PackageKeys.NO_ID);
+        }
+
+        private String live(long id, int eta) {
+            return "{\"id\":" + id + ",\"cancelled\":0,\"eta\":" + eta + ",\"created_at\":1763030872000000,"
+                    + "\"__deleted\":\"false\"}";
+        }
+    }
+
+    @Nested
+    @DisplayName("Stage Metrics Tests")
+    class StageMetricsTests {
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN", "FUSED" })
+        @DisplayName("Should time every step and the end-to-end latency of sampled records")
+        void shouldTimeSampledSteps(String topology) {
+            // Given - every record sampled, written ten seconds before it is processed
+            StreamProcessingConfig config = config(topology, "BINDING", true);
+            config.setTimingSampleInterval(1);
+            KeyValue<String, byte[]> kv = record(1, "{\"id\":1,\"cancelled\":0,\"eta\":60,"
+                    + "\"created_at\":1763030872000000,\"__deleted\":\"false\"}");
+            List<TestRecord<String, byte[]>> records = List.of(
+                    new TestRecord<>(kv.key, kv.value, Instant.now().minusSeconds(10)));
+
+            // When
+            TopologyRun run = new TopologyRun(config, records, Duration.ZERO);
+
+            // Then
+            for (String step : new String[] { "parse", "transform", "serialize" }) {
+                assertThat(run.registry.get("cdc.stream.step.duration").tag("step", step).timer().count())
+                        .as(step).isEqualTo(1);
+            }
+            Timer endToEnd = run.registry.get("cdc.stream.end.to.end.latency").timer();
+            assertThat(endToEnd.count()).isEqualTo(1);
+            assertThat(endToEnd.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(10_000);
+            assertThat(run.metrics.count(Stage.RECEIVED)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should not time anything when disabled")
+        void shouldSkipTimersWhenDisabled() {
+            // Given
+            StreamProcessingConfig config = config("CHAIN", "BINDING", true);
+            config.setTimingSampleInterval(0);
+
+            // When
+            TopologyRun run = new TopologyRun(config, List.of(record(1, "{\"id\":1,\"cancelled\":0}")));
+
+            // Then
+            assertThat(run.output).hasSize(1);
+            assertThat(run.registry.get("cdc.stream.step.duration").timers())
+                    .allSatisfy(timer -> assertThat(timer.count()).isZero());
+            assertThat(run.registry.get("cdc.stream.end.to.end.latency").timer().count()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should count serialization failures")
+        void shouldCountSerializationFailures() {
+            // Given
+            PackageStreamMetrics metrics = new PackageStreamMetrics();
+            MeteredSerializer<MappedPackage> serializer = new MeteredSerializer<>((topic, mapped) -> {
+                throw new SerializationException("broken");
+            }, metrics);
+
+            // When / Then
+            assertThatThrownBy(() -> serializer.serialize(MAPPED_TOPIC, MappedPackage.builder().id(1L).build()))
+                    .isInstanceOf(SerializationException.class);
+            assertThat(metrics.count(Stage.SERIALIZE_FAILED)).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Store SLA Tests")
+    class StoreSlaTests {
+
+        /** An hour boundary, so tumbling and hopping windows start on it */
+        private static final long T0 = 1763028000000L;
+
+        private static final long MINUTE = 60_000L;
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN", "FUSED" })
+        @DisplayName("Should aggregate completed packages per store once each window closes")
+        void shouldAggregatePerStoreAndWindow(String topology) {
+            // Given - package 4 is not completed, package 6 only moves stream time past every window of 10 and 20
+            StreamProcessingConfig config = config(topology, "BINDING", true);
+            config.setSlaAggregates(true);
+            List<TestRecord<String, byte[]>> records = List.of(
+                    at(1, completed(1, 10, 60), 1),
+                    at(2, completed(2, 10, 30), 5),
+                    at(3, completed(3, 20, 60), 7),
+                    at(4, "{\"id\":4,\"store_id\":10,\"cancelled\":0,\"eta\":60,\"created_at\":1763030872000000}", 8),
+                    at(5, completed(5, 10, 60), 20),
+                    at(6, completed(6, 30, 60), 180));
+
+            // When
+            TopologyRun run = new TopologyRun(config, records, Duration.ZERO);
+
+            // Then
+            assertThat(run.output).hasSize(6).allSatisfy(kv -> assertThat(kv.value).doesNotContain("store_id"));
+            assertThat(tumbling(run, 10)).extracting(StoreSla::getWindowStart, StoreSla::getCount,
+                    StoreSla::getOnTimeCount, StoreSla::getLeadTimeSum)
+                    .containsExactly(tuple(T0, 2L, 1L, 104L), tuple(T0 + 15 * MINUTE, 1L, 1L, 52L));
+            assertThat(tumbling(run, 20)).extracting(StoreSla::getWindowEnd, StoreSla::getCount)
+                    .containsExactly(tuple(T0 + 15 * MINUTE, 1L));
+            assertThat(run.storeSla).filteredOn(sla -> sla.getStoreId() == 30).isEmpty();
+
+            List<StoreSla> hopping = run.storeSla.stream()
+                    .filter(sla -> StoreSlaAggregates.HOPPING.equals(sla.getWindow()) && sla.getStoreId() == 10)
+                    .toList();
+            assertThat(hopping).extracting(StoreSla::getWindowStart).containsExactly(
+                    T0 - 45 * MINUTE, T0 - 30 * MINUTE, T0 - 15 * MINUTE, T0, T0 + 15 * MINUTE);
+            assertThat(hopping).filteredOn(sla -> sla.getWindowStart() == T0).singleElement()
+                    .satisfies(sla -> assertThat(sla.getCount()).isEqualTo(3));
+        }
+
+        @Test
+        @DisplayName("Should leave the topology without the aggregates when disabled")
+        void shouldSkipAggregatesWhenDisabled() {
+            // Given
+            StreamProcessingConfig config = config("FUSED", "BINDING", true);
+
+            // When
+            TopologyRun run = new TopologyRun(config,
+                    List.of(at(1, completed(1, 10, 60), 1), at(2, completed(2, 10, 60), 180)), Duration.ZERO);
+
+            // Then
+            assertThat(run.output).hasSize(2);
+            assertThat(run.storeSla).isEmpty();
+        }
+
+        private List<StoreSla> tumbling(TopologyRun run, long storeId) {
+            return run.storeSla.stream()
+                    .filter(sla -> StoreSlaAggregates.TUMBLING.equals(sla.getWindow()) && sla.getStoreId() == storeId)
+                    .toList();
+        }
+
+        /** Lead time 52 minutes */
+        private String completed(long id, long storeId, int eta) {
+            return "{\"id\":" + id + ",\"store_id\":" + storeId + ",\"cancelled\":0,\"eta\":" + eta
+                    + ",\"created_at\":1763030872000000,\"picked_up_at\":1763030990000000,"
+                    + "\"completed_at\":1763034015000000,\"__deleted\":\"false\"}";
+        }
+
+        private TestRecord<String, byte[]> at(long id, String json, long minutes) {
+            KeyValue<String, byte[]> kv = record(id, json);
+            return new TestRecord<>(kv.key, kv.value, Instant.ofEpochMilli(T0 + minutes * MINUTE));
+        }
+    }
+
+    @Nested
+    @DisplayName("Avro Input Tests")
+    class AvroInputTests {
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN", "FUSED" })
+        @DisplayName("Should publish the same records from Avro values as from their JSON rows")
+        void shouldMatchJsonInput(String topology) throws Exception {
+            // Given
+            LocalSchemaRegistry registry = new LocalSchemaRegistry("classpath:schemas/cdc");
+            DebeziumAvroEncoder encoder = new DebeziumAvroEncoder(OBJECT_MAPPER,
+                    registry.latest(CDC_TOPIC + "-value").getDefinition(), 1);
+            Random random = new Random(25);
+            List<KeyValue<String, byte[]>> json = new ArrayList<>();
+            List<KeyValue<String, byte[]>> avro = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                KeyValue<String, byte[]> record = randomRecord(random);
+                json.add(record);
+                avro.add(new KeyValue<>(record.key, record.value == null ? null
+                        : encoder.encode(OBJECT_MAPPER.readValue(record.value, Map.class))));
+            }
+
+            StreamProcessingConfig avroConfig = config(topology, "BINDING", true);
+            avroConfig.setInputFormat("AVRO");
+
+            // When
+            TopologyRun fromJson = new TopologyRun(config(topology, "SELECTIVE", false), json);
+            TopologyRun fromAvro = new TopologyRun(avroConfig, avro);
+
+            // Then - the prefilter only reads JSON and stays out of the way
+            assertThat(fromAvro.output).isNotEmpty().isEqualTo(fromJson.output);
+            for (Stage stage : Stage.values()) {
+                assertThat(fromAvro.metrics.count(stage)).as("%s", stage).isEqualTo(fromJson.metrics.count(stage));
+            }
+            assertThat(fromAvro.prefilter.count(CdcRecordPrefilter.Outcome.PARSE)).isZero();
+        }
+
+        @ParameterizedTest
+        @CsvSource({ "CHAIN", "FUSED" })
+        @DisplayName("Should remove packages on rewritten deletes and fail unknown schema ids")
+        void shouldRemoveAndFailUnknownIds(String topology) {
+            // Given - the delete repeats the update's last_updated_at
+            String schema = new LocalSchemaRegistry("classpath:schemas/cdc").latest(CDC_TOPIC + "-value")
+                    .getDefinition();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", 1L);
+            row.put("cancelled", 0);
+            row.put("eta", 60);
+            row.put("created_at", 1763030872000000L);
+            row.put("last_updated_at", 1763034015000000L);
+            row.put("__deleted", "false");
+            DebeziumAvroEncoder encoder = new DebeziumAvroEncoder(OBJECT_MAPPER, schema, 1);
+            byte[] live = encoder.encode(row);
+            row.put("__deleted", "true");
+            List<KeyValue<String, byte[]>> records = List.of(
+                    new KeyValue<>("{\"id\":1}", live),
+                    new KeyValue<>("{\"id\":1}", encoder.encode(row)),
+                    new KeyValue<>("{\"id\":1}", new DebeziumAvroEncoder(OBJECT_MAPPER, schema, 42).encode(row)));
+
+            StreamProcessingConfig config = config(topology, "BINDING", true);
+            config.setInputFormat("AVRO");
+            config.setCompactedOutput(true);
+            config.setReadModel(true);
+
+            // When
+            TopologyRun run = new TopologyRun(config, records);
+
+            // Then
+            assertThat(run.output).extracting(kv -> kv.key + "=" + (kv.value == null ? null : "live"))
+                    .containsExactly("1=live", "1=null");
+            assertThat(run.readModel).isEmpty();
+            assertThat(run.metrics.count(Stage.PARSE_FAILED)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should produce identical records and counters in both topologies on randomized payloads")
+    void shouldMatchChainOnRandomizedPayloads() {
+        Random random = new Random(5);
+        List<KeyValue<String, byte[]>> records = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            records.add(randomRecord(random));
+        }
+
+        for (String decoder : new String[] { "BINDING", "SELECTIVE" }) {
+            TopologyRun chain = new TopologyRun(config("CHAIN", decoder, true), records);
+            TopologyRun fused = new TopologyRun(config("FUSED", decoder, true), records);
+            StreamProcessingConfig compacted = config("CHAIN", decoder, true);
+            compacted.setCompactedOutput(true);
+            TopologyRun compactedChain = new TopologyRun(compacted, records);
+            compacted.setTopology("FUSED");
+            TopologyRun compactedFused = new TopologyRun(compacted, records);
+
+            assertThat(compactedFused.output).as("%s compacted output", decoder).isEqualTo(compactedChain.output);
+            assertThat(compactedFused.metrics.count(Stage.FILTERED))
+                    .isEqualTo(compactedChain.metrics.count(Stage.FILTERED));
+
+            assertThat(chain.output).isNotEmpty();
+            assertThat(fused.output).as("%s output", decoder).isEqualTo(chain.output);
+            for (Stage stage : Stage.values()) {
+                assertThat(fused.metrics.count(stage)).as("%s %s", decoder, stage)
+                        .isEqualTo(chain.metrics.count(stage));
+            }
+            assertThat(chain.sketches.types()).containsKeys("EXPRESS", "REGULAR");
+            chain.sketches.types().forEach((type, sketches) -> sketches.forEach((measure, sketch) ->
+                    assertThat(fused.sketches.byType(type, measure).bins()).as("%s %s %s", decoder, type, measure)
+                            .isEqualTo(sketch.bins())));
+        }
+    }
+
+    private static KeyValue<String, byte[]> record(long id, String json) {
+        return new KeyValue<>("{\"id\":" + id + "}", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KeyValue<String, byte[]> randomRecord(Random random) {
+        long id = random.nextLong(1, 10_000_000);
+        if (random.nextInt(20) == 0)
+            return new KeyValue<>("{\"id\":" + id + "}", null);
+
+        long created = 1_763_030_872_000_000L + random.nextInt(86_400) * 1_000_000L;
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", id);
+        payload.put("cancelled", random.nextInt(6) == 0 ? 1 : 0);
+        payload.put("eta", random.nextInt(10) == 0 ? null : random.nextInt(30, 150));
+        payload.put("created_at", created);
+        payload.put("picked_up_at", random.nextInt(4) == 0 ? null : created + random.nextInt(3_600) * 1_000_000L);
+        payload.put("completed_at", random.nextInt(3) == 0 ? null : created + random.nextInt(7_200) * 1_000_000L);
+        payload.put("last_updated_at", created + 7_200_000_000L);
+        payload.put("status", "COMPLETED");
+        payload.put("type", random.nextBoolean() ? "EXPRESS" : "REGULAR");
+        payload.put("__deleted", random.nextInt(20) == 0 ? "true" : "false");
+
+        try {
+            return record(id, OBJECT_MAPPER.writeValueAsString(payload));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
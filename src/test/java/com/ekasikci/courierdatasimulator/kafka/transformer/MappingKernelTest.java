@@ -0,0 +1,227 @@
+package com.ekasikci.courierdatasimulator.kafka.transformer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+import com.ekasikci.courierdatasimulator.kafka.entitiy.Package;
+import com.ekasikci.courierdatasimulator.kafka.repository.PackageRepository;
+import com.ekasikci.courierdatasimulator.kafka.service.PackageService;
+
+/**
+ * Golden-file tests for MappingKernel
+ * The kernel, the JPA path and the CDC path must all produce the outputs
+ * recorded in golden/mapped-package-durations.csv
+ */
+@DisplayName("MappingKernel Golden Tests")
+class MappingKernelTest {
+
+    private static final String GOLDEN = "/golden/mapped-package-durations.csv";
+
+    private static final DateTimeFormatter FORMAT_MICROS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss[.SSSSSS]");
+
+    private final PackageTransformer transformer = new PackageTransformer();
+
+    private static LocalDateTime parse(String value) {
+        return value == null ? null : LocalDateTime.parse(value, FORMAT_MICROS);
+    }
+
+    private static String toMicrosString(String value) {
+        return value == null ? null : Long.toString(MappingKernel.toEpochMicros(parse(value)));
+    }
+
+    private static void assertGolden(MappedPackage mapped, String description, Integer collectionDuration,
+            Integer deliveryDuration, Integer leadTime, Boolean orderInTime) {
+        assertThat(mapped.getCollectionDuration()).as("collection_duration for %s", description)
+                .isEqualTo(collectionDuration);
+        assertThat(mapped.getDeliveryDuration()).as("delivery_duration for %s", description)
+                .isEqualTo(deliveryDuration);
+        assertThat(mapped.getLeadTime()).as("lead_time for %s", description).isEqualTo(leadTime);
+        assertThat(mapped.getOrderInTime()).as("order_in_time for %s", description).isEqualTo(orderInTime);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvFileSource(resources = GOLDEN, numLinesToSkip = 1)
+    @DisplayName("Kernel should produce golden outputs")
+    void kernelShouldMatchGolden(String description, String createdAt, String pickedUpAt, String completedAt,
+            Integer eta, Integer collectionDuration, Integer deliveryDuration, Integer leadTime,
+            Boolean orderInTime) {
+        // Given
+        long created = MappingKernel.toEpochMicros(parse(createdAt));
+        long pickedUp = MappingKernel.toEpochMicros(parse(pickedUpAt));
+        long completed = MappingKernel.toEpochMicros(parse(completedAt));
+
+        // When
+        boolean isCompleted = MappingKernel.isCompleted("COMPLETED", completed);
+        long lead = MappingKernel.durationMinutes(created, completed, isCompleted);
+
+        // Then
+        assertThat(MappingKernel.toMinutes(MappingKernel.durationMinutes(created, pickedUp, isCompleted)))
+                .isEqualTo(collectionDuration);
+        assertThat(MappingKernel.toMinutes(MappingKernel.durationMinutes(pickedUp, completed, isCompleted)))
+                .isEqualTo(deliveryDuration);
+        assertThat(MappingKernel.toMinutes(lead)).isEqualTo(leadTime);
+        assertThat(MappingKernel.hasOrderInTime(lead, eta != null)
+                ? MappingKernel.orderInTime(lead, eta)
+                : null).isEqualTo(orderInTime);
+    }
+
+    @Nested
+    @DisplayName("JPA Path")
+    class JpaPathTests {
+
+        private final PackageRepository packageRepository = mock(PackageRepository.class);
+
+        private final PackageService packageService = new PackageService(packageRepository);
+
+        @ParameterizedTest(name = "{0}")
+        @CsvFileSource(resources = GOLDEN, numLinesToSkip = 1)
+        @DisplayName("PackageService should produce golden outputs")
+        void serviceShouldMatchGolden(String description, String createdAt, String pickedUpAt, String completedAt,
+                Integer eta, Integer collectionDuration, Integer deliveryDuration, Integer leadTime,
+                Boolean orderInTime) {
+            // Given
+            Package pkg = Package.builder()
+                    .id(1L)
+                    .createdAt(parse(createdAt))
+                    .pickedUpAt(parse(pickedUpAt))
+                    .completedAt(parse(completedAt))
+                    .eta(eta)
+                    .status("COMPLETED")
+                    .cancelled(0)
+                    .build();
+            when(packageRepository.findById(1L)).thenReturn(Optional.of(pkg));
+
+            // When
+            Optional<MappedPackage> single = packageService.getPackageById(1L);
+            List<MappedPackage> batch = packageService.mapNonCancelledPackages(List.of(pkg));
+
+            // Then
+            assertThat(single).isPresent();
+            assertGolden(single.get(), description, collectionDuration, deliveryDuration, leadTime, orderInTime);
+            assertThat(batch).containsExactly(single.get());
+        }
+
+        @Test
+        @DisplayName("PackageService should keep calculated fields null for non-completed packages")
+        void serviceShouldGateOnStatus() {
+            // Given
+            LocalDateTime created = LocalDateTime.of(2025, 11, 13, 10, 0, 0);
+            Package pkg = Package.builder()
+                    .id(2L)
+                    .createdAt(created)
+                    .pickedUpAt(created.plusMinutes(10))
+                    .completedAt(created.plusMinutes(30))
+                    .eta(60)
+                    .status("IN_DELIVERY")
+                    .cancelled(0)
+                    .build();
+
+            // When
+            MappedPackage mapped = packageService.mapNonCancelledPackages(List.of(pkg)).get(0);
+
+            // Then
+            assertGolden(mapped, "in delivery", null, null, null, null);
+        }
+    }
+
+    @Nested
+    @DisplayName("CDC Path")
+    class CdcPathTests {
+
+        @ParameterizedTest(name = "{0}")
+        @CsvFileSource(resources = GOLDEN, numLinesToSkip = 1)
+        @DisplayName("PackageTransformer should produce golden outputs from date-time strings")
+        void transformerShouldMatchGoldenFromDateTimes(String description, String createdAt, String pickedUpAt,
+                String completedAt, Integer eta, Integer collectionDuration, Integer deliveryDuration,
+                Integer leadTime, Boolean orderInTime) {
+            // Given
+            PackageCDC cdc = PackageCDC.builder()
+                    .id(1L)
+                    .createdAt(createdAt)
+                    .pickedUpAt(pickedUpAt)
+                    .completedAt(completedAt)
+                    .eta(eta)
+                    .status("COMPLETED")
+                    .cancelled(0)
+                    .build();
+
+            // When
+            MappedPackage mapped = transformer.transform(cdc);
+
+            // Then
+            assertGolden(mapped, description, collectionDuration, deliveryDuration, leadTime, orderInTime);
+        }
+
+        @ParameterizedTest(name = "{0}")
+        @CsvFileSource(resources = GOLDEN, numLinesToSkip = 1)
+        @DisplayName("PackageTransformer should produce golden outputs from Debezium micros")
+        void transformerShouldMatchGoldenFromMicros(String description, String createdAt, String pickedUpAt,
+                String completedAt, Integer eta, Integer collectionDuration, Integer deliveryDuration,
+                Integer leadTime, Boolean orderInTime) {
+            // Numbers up to 9e12 are read as millis, so micros only round trip after April 1970
+            assumeTrue(createdAt == null || MappingKernel.toEpochMicros(parse(createdAt)) > 9_000_000_000_000L);
+
+            // Given
+            PackageCDC cdc = PackageCDC.builder()
+                    .id(1L)
+                    .createdAt(toMicrosString(createdAt))
+                    .pickedUpAt(toMicrosString(pickedUpAt))
+                    .completedAt(toMicrosString(completedAt))
+                    .eta(eta)
+                    .status("COMPLETED")
+                    .cancelled(0)
+                    .build();
+
+            // When
+            MappedPackage mapped = transformer.transform(cdc);
+
+            // Then
+            assertGolden(mapped, description, collectionDuration, deliveryDuration, leadTime, orderInTime);
+        }
+
+        @Test
+        @DisplayName("PackageTransformer should keep calculated fields null for non-completed packages")
+        void transformerShouldGateOnStatus() {
+            // Given
+            PackageCDC cdc = PackageCDC.builder()
+                    .id(2L)
+                    .createdAt("2025-11-13 10:00:00")
+                    .pickedUpAt("2025-11-13 10:10:00")
+                    .completedAt("2025-11-13 10:30:00")
+                    .eta(60)
+                    .status("IN_DELIVERY")
+                    .cancelled(0)
+                    .build();
+
+            // When
+            MappedPackage mapped = transformer.transform(cdc);
+
+            // Then
+            assertGolden(mapped, "in delivery", null, null, null, null);
+        }
+
+        @Test
+        @DisplayName("Kernel should fall back to completed_at only when status is missing")
+        void kernelShouldDecideCompletion() {
+            assertThat(MappingKernel.isCompleted("COMPLETED", MappingKernel.NO_TIMESTAMP)).isTrue();
+            assertThat(MappingKernel.isCompleted("IN_DELIVERY", 1763034015000000L)).isFalse();
+            assertThat(MappingKernel.isCompleted(null, 1763034015000000L)).isTrue();
+            assertThat(MappingKernel.isCompleted(null, MappingKernel.NO_TIMESTAMP)).isFalse();
+        }
+    }
+}
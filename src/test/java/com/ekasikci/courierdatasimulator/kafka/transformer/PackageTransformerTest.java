@@ -0,0 +1,123 @@
+package com.ekasikci.courierdatasimulator.kafka.transformer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.ekasikci.courierdatasimulator.kafka.dto.MappedPackage;
+import com.ekasikci.courierdatasimulator.kafka.dto.PackageCDC;
+
+/**
+ * Unit tests for PackageTransformer
+ * Compares every transform against the original implementation
+ */
+@DisplayName("PackageTransformer Unit Tests")
+class PackageTransformerTest {
+
+    private final PackageTransformer transformer = new PackageTransformer();
+
+    private final LegacyPackageTransformer legacy = new LegacyPackageTransformer();
+
+    @Nested
+    @DisplayName("Transform Tests")
+    class TransformTests {
+
+        @Test
+        @DisplayName("Should compute durations for completed package from numeric timestamps")
+        void shouldComputeDurationsForCompletedPackage() {
+            // Given - 10:47:52, 10:49:50, 11:40:15 as Debezium micros
+            PackageCDC cdc = PackageCDC.builder()
+                    .id(1L)
+                    .eta(277)
+                    .createdAt("1763030872000000")
+                    .lastUpdatedAt("1763034015000000")
+                    .pickedUpAt("1763030990000000")
+                    .completedAt("1763034015000000")
+                    .build();
+
+            // When
+            MappedPackage mapped = transformer.transform(cdc);
+
+            // Then
+            assertThat(mapped.getCollectionDuration()).isEqualTo(1);
+            assertThat(mapped.getDeliveryDuration()).isEqualTo(50);
+            assertThat(mapped.getLeadTime()).isEqualTo(52);
+            assertThat(mapped.getOrderInTime()).isTrue();
+            assertThat(mapped).isEqualTo(legacy.transform(cdc));
+        }
+
+        @Test
+        @DisplayName("Should leave calculated fields null when timestamps are missing")
+        void shouldLeaveCalculatedFieldsNullWhenMissing() {
+            // Given
+            PackageCDC cdc = PackageCDC.builder()
+                    .id(2L)
+                    .createdAt("2025-11-13 10:47:52")
+                    .build();
+
+            // When
+            MappedPackage mapped = transformer.transform(cdc);
+
+            // Then
+            assertThat(mapped.getEta()).isNull();
+            assertThat(mapped.getLastUpdatedAt()).isNull();
+            assertThat(mapped.getCollectionDuration()).isNull();
+            assertThat(mapped.getDeliveryDuration()).isNull();
+            assertThat(mapped.getLeadTime()).isNull();
+            assertThat(mapped.getOrderInTime()).isNull();
+            assertThat(mapped).isEqualTo(legacy.transform(cdc));
+        }
+
+        @Test
+        @DisplayName("Should return null for null input")
+        void shouldReturnNullForNullInput() {
+            assertThat(transformer.transform((PackageCDC) null)).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should match legacy transform on randomized CDC records")
+    void shouldMatchLegacyOnRandomizedRecords() {
+        Random random = new Random(7);
+
+        for (int i = 0; i < 5_000; i++) {
+            PackageCDC cdc = randomPackageCDC(random);
+
+            assertThat(transformer.transform(cdc)).as("transform of %s", cdc).isEqualTo(legacy.transform(cdc));
+        }
+    }
+
+    static PackageCDC randomPackageCDC(Random random) {
+        long createdMicros = 1_700_000_000_000_000L + (long) (random.nextDouble() * 100_000_000_000_000L);
+        long pickedUpMicros = createdMicros + random.nextInt(3_600) * 1_000_000L + random.nextInt(1_000_000);
+        long completedMicros = pickedUpMicros + random.nextInt(7_200) * 1_000_000L;
+
+        return PackageCDC.builder()
+                .id(random.nextInt(10) == 0 ? null : random.nextLong(1, 10_000_000))
+                .eta(random.nextInt(10) == 0 ? null : random.nextInt(30, 150))
+                .cancelled(0)
+                .createdAt(randomTimestamp(random, createdMicros))
+                .lastUpdatedAt(randomTimestamp(random, completedMicros))
+                .pickedUpAt(random.nextInt(4) == 0 ? null : randomTimestamp(random, pickedUpMicros))
+                .completedAt(random.nextInt(3) == 0 ? null : randomTimestamp(random, completedMicros))
+                .status("COMPLETED")
+                .build();
+    }
+
+    private static String randomTimestamp(Random random, long micros) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return Long.toString(micros / 1000); // millis
+            case 1:
+                return String.format("%tF %<tT", micros / 1000);
+            case 2:
+                return random.nextInt(20) == 0 ? "garbage" : "";
+            default:
+                return Long.toString(micros);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.ekasikci.courierdatasimulator.kafka.transformer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Differential tests for TimestampFormatter against DateTimeFormatter
+ */
+@DisplayName("TimestampFormatter Differential Tests")
+class TimestampFormatterTest {
+
+    private static final DateTimeFormatter FORMAT_MICROS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    private static final DateTimeFormatter FORMAT_SECONDS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** Original PackageTransformer#fromEpochMicros with an explicit zone */
+    private static String legacyFromEpochMicros(long micros, ZoneId zone) {
+        long seconds = micros / 1_000_000;
+        long microsPart = micros % 1_000_000;
+
+        LocalDateTime dt = LocalDateTime.ofInstant(Instant.ofEpochSecond(seconds, microsPart * 1000), zone);
+        return microsPart == 0 ? dt.format(FORMAT_SECONDS) : dt.format(FORMAT_MICROS);
+    }
+
+    /** Original PackageService#formatDateTime */
+    private static String legacyFormatDateTime(LocalDateTime dateTime) {
+        return dateTime.getNano() > 0 ? dateTime.format(FORMAT_MICROS) : dateTime.format(FORMAT_SECONDS);
+    }
+
+    @Nested
+    @DisplayName("Epoch Micros Tests")
+    class EpochMicrosTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "UTC", "Europe/Istanbul", "America/New_York", "Asia/Kolkata", "Asia/Kathmandu",
+                "Australia/Lord_Howe", "Pacific/Chatham", "Europe/London" })
+        @DisplayName("Should match legacy output on random instants")
+        void shouldMatchLegacyOnRandomInstants(String zoneId) {
+            ZoneId zone = ZoneId.of(zoneId);
+            TimestampFormatter formatter = new TimestampFormatter(zone);
+            Random random = new Random(zoneId.hashCode());
+
+            for (int i = 0; i < 20_000; i++) {
+                long micros = randomMicros(random);
+
+                assertThat(formatter.formatEpochMicros(micros))
+                        .as("micros %d in %s", micros, zoneId)
+                        .isEqualTo(legacyFromEpochMicros(micros, zone));
+            }
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = { "Europe/Istanbul", "America/New_York", "Australia/Lord_Howe", "Asia/Kolkata" })
+        @DisplayName("Should match legacy output around zone offset transitions")
+        void shouldMatchLegacyAroundTransitions(String zoneId) {
+            ZoneId zone = ZoneId.of(zoneId);
+            TimestampFormatter formatter = new TimestampFormatter(zone);
+            Instant cursor = Instant.parse("1940-01-01T00:00:00Z");
+
+            for (int i = 0; i < 40; i++) {
+                ZoneOffsetTransition transition = zone.getRules().nextTransition(cursor);
+                if (transition == null)
+                    break;
+
+                long transitionSecond = transition.toEpochSecond();
+                for (long delta = -7_200; delta <= 7_200; delta += 599) {
+                    long micros = (transitionSecond + delta) * 1_000_000L + (delta & 1) * 250_000L;
+
+                    assertThat(formatter.formatEpochMicros(micros))
+                            .as("micros %d in %s", micros, zoneId)
+                            .isEqualTo(legacyFromEpochMicros(micros, zone));
+                }
+                cursor = transition.getInstant();
+            }
+        }
+
+        @Test
+        @DisplayName("Should drop the fraction only when micros are zero")
+        void shouldDropFractionOnlyWhenZero() {
+            TimestampFormatter formatter = new TimestampFormatter(ZoneId.of("UTC"));
+
+            assertThat(formatter.formatEpochMicros(1_763_030_872_000_000L)).isEqualTo("2025-11-13 10:47:52");
+            assertThat(formatter.formatEpochMicros(1_763_030_872_000_001L)).isEqualTo("2025-11-13 10:47:52.000001");
+            assertThat(formatter.formatEpochMicros(-1L)).isEqualTo("1969-12-31 23:59:59.999999");
+        }
+
+        @Test
+        @DisplayName("Should fall back to formatters outside four-digit years")
+        void shouldMatchLegacyOutsideFourDigitYears() {
+            TimestampFormatter formatter = new TimestampFormatter(ZoneId.of("UTC"));
+
+            for (long micros : new long[] { Long.MAX_VALUE, -62_135_596_800_000_001L, 253_402_300_800_000_000L }) {
+                assertThat(formatter.formatEpochMicros(micros)).isEqualTo(legacyFromEpochMicros(micros, ZoneId.of("UTC")));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Local Date-Time Tests")
+    class LocalDateTimeTests {
+
+        @Test
+        @DisplayName("Should match legacy service formatting on random date-times")
+        void shouldMatchLegacyOnRandomDateTimes() {
+            TimestampFormatter formatter = TimestampFormatter.systemDefault();
+            Random random = new Random(3);
+
+            for (int i = 0; i < 20_000; i++) {
+                LocalDateTime dateTime = LocalDateTime.of(
+                        random.nextInt(1, 10_000), random.nextInt(1, 13), random.nextInt(1, 29),
+                        random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                        random.nextInt(4) == 0 ? 0 : random.nextInt(1_000_000_000));
+
+                assertThat(formatter.format(dateTime)).isEqualTo(legacyFormatDateTime(dateTime));
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep a zero fraction when nanos are below one micro")
+        void shouldKeepZeroFractionForSubMicroNanos() {
+            LocalDateTime dateTime = LocalDateTime.of(2025, 11, 13, 10, 47, 52, 500);
+
+            assertThat(TimestampFormatter.systemDefault().format(dateTime)).isEqualTo("2025-11-13 10:47:52.000000");
+        }
+
+        @Test
+        @DisplayName("Should match legacy formatting outside four-digit years")
+        void shouldMatchLegacyOutsideFourDigitYears() {
+            LocalDateTime dateTime = LocalDateTime.of(10_000, 1, 1, 0, 0, 0, 1_000);
+
+            assertThat(TimestampFormatter.systemDefault().format(dateTime)).isEqualTo(legacyFormatDateTime(dateTime));
+        }
+    }
+
+    private static long randomMicros(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                // Same burst: a few seconds around one instant
+                return 1_763_030_872_000_000L + random.nextInt(5_000_000);
+            case 1:
+                return 1_763_030_872_000_000L + random.nextInt(1_000) * 1_000_000L;
+            case 2:
+                return random.nextLong(-62_000_000_000_000_000L, 253_000_000_000_000_000L);
+            default:
+                return random.nextLong(0, 4_000_000_000_000_000L);
+        }
+    }
+}
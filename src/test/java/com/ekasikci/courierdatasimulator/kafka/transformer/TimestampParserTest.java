@@ -0,0 +1,168 @@
+package com.ekasikci.courierdatasimulator.kafka.transformer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Differential tests for TimestampParser against the original
+ * formatter-based implementation
+ */
+@DisplayName("TimestampParser Differential Tests")
+class TimestampParserTest {
+
+    private static final LegacyPackageTransformer LEGACY = new LegacyPackageTransformer();
+
+    private static void assertSameAsLegacy(String input) {
+        Long expected = LEGACY.toEpochMicros(input);
+        long actual = TimestampParser.toEpochMicros(input);
+
+        assertThat(actual)
+                .as("epoch micros for [%s]", input)
+                .isEqualTo(expected == null ? TimestampParser.NO_TIMESTAMP : expected);
+    }
+
+    @Nested
+    @DisplayName("Numeric Inputs")
+    class NumericInputTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "0", "7", "1731495472000", "1731495472123456", "9000000000000", "9000000000001",
+                "0001731495472000", "9223372036854775807", "999999999999" })
+        @DisplayName("Should treat digits as millis or micros like the legacy parser")
+        void shouldMatchLegacyForDigits(String input) {
+            assertSameAsLegacy(input);
+        }
+
+        @Test
+        @DisplayName("Should surface the same exception for digits outside long range")
+        void shouldThrowLikeLegacyOnOverflow() {
+            String input = "9223372036854775808";
+
+            assertThatThrownBy(() -> LEGACY.toEpochMicros(input)).isInstanceOf(NumberFormatException.class);
+            assertThatThrownBy(() -> TimestampParser.toEpochMicros(input)).isInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Date-Time Strings")
+    class DateTimeInputTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "2025-11-13 10:47:52", "2025-11-13 10:47:52.123", "2025-11-13 10:47:52.123456",
+                "1970-01-01 00:00:00", "1969-12-31 23:59:59.999999", "0001-01-01 00:00:00",
+                "9999-12-31 23:59:59.999999", "2024-02-29 12:00:00", "2000-03-01 00:00:00.000" })
+        @DisplayName("Should match legacy for well-formed timestamps")
+        void shouldMatchLegacyForWellFormed(String input) {
+            assertSameAsLegacy(input);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "2025-02-30 10:00:00", "2024-02-31 10:00:00", "2025-04-31 10:00:00",
+                "2100-02-29 00:00:00", "2025-01-31 23:59:59.000001", "2025-12-31 24:00:00",
+                "2025-12-31 24:00:00.000", "2025-12-31 24:00:00.000000", "2025-12-31 24:00:01",
+                "2025-12-31 24:00:00.001" })
+        @DisplayName("Should apply the same SMART resolution as java.time")
+        void shouldMatchLegacyForSmartResolution(String input) {
+            assertSameAsLegacy(input);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "0000-01-01 00:00:00", "2025-13-01 00:00:00", "2025-00-01 00:00:00", "2025-01-00 00:00:00",
+                "2025-01-32 00:00:00", "2025-01-01 25:00:00", "2025-01-01 00:60:00", "2025-01-01 00:00:60" })
+        @DisplayName("Should reject out-of-range fields like legacy")
+        void shouldMatchLegacyForOutOfRange(String input) {
+            assertSameAsLegacy(input);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "+2025-11-13 10:47:52", "+12025-11-13 10:47:52", "+0002025-11-13 10:47:52.123",
+                "-2025-11-13 10:47:52", "+999999999-12-31 23:59:59" })
+        @DisplayName("Should match legacy for signed extended years")
+        void shouldMatchLegacyForSignedYears(String input) {
+            assertSameAsLegacy(input);
+        }
+    }
+
+    @Nested
+    @DisplayName("Unparseable Inputs")
+    class UnparseableInputTests {
+
+        @ParameterizedTest
+        @NullAndEmptySource
+        @DisplayName("Should return no timestamp for null and empty")
+        void shouldReturnNoTimestampForNullAndEmpty(String input) {
+            assertThat(TimestampParser.toEpochMicros(input)).isEqualTo(TimestampParser.NO_TIMESTAMP);
+            assertSameAsLegacy(input);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "not-a-date", "2025-11-13T10:47:52", "2025-11-13 10:47:52 ", " 2025-11-13 10:47:52",
+                "2025/11/13 10:47:52", "2025-11-13 10:47:52.12", "2025-11-13 10:47:52.1234",
+                "2025-11-13 10:47:52,123", "2025-11-13 10:47:5a", "１２３４", "-123", "12.5",
+                "2025-11-13", "10:47:52", "2025-11-13 10:47:52.123456789" })
+        @DisplayName("Should reject malformed inputs like legacy")
+        void shouldMatchLegacyForMalformed(String input) {
+            assertSameAsLegacy(input);
+        }
+    }
+
+    @Test
+    @DisplayName("Should match legacy on randomized inputs")
+    void shouldMatchLegacyOnRandomizedInputs() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            assertSameAsLegacy(randomInput(random));
+        }
+    }
+
+    private static String randomInput(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return Long.toString(Math.abs(random.nextLong() % 10_000_000_000_000_000L));
+            case 1:
+                return randomDateTime(random, false);
+            case 2:
+                return randomDateTime(random, true);
+            default:
+                char[] chars = randomDateTime(random, true).toCharArray();
+                chars[random.nextInt(chars.length)] = "0123456789-: .x+".charAt(random.nextInt(16));
+                return new String(chars);
+        }
+    }
+
+    private static String randomDateTime(Random random, boolean allowOutOfRange) {
+        int bound = allowOutOfRange ? 5 : 0;
+        String base = String.format("%04d-%02d-%02d %02d:%02d:%02d",
+                random.nextInt(allowOutOfRange ? 10_000 : 9_999) + (allowOutOfRange ? 0 : 1),
+                random.nextInt(12 + bound) + 1,
+                random.nextInt(28 + bound) + 1,
+                random.nextInt(24 + bound / 4),
+                random.nextInt(60 + bound / 4),
+                random.nextInt(60 + bound / 4));
+
+        switch (random.nextInt(3)) {
+            case 0:
+                return base;
+            case 1:
+                return base + String.format(".%03d", random.nextInt(1_000));
+            default:
+                return base + String.format(".%06d", random.nextInt(1_000_000));
+        }
+    }
+}
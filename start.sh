@@ -130,7 +130,11 @@ sleep 3
 
 # Register Debezium connector
 echo ""
-echo -e "${GREEN}📝 Registering Debezium CDC connector...${NC}"
+# CDC topic partitions for the connector; the application binds the same KAFKA_TOPIC_PARTITIONS
+# variable to kafka.topic.partitions, so export it to both when overriding the properties default
+KAFKA_TOPIC_PARTITIONS=${KAFKA_TOPIC_PARTITIONS:-$(sed -n 's/^kafka\.topic\.partitions=//p' src/main/resources/application.properties)}
+CONNECTOR_CONFIG=${CONNECTOR_CONFIG:-debezium-mysql-connector.json}
+echo -e "${GREEN}📝 Registering Debezium CDC connector ($CONNECTOR_CONFIG, $KAFKA_TOPIC_PARTITIONS partitions)...${NC}"
 
 # Delete existing connector if present
 curl -X DELETE http://localhost:8083/connectors/mysql-package-connector 2>/dev/null
@@ -140,7 +144,8 @@ sleep 2
 # Register new connector
 RESPONSE=$(curl -s -X POST http://localhost:8083/connectors \
   -H "Content-Type: application/json" \
-  -d @debezium-mysql-connector.json)
+  -d "$(sed "s/\"topic.creation.default.partitions\": \"[0-9]*\"/\"topic.creation.default.partitions\": \"$KAFKA_TOPIC_PARTITIONS\"/" \
+      "$CONNECTOR_CONFIG")")
 
 if echo "$RESPONSE" | grep -q "error"; then
     echo -e "${RED}❌ Failed to register connector:${NC}"